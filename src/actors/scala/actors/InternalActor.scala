@@ -33,14 +33,14 @@ private[actors] trait InternalActor extends AbstractActor with InternalReplyReac
 
   protected[actors] override def scheduler: IScheduler = Scheduler
 
-  private[actors] override def startSearch(msg: Any, replyTo: OutputChannel[Any], handler: PartialFunction[Any, Any]) =
+  // a suspended actor drains its send buffer itself once it is resumed
+  private[actors] override def startSearch(handler: PartialFunction[Any, Any]) =
     if (isSuspended) {
       () =>
         synchronized {
-          mailbox.append(msg, replyTo)
           resumeActor()
         }
-    } else super.startSearch(msg, replyTo, handler)
+    } else super.startSearch(handler)
 
   // we override this method to check `shouldExit` before suspending
   private[actors] override def searchMailbox(startMbox: MQueue[Any],
@@ -67,9 +67,13 @@ private[actors] trait InternalActor extends AbstractActor with InternalReplyReac
             // since linked actors might have set it after we checked
             // last time (e.g., at the beginning of `react`)
             if (shouldExit) exit()
-            waitingFor = handler
-            // see Reactor.searchMailbox
-            throw Actor.suspendException
+            if (startWaiting(handler)) {
+              // see Reactor.searchMailbox
+              throw Actor.suspendException
+            }
+            tmpMbox = new MQueue[Any]("Temp")
+            drainSendBuffer(tmpMbox)
+            // keep going
           }
         }
       } else {
@@ -106,9 +110,10 @@ private[actors] trait InternalActor extends AbstractActor with InternalReplyReac
             drainSendBuffer(mailbox)
             // keep going
           } else {
-            waitingFor = f
-            isSuspended = true
-            scheduler.managedBlock(blocker)
+            if (startWaiting(f)) {
+              isSuspended = true
+              scheduler.managedBlock(blocker)
+            }
             drainSendBuffer(mailbox)
             // keep going
           }
@@ -180,10 +185,11 @@ private[actors] trait InternalActor extends AbstractActor with InternalReplyReac
 
             // It is possible that !onTimeout.isEmpty, but TIMEOUT is not yet in mailbox
             // See SI-4759
-            waitingFor = f
             received = None
-            isSuspended = true
-            scheduler.managedBlock(blocker)
+            if (startWaiting(f)) {
+              isSuspended = true
+              scheduler.managedBlock(blocker)
+            }
             drainSendBuffer(mailbox)
             // keep going
             () => {}
@@ -75,12 +75,11 @@ trait InternalReplyReactor extends Reactor[Any] with ReactorCanReply {
       if (null eq qel) {
         synchronized {
           // in mean time new stuff might have arrived
-          if (!sendBuffer.isEmpty) {
+          if (!sendBuffer.isEmpty || !startWaiting(handler)) {
             tmpMbox = new MQueue[Any]("Temp")
             drainSendBuffer(tmpMbox)
             // keep going
           } else {
-            waitingFor = handler
             // see Reactor.searchMailbox
             throw Actor.suspendException
           }
@@ -133,14 +132,16 @@ trait InternalReplyReactor extends Reactor[Any] with ReactorCanReply {
           } else if (msec == 0L) {
             // throws Actor.suspendException
             resumeReceiver((TIMEOUT, this), handler, false)
-          } else {
-            waitingFor = handler
+          } else if (startWaiting(handler)) {
             val thisActor = this
             onTimeout = Some(new TimerTask {
               def run() { thisActor.send(TIMEOUT, thisActor) }
             })
             Actor.timer.schedule(onTimeout.get, msec)
             throw Actor.suspendException
+          } else {
+            drainSendBuffer(mailbox)
+            // keep going
           }
         }
       } else
@@ -205,6 +205,54 @@ private[actors] class MQueue[Msg >: Null](protected val label: String) {
   }
 }
 
+/** The send buffer of an actor: a multiple-producer, single-consumer queue that
+ *  senders append to without locking.
+ *
+ *  Senders push their elements onto a lock-free stack with a CAS. The actor
+ *  takes the whole stack with one atomic swap in `foreachDequeue` and moves the
+ *  elements, in the order they were sent, into its mailbox. The elements are
+ *  relinked into the mailbox rather than copied, so a message is allocated one
+ *  queue element for its whole stay in the actor.
+ *
+ *  There must be only one consumer at a time - actors drain their send buffer
+ *  while holding their own lock.
+ */
+private[actors] class ConcurrentMQueue[Msg >: Null](protected val label: String)
+extends java.util.concurrent.atomic.AtomicReference[MQueueElement[Msg]] {
+
+  final def isEmpty = get eq null
+
+  def append(msg: Msg, session: OutputChannel[Any]) {
+    val el = new MQueueElement(msg, session)
+    var top = get
+    el.next = top
+    while (!compareAndSet(top, el)) {
+      top = get
+      el.next = top
+    }
+  }
+
+  /** Moves all elements to `target`, oldest first. */
+  def foreachDequeue(target: MQueue[Msg]) {
+    // reverse the stack in place to restore the sending order
+    var curr = getAndSet(null)
+    var prev: MQueueElement[Msg] = null
+    while (curr != null) {
+      val next = curr.next
+      curr.next = prev
+      prev = curr
+      curr = next
+    }
+    while (prev != null) {
+      val next = prev.next
+      target.append(prev)
+      prev = next
+    }
+  }
+
+  override def toString() = label
+}
+
 /** Debugging trait.
  */
 private[actors] trait MessageQueueTracer extends MQueue[Any]
@@ -58,8 +58,8 @@ trait Reactor[Msg >: Null] extends OutputChannel[Msg] with Combinators {
   /* The $actor's mailbox. */
   private[actors] val mailbox = new MQueue[Msg]("Reactor")
 
-  // guarded by this
-  private[actors] val sendBuffer = new MQueue[Msg]("SendBuffer")
+  // appended to without holding the lock, drained while holding it
+  private[actors] val sendBuffer = new ConcurrentMQueue[Msg]("SendBuffer")
 
   /* Whenever this $actor executes on some thread, `waitingFor` is
    * guaranteed to be equal to `Reactor.waitingForNone`.
@@ -71,8 +71,9 @@ trait Reactor[Msg >: Null] extends OutputChannel[Msg] with Combinators {
    * If the $actor waits in a `react`, `waitingFor` holds the
    * message handler that `react` was called with.
    *
-   * guarded by this
+   * written while holding the lock of this, read by senders without it
    */
+  @volatile
   private[actors] var waitingFor: PartialFunction[Msg, Any] =
     Reactor.waitingForNone
 
@@ -98,26 +99,47 @@ trait Reactor[Msg >: Null] extends OutputChannel[Msg] with Combinators {
     mailbox.size
 
   def send(msg: Msg, replyTo: OutputChannel[Any]) {
-    val todo = synchronized {
-      if (waitingFor ne Reactor.waitingForNone) {
-        val savedWaitingFor = waitingFor
-        waitingFor = Reactor.waitingForNone
-        startSearch(msg, replyTo, savedWaitingFor)
-      } else {
-        sendBuffer.append(msg, replyTo)
-        () => { /* do nothing */ }
+    sendBuffer.append(msg, replyTo)
+    // The lock is only needed to resume a waiting actor. One that starts
+    // waiting checks the send buffer again afterwards (see `startWaiting`),
+    // so either it finds the message or we find it waiting.
+    if (waitingFor ne Reactor.waitingForNone) {
+      val todo = synchronized {
+        if ((waitingFor ne Reactor.waitingForNone) && !sendBuffer.isEmpty) {
+          val savedWaitingFor = waitingFor
+          waitingFor = Reactor.waitingForNone
+          startSearch(savedWaitingFor)
+        } else
+          () => { /* do nothing */ }
       }
+      todo()
     }
-    todo()
   }
 
-  private[actors] def startSearch(msg: Msg, replyTo: OutputChannel[Any], handler: PartialFunction[Msg, Any]) =
+  private[actors] def startSearch(handler: PartialFunction[Msg, Any]) =
     () => scheduler execute makeReaction(() => {
       val startMbox = new MQueue[Msg]("Start")
-      synchronized { startMbox.append(msg, replyTo) }
+      synchronized { drainSendBuffer(startMbox) }
       searchMailbox(startMbox, handler, true)
     })
 
+  /* Makes this $actor wait for a message matching `handler`, unless
+   * a message has been sent since the send buffer was last found empty.
+   * Senders append without holding the lock and check `waitingFor`
+   * afterwards, so the buffer has to be checked once more after
+   * `waitingFor` is set. Returns `false` if the $actor must not wait.
+   *
+   * guarded by this
+   */
+  private[actors] def startWaiting(handler: PartialFunction[Msg, Any]): Boolean = {
+    waitingFor = handler
+    if (sendBuffer.isEmpty) true
+    else {
+      waitingFor = Reactor.waitingForNone
+      false
+    }
+  }
+
   private[actors] final def makeReaction(fun: () => Unit): Runnable =
     makeReaction(fun, null, null)
 
@@ -168,12 +190,11 @@ trait Reactor[Msg >: Null] extends OutputChannel[Msg] with Combinators {
       if (null eq qel) {
         synchronized {
           // in mean time new stuff might have arrived
-          if (!sendBuffer.isEmpty) {
+          if (!sendBuffer.isEmpty || !startWaiting(handler)) {
             tmpMbox = new MQueue[Msg]("Temp")
             drainSendBuffer(tmpMbox)
             // keep going
           } else {
-            waitingFor = handler
             /* Here, we throw a SuspendActorControl to avoid
                terminating this actor when the current ReactorTask
                is finished.
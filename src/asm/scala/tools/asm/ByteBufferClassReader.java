@@ -0,0 +1,581 @@
+/***
+ * ASM: a very small and fast Java bytecode manipulation framework
+ * Copyright (c) 2000-2011 INRIA, France Telecom
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holders nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package scala.tools.asm;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * A read-only view of a class file stored in a {@link ByteBuffer}, for
+ * instance a {@link java.nio.MappedByteBuffer}. Unlike {@link ClassReader},
+ * this class never copies the class file into an array, and decodes constant
+ * pool entries only when they are requested: its constructor merely records
+ * the offsets of the constant pool entries. It is intended for clients that
+ * need only a small part of many class files, such as the class header, a
+ * single attribute or a single method. Use {@link #toClassReader()} for a full
+ * parse.
+ *
+ * Offsets passed to and returned by the methods of this class are relative to
+ * the start of the class file, like those of {@link ClassReader}.
+ *
+ * @author Eric Bruneton
+ */
+public class ByteBufferClassReader {
+
+    /**
+     * The class file. Position 0 is the first byte of the class file. All
+     * accesses are absolute, so the position of the buffer is never changed.
+     */
+    private final ByteBuffer b;
+
+    /**
+     * The start index of each constant pool item in {@link #b b}, plus one.
+     */
+    private final int[] items;
+
+    /**
+     * The String objects corresponding to the CONSTANT_Utf8 items decoded so
+     * far, allocated on the first decoded string.
+     */
+    private String[] strings;
+
+    /**
+     * Maximum length of the strings contained in the constant pool of the
+     * class.
+     */
+    private final int maxStringLength;
+
+    /**
+     * Start index of the class header information (access, name...) in
+     * {@link #b b}.
+     */
+    public final int header;
+
+    // ------------------------------------------------------------------------
+    // Constructors
+    // ------------------------------------------------------------------------
+
+    /**
+     * Constructs a new {@link ByteBufferClassReader} object. The class file
+     * consists of the remaining bytes of the given buffer; the buffer itself is
+     * not modified.
+     *
+     * @param buffer
+     *            the bytecode of the class to be read.
+     */
+    public ByteBufferClassReader(final ByteBuffer buffer) {
+        this.b = buffer.slice();
+        // unlike ClassReader, accepts class files of versions after
+        // Opcodes.V1_8: the layout of their header, members and attributes is
+        // the same, only the content of some attributes is not understood.
+        // records the offsets of the constant pool entries
+        items = new int[readUnsignedShort(8)];
+        int n = items.length;
+        int max = 0;
+        int index = 10;
+        for (int i = 1; i < n; ++i) {
+            items[i] = index + 1;
+            int size;
+            switch (b.get(index)) {
+            case ClassWriter.FIELD:
+            case ClassWriter.METH:
+            case ClassWriter.IMETH:
+            case ClassWriter.INT:
+            case ClassWriter.FLOAT:
+            case ClassWriter.NAME_TYPE:
+            case ClassWriter.INDY:
+            case 17: // CONSTANT_Dynamic
+                size = 5;
+                break;
+            case ClassWriter.LONG:
+            case ClassWriter.DOUBLE:
+                size = 9;
+                ++i;
+                break;
+            case ClassWriter.UTF8:
+                size = 3 + readUnsignedShort(index + 1);
+                if (size > max) {
+                    max = size;
+                }
+                break;
+            case ClassWriter.HANDLE:
+                size = 4;
+                break;
+            // case ClassWriter.CLASS:
+            // case ClassWriter.STR:
+            // case ClassWriter.MTYPE
+            default:
+                size = 3;
+                break;
+            }
+            index += size;
+        }
+        maxStringLength = max;
+        // the class header information starts just after the constant pool
+        header = index;
+    }
+
+    /**
+     * Constructs a new {@link ByteBufferClassReader} over a memory mapped
+     * class file. The mapping stays valid after the file is closed.
+     *
+     * @param file
+     *            the class file to be read.
+     * @return a reader for the given class file.
+     * @throws IOException
+     *             if the file cannot be mapped.
+     */
+    public static ByteBufferClassReader map(final File file)
+            throws IOException {
+        FileInputStream in = new FileInputStream(file);
+        try {
+            FileChannel ch = in.getChannel();
+            return new ByteBufferClassReader(ch.map(
+                    FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        } finally {
+            in.close();
+        }
+    }
+
+    // ------------------------------------------------------------------------
+    // Class header
+    // ------------------------------------------------------------------------
+
+    /**
+     * Returns the class's access flags (see {@link Opcodes}).
+     *
+     * @return the class access flags
+     *
+     * @see ClassReader#getAccess()
+     */
+    public int getAccess() {
+        return readUnsignedShort(header);
+    }
+
+    /**
+     * Returns the internal name of the class.
+     *
+     * @return the internal class name
+     */
+    public String getClassName() {
+        return readClass(header + 2, new char[maxStringLength]);
+    }
+
+    /**
+     * Returns the internal of name of the super class.
+     *
+     * @return the internal name of super class, or <tt>null</tt> for
+     *         {@link Object} class.
+     */
+    public String getSuperName() {
+        return readClass(header + 4, new char[maxStringLength]);
+    }
+
+    /**
+     * Returns the internal names of the class's interfaces.
+     *
+     * @return the array of internal names for all implemented interfaces.
+     */
+    public String[] getInterfaces() {
+        int index = header + 6;
+        int n = readUnsignedShort(index);
+        String[] interfaces = new String[n];
+        if (n > 0) {
+            char[] buf = new char[maxStringLength];
+            for (int i = 0; i < n; ++i) {
+                index += 2;
+                interfaces[i] = readClass(index, buf);
+            }
+        }
+        return interfaces;
+    }
+
+    // ------------------------------------------------------------------------
+    // Members and attributes
+    // ------------------------------------------------------------------------
+
+    /**
+     * Returns the content of a class attribute, without copying it.
+     *
+     * @param name
+     *            the name of the attribute, for instance "ScalaSig" or
+     *            "RuntimeVisibleAnnotations".
+     * @return a read-only buffer containing the attribute content (without the
+     *         attribute name and length), or <tt>null</tt> if the class has no
+     *         such attribute.
+     */
+    public ByteBuffer getAttribute(final String name) {
+        return findAttribute(getAttributes(), name);
+    }
+
+    /**
+     * Returns the start offset of a method_info structure.
+     *
+     * @param name
+     *            the name of the method.
+     * @param desc
+     *            the descriptor of the method.
+     * @return the offset of the method_info structure of the given method, or
+     *         -1 if the class doesn't declare it.
+     */
+    public int getMethod(final String name, final String desc) {
+        int u = skipMembers(header + 8 + readUnsignedShort(header + 6) * 2);
+        for (int i = readUnsignedShort(u); i > 0; --i) {
+            if (utf8Equals(u + 4, name) && utf8Equals(u + 6, desc)) {
+                return u + 2;
+            }
+            u = skipMember(u + 2) - 2;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the content of an attribute of a method, without copying it.
+     *
+     * @param method
+     *            the offset of a method_info structure, as returned by
+     *            {@link #getMethod(String, String)}.
+     * @param name
+     *            the name of the attribute, for instance "Code".
+     * @return a read-only buffer containing the attribute content, or
+     *         <tt>null</tt> if the method has no such attribute.
+     */
+    public ByteBuffer getMethodAttribute(final int method, final String name) {
+        return findAttribute(method + 6, name);
+    }
+
+    /**
+     * Returns the start offset of the attribute_info structures of the class.
+     */
+    private int getAttributes() {
+        // skips the header, the fields and the methods
+        int u = header + 8 + readUnsignedShort(header + 6) * 2;
+        return skipMembers(skipMembers(u));
+    }
+
+    /**
+     * Skips a fields_count / methods_count table.
+     *
+     * @param u
+     *            offset of the count.
+     * @return the offset of the count of the following table.
+     */
+    private int skipMembers(int u) {
+        for (int i = readUnsignedShort(u); i > 0; --i) {
+            u = skipMember(u + 2) - 2;
+        }
+        return u + 2;
+    }
+
+    /**
+     * Skips a field_info or method_info structure.
+     *
+     * @param u
+     *            offset of the structure.
+     * @return the offset of the first byte after the structure.
+     */
+    private int skipMember(int u) {
+        int n = readUnsignedShort(u + 6);
+        u += 8;
+        for (int j = n; j > 0; --j) {
+            u += 6 + readInt(u + 2);
+        }
+        return u;
+    }
+
+    /**
+     * Finds an attribute in an attributes_count / attribute_info table.
+     */
+    private ByteBuffer findAttribute(int u, final String name) {
+        for (int i = readUnsignedShort(u); i > 0; --i) {
+            int len = readInt(u + 4);
+            if (utf8Equals(u + 2, name)) {
+                ByteBuffer dup = b.asReadOnlyBuffer();
+                dup.position(u + 8);
+                dup.limit(u + 8 + len);
+                return dup.slice();
+            }
+            u += 6 + len;
+        }
+        return null;
+    }
+
+    // ------------------------------------------------------------------------
+    // Utility methods: low level parsing
+    // ------------------------------------------------------------------------
+
+    /**
+     * Returns the number of constant pool items in {@link #b b}.
+     *
+     * @return the number of constant pool items in {@link #b b}.
+     */
+    public int getItemCount() {
+        return items.length;
+    }
+
+    /**
+     * Returns the start index of the constant pool item in {@link #b b}, plus
+     * one.
+     *
+     * @param item
+     *            the index a constant pool item.
+     * @return the start index of the constant pool item in {@link #b b}, plus
+     *         one.
+     */
+    public int getItem(final int item) {
+        return items[item];
+    }
+
+    /**
+     * Returns the maximum length of the strings contained in the constant
+     * pool of the class.
+     *
+     * @return the maximum length of the strings contained in the constant pool
+     *         of the class.
+     */
+    public int getMaxStringLength() {
+        return maxStringLength;
+    }
+
+    /**
+     * Reads a byte value in {@link #b b}.
+     *
+     * @param index
+     *            the start index of the value to be read in {@link #b b}.
+     * @return the read value.
+     */
+    public int readByte(final int index) {
+        return b.get(index) & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned short value in {@link #b b}.
+     *
+     * @param index
+     *            the start index of the value to be read in {@link #b b}.
+     * @return the read value.
+     */
+    public int readUnsignedShort(final int index) {
+        return ((b.get(index) & 0xFF) << 8) | (b.get(index + 1) & 0xFF);
+    }
+
+    /**
+     * Reads a signed short value in {@link #b b}.
+     *
+     * @param index
+     *            the start index of the value to be read in {@link #b b}.
+     * @return the read value.
+     */
+    public short readShort(final int index) {
+        return b.getShort(index);
+    }
+
+    /**
+     * Reads a signed int value in {@link #b b}.
+     *
+     * @param index
+     *            the start index of the value to be read in {@link #b b}.
+     * @return the read value.
+     */
+    public int readInt(final int index) {
+        return b.getInt(index);
+    }
+
+    /**
+     * Reads a signed long value in {@link #b b}.
+     *
+     * @param index
+     *            the start index of the value to be read in {@link #b b}.
+     * @return the read value.
+     */
+    public long readLong(final int index) {
+        return b.getLong(index);
+    }
+
+    /**
+     * Reads an UTF8 string constant pool item in {@link #b b}. The string is
+     * decoded on the first request and cached afterwards.
+     *
+     * @param index
+     *            the start index of an unsigned short value in {@link #b b},
+     *            whose value is the index of an UTF8 constant pool item.
+     * @param buf
+     *            buffer to be used to read the item. This buffer must be
+     *            sufficiently large. It is not automatically resized.
+     * @return the String corresponding to the specified UTF8 item.
+     */
+    public String readUTF8(int index, final char[] buf) {
+        int item = readUnsignedShort(index);
+        if (index == 0 || item == 0) {
+            return null;
+        }
+        if (strings == null) {
+            strings = new String[items.length];
+        }
+        String s = strings[item];
+        if (s != null) {
+            return s;
+        }
+        index = items[item];
+        return strings[item] = readUTF(index + 2, readUnsignedShort(index), buf);
+    }
+
+    /**
+     * Tests whether an UTF8 string constant pool item is equal to the given
+     * string, without decoding the item.
+     *
+     * @param index
+     *            the start index of an unsigned short value in {@link #b b},
+     *            whose value is the index of an UTF8 constant pool item.
+     * @param s
+     *            the string to compare with.
+     * @return <tt>true</tt> if the item is equal to the given string.
+     */
+    public boolean utf8Equals(final int index, final String s) {
+        int item = readUnsignedShort(index);
+        if (strings != null && strings[item] != null) {
+            return strings[item].equals(s);
+        }
+        int u = items[item];
+        int utfLen = readUnsignedShort(u);
+        u += 2;
+        int end = u + utfLen;
+        int n = s.length();
+        for (int i = 0; i < n; ++i) {
+            char c = s.charAt(i);
+            if (c >= 0x01 && c <= 0x7F) {
+                if (u >= end || b.get(u++) != c) {
+                    return false;
+                }
+            } else {
+                // non ASCII characters are rare in names: decode the item
+                return s.equals(readUTF8(index, new char[maxStringLength]));
+            }
+        }
+        return u == end;
+    }
+
+    /**
+     * Reads UTF8 string in {@link #b b}.
+     *
+     * @param index
+     *            start offset of the UTF8 string to be read.
+     * @param utfLen
+     *            length of the UTF8 string to be read.
+     * @param buf
+     *            buffer to be used to read the string. This buffer must be
+     *            sufficiently large. It is not automatically resized.
+     * @return the String corresponding to the specified UTF8 string.
+     */
+    private String readUTF(int index, final int utfLen, final char[] buf) {
+        int endIndex = index + utfLen;
+        ByteBuffer b = this.b;
+        int strLen = 0;
+        int c;
+        int st = 0;
+        char cc = 0;
+        while (index < endIndex) {
+            c = b.get(index++);
+            switch (st) {
+            case 0:
+                c = c & 0xFF;
+                if (c < 0x80) { // 0xxxxxxx
+                    buf[strLen++] = (char) c;
+                } else if (c < 0xE0 && c > 0xBF) { // 110x xxxx 10xx xxxx
+                    cc = (char) (c & 0x1F);
+                    st = 1;
+                } else { // 1110 xxxx 10xx xxxx 10xx xxxx
+                    cc = (char) (c & 0x0F);
+                    st = 2;
+                }
+                break;
+
+            case 1: // byte 2 of 2-byte char or byte 3 of 3-byte char
+                buf[strLen++] = (char) ((cc << 6) | (c & 0x3F));
+                st = 0;
+                break;
+
+            case 2: // byte 2 of 3-byte char
+                cc = (char) ((cc << 6) | (c & 0x3F));
+                st = 1;
+                break;
+            }
+        }
+        return new String(buf, 0, strLen);
+    }
+
+    /**
+     * Reads a class constant pool item in {@link #b b}.
+     *
+     * @param index
+     *            the start index of an unsigned short value in {@link #b b},
+     *            whose value is the index of a class constant pool item.
+     * @param buf
+     *            buffer to be used to read the item. This buffer must be
+     *            sufficiently large. It is not automatically resized.
+     * @return the String corresponding to the specified class item.
+     */
+    public String readClass(final int index, final char[] buf) {
+        // computes the start index of the CONSTANT_Class item in b
+        // and reads the CONSTANT_Utf8 item designated by
+        // the first two bytes of this CONSTANT_Class item
+        return readUTF8(items[readUnsignedShort(index)], buf);
+    }
+
+    // ------------------------------------------------------------------------
+    // Full parse
+    // ------------------------------------------------------------------------
+
+    /**
+     * Copies the class file into a new array.
+     *
+     * @return the bytecode of the class.
+     */
+    public byte[] toByteArray() {
+        byte[] a = new byte[b.capacity()];
+        ByteBuffer dup = b.duplicate();
+        dup.clear();
+        dup.get(a);
+        return a;
+    }
+
+    /**
+     * Returns a {@link ClassReader} for the class, which requires copying the
+     * class file into an array.
+     *
+     * @return a {@link ClassReader} for the class.
+     */
+    public ClassReader toClassReader() {
+        return new ClassReader(toByteArray());
+    }
+}
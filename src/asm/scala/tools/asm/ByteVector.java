@@ -29,6 +29,11 @@
  */
 package scala.tools.asm;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * A dynamically extensible vector of bytes. This class is roughly equivalent to
  * a DataOutputStream on top of a ByteArrayOutputStream, but is more efficient.
@@ -66,6 +71,76 @@ public class ByteVector {
         data = new byte[initialSize];
     }
 
+    /**
+     * Constructs a new, empty {@link ByteVector ByteVector} backed by the
+     * given array, for instance one taken from a buffer pool. The array is
+     * replaced by a larger one if the content outgrows it.
+     *
+     * @param buffer
+     *            the initial backing array of the byte vector.
+     */
+    public ByteVector(final byte[] buffer) {
+        data = buffer;
+    }
+
+    /**
+     * Returns the array backing this byte vector. Only the first
+     * {@link #getLength()} bytes are part of the content.
+     *
+     * @return the array backing this byte vector.
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    /**
+     * Returns the number of bytes in this byte vector.
+     *
+     * @return the number of bytes in this byte vector.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Removes all bytes from this byte vector, keeping the backing array for
+     * reuse.
+     *
+     * @return this byte vector.
+     */
+    public ByteVector clear() {
+        length = 0;
+        return this;
+    }
+
+    /**
+     * Writes the content of this byte vector to the given channel, without
+     * copying it into an intermediate array.
+     *
+     * @param channel
+     *            the channel to write to.
+     * @throws IOException
+     *             if the channel fails.
+     */
+    public void writeTo(final WritableByteChannel channel) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(data, 0, length);
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    /**
+     * Writes the content of this byte vector to the given stream.
+     *
+     * @param out
+     *            the stream to write to.
+     * @throws IOException
+     *             if the stream fails.
+     */
+    public void writeTo(final OutputStream out) throws IOException {
+        out.write(data, 0, length);
+    }
+
     /**
      * Puts a byte into this byte vector. The byte vector is automatically
      * enlarged if necessary.
@@ -317,6 +392,9 @@ public class ByteVector {
         }
         if (b != null) {
             System.arraycopy(b, off, data, length, len);
+        } else {
+            // the backing array may be recycled, see clear()
+            java.util.Arrays.fill(data, length, length + len, (byte) 0);
         }
         length += len;
         return this;
@@ -329,7 +407,7 @@ public class ByteVector {
      *            number of additional bytes that this byte vector should be
      *            able to receive.
      */
-    private void enlarge(final int size) {
+    void enlarge(final int size) {
         int length1 = 2 * data.length;
         int length2 = length + size;
         byte[] newData = new byte[length1 > length2 ? length1 : length2];
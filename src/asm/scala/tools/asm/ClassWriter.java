@@ -504,6 +504,30 @@ public class ClassWriter extends ClassVisitor {
      */
     boolean invalidFrames;
 
+    /**
+     * The option flags this class writer was created with, restored by
+     * {@link #reset()}.
+     */
+    private final int flags;
+
+    /**
+     * Code byte vectors of the methods of previously written classes,
+     * collected by {@link #reset()} and handed out again by
+     * {@link #newCodeVector()}.
+     */
+    private ByteVector[] spareCodeVectors = new ByteVector[0];
+
+    /**
+     * Number of elements of {@link #spareCodeVectors} that are in use.
+     */
+    private int spareCodeVectorCount;
+
+    /**
+     * The class hierarchy used by {@link #getCommonSuperClass}, or
+     * <tt>null</tt> to load classes.
+     */
+    private final ClassHierarchy hierarchy;
+
     // ------------------------------------------------------------------------
     // Static initializer
     // ------------------------------------------------------------------------
@@ -605,7 +629,25 @@ public class ClassWriter extends ClassVisitor {
      *            {@link #COMPUTE_FRAMES}.
      */
     public ClassWriter(final int flags) {
+        this(flags, (ClassHierarchy) null);
+    }
+
+    /**
+     * Constructs a new {@link ClassWriter} object that computes common super
+     * classes with the given class hierarchy instead of loading classes.
+     *
+     * @param flags
+     *            option flags that can be used to modify the default behavior
+     *            of this class. See {@link #COMPUTE_MAXS},
+     *            {@link #COMPUTE_FRAMES}.
+     * @param hierarchy
+     *            the class hierarchy used by
+     *            {@link #getCommonSuperClass(String, String)}, or
+     *            <tt>null</tt> to load the classes (the default).
+     */
+    public ClassWriter(final int flags, final ClassHierarchy hierarchy) {
         super(Opcodes.ASM5);
+        this.hierarchy = hierarchy;
         index = 1;
         pool = new ByteVector();
         items = new Item[256];
@@ -614,6 +656,7 @@ public class ClassWriter extends ClassVisitor {
         key2 = new Item();
         key3 = new Item();
         key4 = new Item();
+        this.flags = flags;
         this.computeMaxs = (flags & COMPUTE_MAXS) != 0;
         this.computeFrames = (flags & COMPUTE_FRAMES) != 0;
     }
@@ -808,6 +851,26 @@ public class ClassWriter extends ClassVisitor {
      * @return the bytecode of the class that was build with this class writer.
      */
     public byte[] toByteArray() {
+        ByteVector out = new ByteVector(0);
+        toByteVector(out);
+        if (out.length == out.data.length) {
+            return out.data;
+        }
+        byte[] b = new byte[out.length];
+        System.arraycopy(out.data, 0, b, 0, out.length);
+        return b;
+    }
+
+    /**
+     * Writes the bytecode of the class that was build with this class writer
+     * into the given byte vector, replacing its previous content. Together
+     * with {@link #reset()} this allows emitting many classes without
+     * allocating a new output array for each of them.
+     *
+     * @param out
+     *            the byte vector receiving the bytecode of the class.
+     */
+    public void toByteVector(final ByteVector out) {
         if (index > 0xFFFF) {
             throw new RuntimeException("Class file too large!");
         }
@@ -898,9 +961,12 @@ public class ClassWriter extends ClassVisitor {
             size += attrs.getSize(this, null, 0, -1, -1);
         }
         size += pool.length;
-        // allocates a byte vector of this size, in order to avoid unnecessary
+        // makes room for this size, in order to avoid unnecessary
         // arraycopy operations in the ByteVector.enlarge() method
-        ByteVector out = new ByteVector(size);
+        out.clear();
+        if (out.data.length < size) {
+            out.enlarge(size);
+        }
         out.putInt(0xCAFEBABE).putInt(version);
         out.putShort(index).putByteArray(pool.data, 0, pool.length);
         int mask = Opcodes.ACC_DEPRECATED | ACC_SYNTHETIC_ATTRIBUTE
@@ -992,10 +1058,84 @@ public class ClassWriter extends ClassVisitor {
             computeMaxs = false;
             computeFrames = true;
             invalidFrames = false;
-            new ClassReader(out.data).accept(this, ClassReader.SKIP_FRAMES);
-            return toByteArray();
+            byte[] b = new byte[out.length];
+            System.arraycopy(out.data, 0, b, 0, out.length);
+            new ClassReader(b).accept(this, ClassReader.SKIP_FRAMES);
+            toByteVector(out);
+        }
+    }
+
+    /**
+     * Resets this class writer to the state of a freshly constructed one
+     * (with the same flags), so that it can be used to write another class.
+     * The constant pool buffer, the constant pool hash table and the code byte
+     * vectors of the methods written so far are kept and reused, which avoids
+     * most of the allocations otherwise done for each class. The bytecode of
+     * the previous class must have been retrieved before calling this method.
+     */
+    public void reset() {
+        MethodWriter mb = firstMethod;
+        while (mb != null) {
+            if (mb.code != null) {
+                if (spareCodeVectorCount == spareCodeVectors.length) {
+                    ByteVector[] a = new ByteVector[Math.max(8, 2 * spareCodeVectorCount)];
+                    System.arraycopy(spareCodeVectors, 0, a, 0, spareCodeVectorCount);
+                    spareCodeVectors = a;
+                }
+                spareCodeVectors[spareCodeVectorCount++] = mb.code;
+                mb.code = null;
+            }
+            mb = (MethodWriter) mb.mv;
         }
-        return out.data;
+        cr = null;
+        version = 0;
+        index = 1;
+        pool.clear();
+        java.util.Arrays.fill(items, null);
+        typeTable = null;
+        typeCount = 0;
+        access = 0;
+        name = 0;
+        thisName = null;
+        signature = 0;
+        superName = 0;
+        interfaceCount = 0;
+        interfaces = null;
+        sourceFile = 0;
+        sourceDebug = null;
+        enclosingMethodOwner = 0;
+        enclosingMethod = 0;
+        anns = null;
+        ianns = null;
+        tanns = null;
+        itanns = null;
+        attrs = null;
+        innerClassesCount = 0;
+        innerClasses = null;
+        bootstrapMethodsCount = 0;
+        bootstrapMethods = null;
+        firstField = null;
+        lastField = null;
+        firstMethod = null;
+        lastMethod = null;
+        computeMaxs = (flags & COMPUTE_MAXS) != 0;
+        computeFrames = (flags & COMPUTE_FRAMES) != 0;
+        invalidFrames = false;
+    }
+
+    /**
+     * Returns an empty byte vector for the code of a new method, recycling
+     * one collected by {@link #reset()} if possible.
+     *
+     * @return an empty byte vector.
+     */
+    ByteVector newCodeVector() {
+        if (spareCodeVectorCount > 0) {
+            ByteVector bv = spareCodeVectors[--spareCodeVectorCount];
+            spareCodeVectors[spareCodeVectorCount] = null;
+            return bv.clear();
+        }
+        return new ByteVector();
     }
 
     // ------------------------------------------------------------------------
@@ -1659,8 +1799,10 @@ public class ClassWriter extends ClassVisitor {
     }
 
     /**
-     * Returns the common super type of the two given types. The default
-     * implementation of this method <i>loads</i> the two given classes and uses
+     * Returns the common super type of the two given types. If this class
+     * writer was created with a {@link ClassHierarchy}, the default
+     * implementation of this method asks that hierarchy. Otherwise, it
+     * <i>loads</i> the two given classes and uses
      * the java.lang.Class methods to find the common super class. It can be
      * overridden to compute this common super type in other ways, in particular
      * without actually loading any class, or to take into account the class
@@ -1675,6 +1817,9 @@ public class ClassWriter extends ClassVisitor {
      *         classes.
      */
     protected String getCommonSuperClass(final String type1, final String type2) {
+        if (hierarchy != null) {
+            return hierarchy.getCommonSuperClass(type1, type2);
+        }
         Class<?> c, d;
         ClassLoader classLoader = getClass().getClassLoader();
         try {
@@ -0,0 +1,209 @@
+/***
+ * ASM: a very small and fast Java bytecode manipulation framework
+ * Copyright (c) 2000-2011 INRIA, France Telecom
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holders nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package scala.tools.asm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe {@link ClassHierarchy} computed from class file headers
+ * instead of loaded classes. Headers are either registered with
+ * {@link #addClass(String, String, String[], boolean)}, for instance for the
+ * classes being generated, or read on demand from the class files returned
+ * by {@link #findClassfile(String)}, which by default looks them up as
+ * resources of a class loader. Only the header of each class file is
+ * decoded, see {@link ByteBufferClassReader}, and it is decoded only once.
+ *
+ * The common super class is computed like in
+ * {@link ClassWriter#getCommonSuperClass(String, String)}: if one of the
+ * types is assignable to the other, the more general one; otherwise
+ * java/lang/Object if one of them is an interface, or the closest common
+ * super class.
+ */
+public class ClassfileClassHierarchy implements ClassHierarchy {
+
+    /**
+     * The header of a class: its super class, interfaces and whether it is an
+     * interface itself.
+     */
+    static final class Header {
+        final String superName;
+        final String[] interfaces;
+        final boolean isInterface;
+
+        Header(final String superName, final String[] interfaces,
+                final boolean isInterface) {
+            this.superName = superName;
+            this.interfaces = interfaces == null ? new String[0] : interfaces;
+            this.isInterface = isInterface;
+        }
+    }
+
+    /**
+     * The headers known so far, keyed by internal name.
+     */
+    private final ConcurrentHashMap<String, Header> headers = new ConcurrentHashMap<String, Header>();
+
+    /**
+     * The class loader in which class files are looked up, or <tt>null</tt>.
+     */
+    private final ClassLoader loader;
+
+    /**
+     * Constructs a new {@link ClassfileClassHierarchy} reading class files
+     * from the given class loader.
+     *
+     * @param loader
+     *            the class loader in which class files are looked up as
+     *            resources, or <tt>null</tt> if all classes are registered
+     *            with {@link #addClass(String, String, String[], boolean)}.
+     */
+    public ClassfileClassHierarchy(final ClassLoader loader) {
+        this.loader = loader;
+    }
+
+    /**
+     * Registers the header of a class, which takes precedence over the class
+     * file of that class.
+     *
+     * @param name
+     *            the internal name of the class.
+     * @param superName
+     *            the internal name of the super class, <tt>null</tt> for
+     *            java/lang/Object.
+     * @param interfaces
+     *            the internal names of the interfaces of the class, may be
+     *            <tt>null</tt>.
+     * @param isInterface
+     *            whether the class is an interface.
+     */
+    public void addClass(final String name, final String superName,
+            final String[] interfaces, final boolean isInterface) {
+        headers.put(name, new Header(superName, interfaces, isInterface));
+    }
+
+    /**
+     * Returns the class file of the given class. The default implementation
+     * reads it from the class loader given to the constructor.
+     *
+     * @param name
+     *            the internal name of a class.
+     * @return the class file, or <tt>null</tt> if it can't be found.
+     * @throws IOException
+     *             if the class file cannot be read.
+     */
+    protected ByteBuffer findClassfile(final String name) throws IOException {
+        InputStream is = loader == null ? null : loader
+                .getResourceAsStream(name + ".class");
+        if (is == null) {
+            return null;
+        }
+        try {
+            ByteVector bv = new ByteVector(1024);
+            byte[] buf = new byte[1024];
+            int n;
+            while ((n = is.read(buf)) != -1) {
+                bv.putByteArray(buf, 0, n);
+            }
+            return ByteBuffer.wrap(bv.data, 0, bv.length);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Returns the header of the given class, reading it if necessary.
+     */
+    private Header header(final String name) {
+        Header h = headers.get(name);
+        if (h == null) {
+            ByteBufferClassReader r;
+            try {
+                ByteBuffer classfile = findClassfile(name);
+                if (classfile == null) {
+                    throw new RuntimeException("Class file not found: " + name);
+                }
+                r = new ByteBufferClassReader(classfile);
+            } catch (IOException e) {
+                throw new RuntimeException(e.toString());
+            }
+            h = new Header(r.getSuperName(), r.getInterfaces(),
+                    (r.getAccess() & Opcodes.ACC_INTERFACE) != 0);
+            Header existing = headers.putIfAbsent(name, h);
+            if (existing != null) {
+                h = existing;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Tests whether a value of type <tt>from</tt> can be assigned to a
+     * variable of type <tt>to</tt>.
+     */
+    private boolean isAssignableFrom(final String to, final String from) {
+        if (to.equals(from) || "java/lang/Object".equals(to)) {
+            return true;
+        }
+        if ("java/lang/Object".equals(from)) {
+            // java/lang/Object need not be registered or found
+            return false;
+        }
+        Header h = header(from);
+        if (h.superName != null && isAssignableFrom(to, h.superName)) {
+            return true;
+        }
+        for (int i = 0; i < h.interfaces.length; ++i) {
+            if (isAssignableFrom(to, h.interfaces[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public String getCommonSuperClass(final String type1, final String type2) {
+        if (isAssignableFrom(type1, type2)) {
+            return type1;
+        }
+        if (isAssignableFrom(type2, type1)) {
+            return type2;
+        }
+        if (header(type1).isInterface || header(type2).isInterface) {
+            return "java/lang/Object";
+        }
+        String c = type1;
+        do {
+            c = header(c).superName;
+        } while (!isAssignableFrom(c, type2));
+        return c;
+    }
+}
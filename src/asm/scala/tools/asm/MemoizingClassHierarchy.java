@@ -0,0 +1,85 @@
+/***
+ * ASM: a very small and fast Java bytecode manipulation framework
+ * Copyright (c) 2000-2011 INRIA, France Telecom
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holders nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package scala.tools.asm;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A thread-safe {@link ClassHierarchy} that remembers the common super
+ * classes computed by another hierarchy. Frame computation asks for the same
+ * pairs of types over and over, in the same and in different classes; a
+ * {@link ClassWriter} only remembers them while writing a single class.
+ */
+public class MemoizingClassHierarchy implements ClassHierarchy {
+
+    /**
+     * The hierarchy computing the common super classes.
+     */
+    private final ClassHierarchy underlying;
+
+    /**
+     * The common super classes computed so far, keyed by the pair of internal
+     * names, lexicographically ordered and separated by a ';'.
+     */
+    private final ConcurrentHashMap<String, String> commonSuperClasses = new ConcurrentHashMap<String, String>();
+
+    /**
+     * Constructs a new {@link MemoizingClassHierarchy}.
+     *
+     * @param underlying
+     *            the hierarchy computing the common super classes. Must be
+     *            thread-safe if this hierarchy is used from several threads.
+     */
+    public MemoizingClassHierarchy(final ClassHierarchy underlying) {
+        this.underlying = underlying;
+    }
+
+    public String getCommonSuperClass(final String type1, final String type2) {
+        if (type1.equals(type2)) {
+            return type1;
+        }
+        // the common super class does not depend on the order of the types
+        String key = type1.compareTo(type2) < 0 ? type1 + ';' + type2 : type2
+                + ';' + type1;
+        String result = commonSuperClasses.get(key);
+        if (result == null) {
+            result = underlying.getCommonSuperClass(type1, type2);
+            commonSuperClasses.put(key, result);
+        }
+        return result;
+    }
+
+    /**
+     * Forgets all the common super classes computed so far.
+     */
+    public void clear() {
+        commonSuperClasses.clear();
+    }
+}
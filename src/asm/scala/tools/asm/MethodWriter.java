@@ -226,9 +226,9 @@ public class MethodWriter extends MethodVisitor {
     private Attribute attrs;
 
     /**
-     * The bytecode of this method.
+     * The bytecode of this method. Recycled by {@link ClassWriter#reset()}.
      */
-    private ByteVector code = new ByteVector();
+    ByteVector code;
 
     /**
      * Maximum stack size of this method.
@@ -469,6 +469,7 @@ public class MethodWriter extends MethodVisitor {
         }
         cw.lastMethod = this;
         this.cw = cw;
+        this.code = cw.newCodeVector();
         this.access = access;
         if ("<init>".equals(name)) {
             this.access |= ACC_CONSTRUCTOR;
@@ -168,6 +168,14 @@ public abstract class AbstractInsnNode {
      */
     int index;
 
+    /**
+     * Order label of this instruction in the list to which it belongs. Order
+     * labels are increasing along the list, but not consecutive. The value of
+     * this field is correct only if the list is order indexed, see
+     * {@link InsnList#setOrderIndexed}.
+     */
+    long order;
+
     /**
      * Constructs a new {@link AbstractInsnNode}.
      *
@@ -61,6 +61,18 @@ public class InsnList {
      */
     AbstractInsnNode[] cache;
 
+    /**
+     * The distance between the order labels of consecutive instructions after
+     * the list has been renumbered.
+     */
+    private static final long ORDER_GAP = 1L << 20;
+
+    /**
+     * If the order labels of the instructions are maintained, see
+     * {@link #setOrderIndexed}.
+     */
+    private boolean orderIndexed;
+
     /**
      * Returns the number of instructions in this list.
      *
@@ -150,6 +162,59 @@ public class InsnList {
         return insn.index;
     }
 
+    /**
+     * Enables or disables the maintenance of order labels. When enabled, each
+     * instruction of this list carries an order label, which is increasing
+     * along the list but leaves gaps between consecutive instructions. An
+     * instruction that is inserted or added only gets a label between the
+     * labels of its neighbours, the other instructions keep theirs (the whole
+     * list is renumbered only when a gap is exhausted). Removing instructions
+     * does not change any label. This allows {@link #isBefore} to run in
+     * constant time while the list is being modified, unlike {@link #indexOf}
+     * which has to rebuild its cache after each modification.
+     *
+     * @param enabled
+     *            <tt>true</tt> to maintain order labels.
+     */
+    public void setOrderIndexed(final boolean enabled) {
+        if (enabled && !orderIndexed) {
+            renumber();
+        }
+        orderIndexed = enabled;
+    }
+
+    /**
+     * Returns <tt>true</tt> if order labels are maintained for the
+     * instructions of this list, see {@link #setOrderIndexed}.
+     *
+     * @return <tt>true</tt> if order labels are maintained.
+     */
+    public boolean isOrderIndexed() {
+        return orderIndexed;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the first given instruction comes before the
+     * second one in this list. This method runs in constant time if the list is
+     * order indexed (see {@link #setOrderIndexed}), otherwise it uses
+     * {@link #indexOf}.
+     *
+     * @param insn1
+     *            an instruction <i>of this list</i>.
+     * @param insn2
+     *            an instruction <i>of this list</i>.
+     * @return <tt>true</tt> if <tt>insn1</tt> comes strictly before
+     *         <tt>insn2</tt>. <i>The result of this method is undefined if the
+     *         given instructions do not belong to this list</i>.
+     */
+    public boolean isBefore(final AbstractInsnNode insn1,
+            final AbstractInsnNode insn2) {
+        if (orderIndexed) {
+            return insn1.order < insn2.order;
+        }
+        return indexOf(insn1) < indexOf(insn2);
+    }
+
     /**
      * Makes the given visitor visit all of the instructions in this list.
      *
@@ -231,6 +296,7 @@ public class InsnList {
         } else {
             insn.index = 0; // insn now belongs to an InsnList
         }
+        insn.order = location.order;
         location.index = -1; // i no longer belongs to an InsnList
         location.prev = null;
         location.next = null;
@@ -263,6 +329,9 @@ public class InsnList {
         last = insn;
         cache = null;
         insn.index = 0; // insn now belongs to an InsnList
+        if (orderIndexed) {
+            label(insn, insn);
+        }
     }
 
     /**
@@ -287,6 +356,9 @@ public class InsnList {
             last = insns.last;
         }
         cache = null;
+        if (orderIndexed) {
+            label(insns.first, insns.last);
+        }
         insns.removeAll(false);
     }
 
@@ -309,6 +381,9 @@ public class InsnList {
         first = insn;
         cache = null;
         insn.index = 0; // insn now belongs to an InsnList
+        if (orderIndexed) {
+            label(insn, insn);
+        }
     }
 
     /**
@@ -333,6 +408,9 @@ public class InsnList {
             first = insns.first;
         }
         cache = null;
+        if (orderIndexed) {
+            label(insns.first, insns.last);
+        }
         insns.removeAll(false);
     }
 
@@ -360,6 +438,9 @@ public class InsnList {
         insn.prev = location;
         cache = null;
         insn.index = 0; // insn now belongs to an InsnList
+        if (orderIndexed) {
+            label(insn, insn);
+        }
     }
 
     /**
@@ -389,6 +470,9 @@ public class InsnList {
         ilast.next = next;
         ifirst.prev = location;
         cache = null;
+        if (orderIndexed) {
+            label(ifirst, ilast);
+        }
         insns.removeAll(false);
     }
 
@@ -416,6 +500,9 @@ public class InsnList {
         insn.prev = prev;
         cache = null;
         insn.index = 0; // insn now belongs to an InsnList
+        if (orderIndexed) {
+            label(insn, insn);
+        }
     }
 
     /**
@@ -446,6 +533,9 @@ public class InsnList {
         ilast.next = location;
         ifirst.prev = prev;
         cache = null;
+        if (orderIndexed) {
+            label(ifirst, ilast);
+        }
         insns.removeAll(false);
     }
 
@@ -528,6 +618,59 @@ public class InsnList {
         }
     }
 
+    /**
+     * Assigns order labels to the given instructions, which must be a sequence
+     * of consecutive instructions of this list, between the labels of their
+     * neighbours. Renumbers the whole list if there is no room left.
+     */
+    private void label(final AbstractInsnNode from, final AbstractInsnNode to) {
+        long count = 1;
+        for (AbstractInsnNode insn = from; insn != to; insn = insn.next) {
+            ++count;
+        }
+        AbstractInsnNode prev = from.prev;
+        AbstractInsnNode next = to.next;
+        long lo;
+        long hi;
+        if (prev == null && next == null) {
+            lo = -ORDER_GAP;
+            hi = count * ORDER_GAP;
+        } else if (prev == null) {
+            hi = next.order;
+            lo = hi - (count + 1) * ORDER_GAP;
+        } else if (next == null) {
+            lo = prev.order;
+            hi = lo + (count + 1) * ORDER_GAP;
+        } else {
+            lo = prev.order;
+            hi = next.order;
+        }
+        long step = (hi - lo) / (count + 1);
+        if (step == 0) {
+            renumber();
+            return;
+        }
+        long order = lo;
+        for (AbstractInsnNode insn = from;; insn = insn.next) {
+            order += step;
+            insn.order = order;
+            if (insn == to) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Assigns evenly spaced order labels to all the instructions of this list.
+     */
+    private void renumber() {
+        long order = 0;
+        for (AbstractInsnNode insn = first; insn != null; insn = insn.next) {
+            insn.order = order;
+            order += ORDER_GAP;
+        }
+    }
+
     // this class is not generified because it will create bridges
     private final class InsnListIterator implements ListIterator {
 
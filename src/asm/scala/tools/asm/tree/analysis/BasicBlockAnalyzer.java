@@ -0,0 +1,565 @@
+/***
+ * ASM: a very small and fast Java bytecode manipulation framework
+ * Copyright (c) 2000-2011 INRIA, France Telecom
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holders nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package scala.tools.asm.tree.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import scala.tools.asm.Opcodes;
+import scala.tools.asm.Type;
+import scala.tools.asm.tree.AbstractInsnNode;
+import scala.tools.asm.tree.InsnList;
+import scala.tools.asm.tree.JumpInsnNode;
+import scala.tools.asm.tree.LabelNode;
+import scala.tools.asm.tree.LookupSwitchInsnNode;
+import scala.tools.asm.tree.MethodNode;
+import scala.tools.asm.tree.TableSwitchInsnNode;
+import scala.tools.asm.tree.TryCatchBlockNode;
+
+/**
+ * A semantic bytecode analyzer that works on basic blocks. It computes the same
+ * frames as {@link Analyzer}, but only stores the frame at the beginning of each
+ * basic block, and processes the blocks in reverse post order using a worklist
+ * (so that loop bodies are iterated to a fixpoint before the code after the
+ * loop is visited). The frame of an individual instruction is recomputed on
+ * demand by replaying its basic block, see {@link #getFrame(int)}.
+ *
+ * Methods containing JSR or RET instructions are delegated to {@link Analyzer}.
+ *
+ * @param <V>
+ *            type of the Value used for the analysis.
+ */
+public class BasicBlockAnalyzer<V extends Value> implements Opcodes {
+
+    private final Interpreter<V> interpreter;
+
+    private int n;
+
+    private InsnList insns;
+
+    private List<TryCatchBlockNode>[] handlers;
+
+    /**
+     * The basic block of each instruction.
+     */
+    private int[] blockOf;
+
+    /**
+     * The index of the first instruction of each basic block, followed by
+     * <tt>n</tt>.
+     */
+    private int[] blockStart;
+
+    /**
+     * The frame at the beginning of each basic block, <tt>null</tt> if the
+     * block is not reachable.
+     */
+    private Frame<V>[] entries;
+
+    /**
+     * The position of each basic block in reverse post order, -1 if the block
+     * is not reachable in the control flow graph.
+     */
+    private int[] rpoIndex;
+
+    /**
+     * The basic blocks in reverse post order.
+     */
+    private int[] rpo;
+
+    private BitSet worklist;
+
+    /**
+     * The frames computed by {@link Analyzer} for methods with subroutines,
+     * <tt>null</tt> otherwise.
+     */
+    private Frame<V>[] frames;
+
+    /**
+     * Constructs a new {@link BasicBlockAnalyzer}.
+     *
+     * @param interpreter
+     *            the interpreter to be used to symbolically interpret the
+     *            bytecode instructions.
+     */
+    public BasicBlockAnalyzer(final Interpreter<V> interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    /**
+     * Analyzes the given method.
+     *
+     * @param owner
+     *            the internal name of the class to which the method belongs.
+     * @param m
+     *            the method to be analyzed.
+     * @throws AnalyzerException
+     *             if a problem occurs during the analysis.
+     */
+    @SuppressWarnings("unchecked")
+    public void analyze(final String owner, final MethodNode m)
+            throws AnalyzerException {
+        insns = m.instructions;
+        frames = null;
+        if ((m.access & (ACC_ABSTRACT | ACC_NATIVE)) != 0) {
+            n = 0;
+            blockOf = new int[0];
+            entries = (Frame<V>[]) new Frame<?>[0];
+            return;
+        }
+        n = insns.size();
+        if (hasSubroutines()) {
+            Analyzer<V> a = new Analyzer<V>(interpreter) {
+                @Override
+                protected Frame<V> newFrame(final int nLocals, final int nStack) {
+                    return BasicBlockAnalyzer.this.newFrame(nLocals, nStack);
+                }
+
+                @Override
+                protected Frame<V> newFrame(final Frame<? extends V> src) {
+                    return BasicBlockAnalyzer.this.newFrame(src);
+                }
+            };
+            frames = a.analyze(owner, m);
+            return;
+        }
+
+        // computes exception handlers for each instruction
+        handlers = (List<TryCatchBlockNode>[]) new List<?>[n];
+        boolean[] leader = new boolean[n + 1];
+        leader[0] = true;
+        for (int i = 0; i < m.tryCatchBlocks.size(); ++i) {
+            TryCatchBlockNode tcb = m.tryCatchBlocks.get(i);
+            int begin = insns.indexOf(tcb.start);
+            int end = insns.indexOf(tcb.end);
+            for (int j = begin; j < end; ++j) {
+                List<TryCatchBlockNode> insnHandlers = handlers[j];
+                if (insnHandlers == null) {
+                    insnHandlers = new ArrayList<TryCatchBlockNode>();
+                    handlers[j] = insnHandlers;
+                }
+                insnHandlers.add(tcb);
+            }
+            leader[insns.indexOf(tcb.handler)] = true;
+        }
+
+        // computes the basic blocks
+        for (int i = 0; i < n; ++i) {
+            AbstractInsnNode insn = insns.get(i);
+            if (insn instanceof JumpInsnNode) {
+                leader[insns.indexOf(((JumpInsnNode) insn).label)] = true;
+                leader[i + 1] = true;
+            } else if (insn instanceof LookupSwitchInsnNode) {
+                LookupSwitchInsnNode lsi = (LookupSwitchInsnNode) insn;
+                leader[insns.indexOf(lsi.dflt)] = true;
+                for (int j = 0; j < lsi.labels.size(); ++j) {
+                    leader[insns.indexOf(lsi.labels.get(j))] = true;
+                }
+                leader[i + 1] = true;
+            } else if (insn instanceof TableSwitchInsnNode) {
+                TableSwitchInsnNode tsi = (TableSwitchInsnNode) insn;
+                leader[insns.indexOf(tsi.dflt)] = true;
+                for (int j = 0; j < tsi.labels.size(); ++j) {
+                    leader[insns.indexOf(tsi.labels.get(j))] = true;
+                }
+                leader[i + 1] = true;
+            } else if (isExit(insn.getOpcode())) {
+                leader[i + 1] = true;
+            }
+        }
+        int blocks = 0;
+        for (int i = 0; i < n; ++i) {
+            if (leader[i]) {
+                ++blocks;
+            }
+        }
+        blockOf = new int[n];
+        blockStart = new int[blocks + 1];
+        for (int i = 0, b = -1; i < n; ++i) {
+            if (leader[i]) {
+                blockStart[++b] = i;
+            }
+            blockOf[i] = b;
+        }
+        blockStart[blocks] = n;
+        entries = (Frame<V>[]) new Frame<?>[blocks];
+        computeReversePostOrder(blocks);
+
+        // initializes the data structures for the control flow analysis
+        Frame<V> current = newFrame(m.maxLocals, m.maxStack);
+        Frame<V> handler = newFrame(m.maxLocals, m.maxStack);
+        current.setReturn(interpreter.newValue(Type.getReturnType(m.desc)));
+        Type[] args = Type.getArgumentTypes(m.desc);
+        int local = 0;
+        if ((m.access & ACC_STATIC) == 0) {
+            Type ctype = Type.getObjectType(owner);
+            current.setLocal(local++, interpreter.newValue(ctype));
+        }
+        for (int i = 0; i < args.length; ++i) {
+            current.setLocal(local++, interpreter.newValue(args[i]));
+            if (args[i].getSize() == 2) {
+                current.setLocal(local++, interpreter.newValue(null));
+            }
+        }
+        while (local < m.maxLocals) {
+            current.setLocal(local++, interpreter.newValue(null));
+        }
+        worklist = new BitSet(blocks);
+        merge(0, current);
+
+        // control flow analysis, the block that comes first in reverse post
+        // order is processed first
+        for (int pos = worklist.nextSetBit(0); pos >= 0; pos = worklist
+                .nextSetBit(0)) {
+            worklist.clear(pos);
+            int block = rpo[pos];
+            int end = blockStart[block + 1];
+            current.init(entries[block]);
+            int insn = blockStart[block];
+            AbstractInsnNode insnNode = null;
+            try {
+                for (; insn < end; ++insn) {
+                    insnNode = insns.get(insn);
+                    List<TryCatchBlockNode> insnHandlers = handlers[insn];
+                    if (insnHandlers != null) {
+                        for (int i = 0; i < insnHandlers.size(); ++i) {
+                            TryCatchBlockNode tcb = insnHandlers.get(i);
+                            Type type;
+                            if (tcb.type == null) {
+                                type = Type.getObjectType("java/lang/Throwable");
+                            } else {
+                                type = Type.getObjectType(tcb.type);
+                            }
+                            handler.init(current);
+                            handler.clearStack();
+                            handler.push(interpreter.newValue(type));
+                            merge(insns.indexOf(tcb.handler), handler);
+                        }
+                    }
+                    int insnType = insnNode.getType();
+                    if (insnType != AbstractInsnNode.LABEL
+                            && insnType != AbstractInsnNode.LINE
+                            && insnType != AbstractInsnNode.FRAME) {
+                        current.execute(insnNode, interpreter);
+                    }
+                }
+                insn = end - 1;
+                int insnOpcode = insnNode.getOpcode();
+                if (insnNode instanceof JumpInsnNode) {
+                    if (insnOpcode != GOTO) {
+                        merge(end, current);
+                    }
+                    merge(insns.indexOf(((JumpInsnNode) insnNode).label),
+                            current);
+                } else if (insnNode instanceof LookupSwitchInsnNode) {
+                    LookupSwitchInsnNode lsi = (LookupSwitchInsnNode) insnNode;
+                    merge(insns.indexOf(lsi.dflt), current);
+                    for (int j = 0; j < lsi.labels.size(); ++j) {
+                        merge(insns.indexOf(lsi.labels.get(j)), current);
+                    }
+                } else if (insnNode instanceof TableSwitchInsnNode) {
+                    TableSwitchInsnNode tsi = (TableSwitchInsnNode) insnNode;
+                    merge(insns.indexOf(tsi.dflt), current);
+                    for (int j = 0; j < tsi.labels.size(); ++j) {
+                        merge(insns.indexOf(tsi.labels.get(j)), current);
+                    }
+                } else if (!isExit(insnOpcode)) {
+                    merge(end, current);
+                }
+            } catch (AnalyzerException e) {
+                throw new AnalyzerException(e.node, "Error at instruction "
+                        + insn + ": " + e.getMessage(), e);
+            } catch (Exception e) {
+                throw new AnalyzerException(insnNode, "Error at instruction "
+                        + insn + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Returns <tt>true</tt> if the given instruction can be reached. Must only
+     * be called after {@link #analyze}.
+     *
+     * @param insn
+     *            the index of an instruction of the analyzed method.
+     * @return <tt>true</tt> if the instruction can be reached.
+     */
+    public boolean isReachable(final int insn) {
+        if (frames != null) {
+            return frames[insn] != null;
+        }
+        return entries[blockOf[insn]] != null;
+    }
+
+    /**
+     * Returns <tt>true</tt> if the given instruction can be reached. Must only
+     * be called after {@link #analyze}.
+     *
+     * @param insn
+     *            an instruction of the analyzed method.
+     * @return <tt>true</tt> if the instruction can be reached.
+     */
+    public boolean isReachable(final AbstractInsnNode insn) {
+        return isReachable(insns.indexOf(insn));
+    }
+
+    /**
+     * Returns the symbolic state of the execution stack frame before the given
+     * instruction. The frame is recomputed from the frame at the beginning of
+     * the enclosing basic block, so callers that need the frames of many
+     * instructions should use {@link #getFrames()}.
+     *
+     * @param insn
+     *            the index of an instruction of the analyzed method.
+     * @return the frame before the instruction, or <tt>null</tt> if the
+     *         instruction cannot be reached.
+     * @throws AnalyzerException
+     *             if a problem occurs while replaying the basic block.
+     */
+    public Frame<V> getFrame(final int insn) throws AnalyzerException {
+        if (frames != null) {
+            return frames[insn];
+        }
+        Frame<V> entry = entries[blockOf[insn]];
+        if (entry == null) {
+            return null;
+        }
+        Frame<V> f = newFrame(entry);
+        for (int i = blockStart[blockOf[insn]]; i < insn; ++i) {
+            execute(f, insns.get(i));
+        }
+        return f;
+    }
+
+    /**
+     * Returns the symbolic state of the execution stack frame at each bytecode
+     * instruction of the method, as returned by {@link Analyzer#analyze}.
+     *
+     * @return the frame before each instruction of the method, <tt>null</tt>
+     *         for unreachable instructions.
+     * @throws AnalyzerException
+     *             if a problem occurs while replaying the basic blocks.
+     */
+    @SuppressWarnings("unchecked")
+    public Frame<V>[] getFrames() throws AnalyzerException {
+        if (frames != null) {
+            return frames;
+        }
+        Frame<V>[] result = (Frame<V>[]) new Frame<?>[n];
+        for (int block = 0; block < entries.length; ++block) {
+            Frame<V> entry = entries[block];
+            if (entry != null) {
+                int end = blockStart[block + 1];
+                Frame<V> f = newFrame(entry);
+                for (int i = blockStart[block]; i < end; ++i) {
+                    result[i] = f;
+                    if (i + 1 < end) {
+                        f = newFrame(f);
+                        execute(f, insns.get(i));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the exception handlers for the given instruction.
+     *
+     * @param insn
+     *            the index of an instruction of the last analyzed method.
+     * @return a list of {@link TryCatchBlockNode} objects.
+     */
+    public List<TryCatchBlockNode> getHandlers(final int insn) {
+        return handlers == null ? null : handlers[insn];
+    }
+
+    /**
+     * Constructs a new frame with the given size. Returns a {@link BasicFrame}
+     * if the interpreter is a {@link BasicInterpreter}.
+     *
+     * @param nLocals
+     *            the maximum number of local variables of the frame.
+     * @param nStack
+     *            the maximum stack size of the frame.
+     * @return the created frame.
+     */
+    @SuppressWarnings("unchecked")
+    protected Frame<V> newFrame(final int nLocals, final int nStack) {
+        if (interpreter.getClass() == BasicInterpreter.class) {
+            return (Frame<V>) (Frame<?>) new BasicFrame(nLocals, nStack);
+        }
+        return new Frame<V>(nLocals, nStack);
+    }
+
+    /**
+     * Constructs a new frame that is identical to the given frame.
+     *
+     * @param src
+     *            a frame.
+     * @return the created frame.
+     */
+    protected Frame<V> newFrame(final Frame<? extends V> src) {
+        return newFrame(src.getLocals(), src.getMaxStackSize()).init(src);
+    }
+
+    // -------------------------------------------------------------------------
+
+    private static boolean isExit(final int opcode) {
+        return opcode == ATHROW || (opcode >= IRETURN && opcode <= RETURN);
+    }
+
+    private boolean hasSubroutines() {
+        for (int i = 0; i < n; ++i) {
+            int opcode = insns.get(i).getOpcode();
+            if (opcode == JSR || opcode == RET) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void execute(final Frame<V> f, final AbstractInsnNode insnNode)
+            throws AnalyzerException {
+        int insnType = insnNode.getType();
+        if (insnType != AbstractInsnNode.LABEL
+                && insnType != AbstractInsnNode.LINE
+                && insnType != AbstractInsnNode.FRAME) {
+            f.execute(insnNode, interpreter);
+        }
+    }
+
+    /**
+     * Computes the reverse post order of the basic blocks reachable from the
+     * first block, following jumps, fall through edges and exception edges.
+     */
+    private void computeReversePostOrder(final int blocks) {
+        int[][] successors = new int[blocks][];
+        for (int b = 0; b < blocks; ++b) {
+            successors[b] = successors(b);
+        }
+        rpoIndex = new int[blocks];
+        Arrays.fill(rpoIndex, -1);
+        boolean[] visited = new boolean[blocks];
+        int[] stack = new int[blocks];
+        int[] next = new int[blocks];
+        int[] postOrder = new int[blocks];
+        int count = 0;
+        int sp = 0;
+        stack[sp++] = 0;
+        visited[0] = true;
+        while (sp > 0) {
+            int b = stack[sp - 1];
+            if (next[b] < successors[b].length) {
+                int s = successors[b][next[b]++];
+                if (!visited[s]) {
+                    visited[s] = true;
+                    stack[sp++] = s;
+                }
+            } else {
+                --sp;
+                postOrder[count++] = b;
+            }
+        }
+        rpo = new int[count];
+        for (int i = 0; i < count; ++i) {
+            rpo[i] = postOrder[count - 1 - i];
+            rpoIndex[rpo[i]] = i;
+        }
+    }
+
+    private int[] successors(final int block) {
+        int end = blockStart[block + 1];
+        AbstractInsnNode last = insns.get(end - 1);
+        int opcode = last.getOpcode();
+        List<Integer> result = new ArrayList<Integer>();
+        if (last instanceof JumpInsnNode) {
+            result.add(insns.indexOf(((JumpInsnNode) last).label));
+            if (opcode != GOTO) {
+                result.add(end);
+            }
+        } else if (last instanceof LookupSwitchInsnNode) {
+            LookupSwitchInsnNode lsi = (LookupSwitchInsnNode) last;
+            result.add(insns.indexOf(lsi.dflt));
+            for (LabelNode label : lsi.labels) {
+                result.add(insns.indexOf(label));
+            }
+        } else if (last instanceof TableSwitchInsnNode) {
+            TableSwitchInsnNode tsi = (TableSwitchInsnNode) last;
+            result.add(insns.indexOf(tsi.dflt));
+            for (LabelNode label : tsi.labels) {
+                result.add(insns.indexOf(label));
+            }
+        } else if (!isExit(opcode)) {
+            result.add(end);
+        }
+        for (int i = blockStart[block]; i < end; ++i) {
+            List<TryCatchBlockNode> insnHandlers = handlers[i];
+            if (insnHandlers != null) {
+                for (int j = 0; j < insnHandlers.size(); ++j) {
+                    result.add(insns.indexOf(insnHandlers.get(j).handler));
+                }
+            }
+        }
+        // falling off the end of the code is reported by merge, and only if
+        // the block is actually reachable
+        int[] blocks = new int[result.size()];
+        int count = 0;
+        for (int i = 0; i < blocks.length; ++i) {
+            int insn = result.get(i);
+            if (insn < n) {
+                blocks[count++] = blockOf[insn];
+            }
+        }
+        return count == blocks.length ? blocks : Arrays.copyOf(blocks, count);
+    }
+
+    private void merge(final int insn, final Frame<V> frame)
+            throws AnalyzerException {
+        if (insn >= n) {
+            throw new AnalyzerException(null,
+                    "Execution can fall off end of the code");
+        }
+        int block = blockOf[insn];
+        Frame<V> oldFrame = entries[block];
+        boolean changes;
+        if (oldFrame == null) {
+            entries[block] = newFrame(frame);
+            changes = true;
+        } else {
+            changes = oldFrame.merge(frame, interpreter);
+        }
+        if (changes) {
+            worklist.set(rpoIndex[block]);
+        }
+    }
+}
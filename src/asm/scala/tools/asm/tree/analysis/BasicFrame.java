@@ -0,0 +1,243 @@
+/***
+ * ASM: a very small and fast Java bytecode manipulation framework
+ * Copyright (c) 2000-2011 INRIA, France Telecom
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in the
+ *    documentation and/or other materials provided with the distribution.
+ * 3. Neither the name of the copyright holders nor the names of its
+ *    contributors may be used to endorse or promote products derived from
+ *    this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF
+ * THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package scala.tools.asm.tree.analysis;
+
+/**
+ * A {@link Frame} specialized for the {@link BasicValue} constants produced by
+ * {@link BasicInterpreter}. Each local variable and stack slot is stored as a
+ * byte code instead of a reference, which makes copying frames cheaper and
+ * lets {@link #merge(Frame, Interpreter)} compare slots without calling the
+ * interpreter. Values other than the {@link BasicValue} constants (such as the
+ * ones created by {@link SimpleVerifier}) cannot be stored in this frame.
+ *
+ * A {@link BasicFrame} can only be merged with other {@link BasicFrame}s, and
+ * initialized from any frame.
+ *
+ * @author Eric Bruneton
+ */
+public class BasicFrame extends Frame<BasicValue> {
+
+    /**
+     * The values corresponding to the slot codes.
+     */
+    private static final BasicValue[] VALUES = { null,
+            BasicValue.UNINITIALIZED_VALUE, BasicValue.INT_VALUE,
+            BasicValue.FLOAT_VALUE, BasicValue.LONG_VALUE,
+            BasicValue.DOUBLE_VALUE, BasicValue.REFERENCE_VALUE,
+            BasicValue.RETURNADDRESS_VALUE };
+
+    /**
+     * The code of {@link BasicValue#UNINITIALIZED_VALUE}.
+     */
+    private static final byte UNINITIALIZED = 1;
+
+    /**
+     * The codes of the local variables, followed by the operand stack.
+     */
+    private final byte[] codes;
+
+    /**
+     * The number of local variables of this frame.
+     */
+    private final int nLocals;
+
+    /**
+     * The number of elements in the operand stack.
+     */
+    private int top;
+
+    /**
+     * Constructs a new frame with the given size.
+     *
+     * @param nLocals
+     *            the maximum number of local variables of the frame.
+     * @param nStack
+     *            the maximum stack size of the frame.
+     */
+    public BasicFrame(final int nLocals, final int nStack) {
+        super(0, 0);
+        this.codes = new byte[nLocals + nStack];
+        this.nLocals = nLocals;
+    }
+
+    /**
+     * Constructs a new frame that is identical to the given frame.
+     *
+     * @param src
+     *            a frame.
+     */
+    public BasicFrame(final Frame<? extends BasicValue> src) {
+        this(src.getLocals(), src.getMaxStackSize());
+        init(src);
+    }
+
+    private static byte encode(final BasicValue v) {
+        for (int i = 0; i < VALUES.length; ++i) {
+            if (VALUES[i] == v) {
+                return (byte) i;
+            }
+        }
+        for (int i = 1; i < VALUES.length; ++i) {
+            if (VALUES[i].equals(v)) {
+                return (byte) i;
+            }
+        }
+        throw new IllegalArgumentException(
+                "Only the BasicValue constants can be stored in a BasicFrame: "
+                        + v);
+    }
+
+    @Override
+    public Frame<BasicValue> init(final Frame<? extends BasicValue> src) {
+        super.init(src); // copies the return value
+        if (src instanceof BasicFrame) {
+            BasicFrame b = (BasicFrame) src;
+            System.arraycopy(b.codes, 0, codes, 0, codes.length);
+            top = b.top;
+        } else {
+            for (int i = 0; i < nLocals; ++i) {
+                codes[i] = encode(src.getLocal(i));
+            }
+            top = src.getStackSize();
+            for (int i = 0; i < top; ++i) {
+                codes[nLocals + i] = encode(src.getStack(i));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public int getLocals() {
+        return nLocals;
+    }
+
+    @Override
+    public int getMaxStackSize() {
+        return codes.length - nLocals;
+    }
+
+    @Override
+    public BasicValue getLocal(final int i) throws IndexOutOfBoundsException {
+        if (i >= nLocals) {
+            throw new IndexOutOfBoundsException(
+                    "Trying to access an inexistant local variable");
+        }
+        return VALUES[codes[i]];
+    }
+
+    @Override
+    public void setLocal(final int i, final BasicValue value)
+            throws IndexOutOfBoundsException {
+        if (i >= nLocals) {
+            throw new IndexOutOfBoundsException(
+                    "Trying to access an inexistant local variable " + i);
+        }
+        codes[i] = encode(value);
+    }
+
+    @Override
+    public int getStackSize() {
+        return top;
+    }
+
+    @Override
+    public BasicValue getStack(final int i) throws IndexOutOfBoundsException {
+        return VALUES[codes[i + nLocals]];
+    }
+
+    @Override
+    public void clearStack() {
+        top = 0;
+    }
+
+    @Override
+    public BasicValue pop() throws IndexOutOfBoundsException {
+        if (top == 0) {
+            throw new IndexOutOfBoundsException(
+                    "Cannot pop operand off an empty stack.");
+        }
+        return VALUES[codes[--top + nLocals]];
+    }
+
+    @Override
+    public void push(final BasicValue value) throws IndexOutOfBoundsException {
+        if (top + nLocals >= codes.length) {
+            throw new IndexOutOfBoundsException(
+                    "Insufficient maximum stack size.");
+        }
+        codes[top++ + nLocals] = encode(value);
+    }
+
+    @Override
+    public boolean merge(final Frame<? extends BasicValue> frame,
+            final Interpreter<BasicValue> interpreter) throws AnalyzerException {
+        BasicFrame b = (BasicFrame) frame;
+        if (top != b.top) {
+            throw new AnalyzerException(null, "Incompatible stack heights");
+        }
+        boolean changes = false;
+        int n = nLocals + top;
+        if (interpreter.getClass() == BasicInterpreter.class) {
+            // BasicInterpreter.merge yields UNINITIALIZED_VALUE for different
+            // values, no need to call it
+            for (int i = 0; i < n; ++i) {
+                if (codes[i] != b.codes[i] && codes[i] != UNINITIALIZED) {
+                    codes[i] = UNINITIALIZED;
+                    changes = true;
+                }
+            }
+        } else {
+            for (int i = 0; i < n; ++i) {
+                BasicValue v = interpreter.merge(VALUES[codes[i]],
+                        VALUES[b.codes[i]]);
+                byte c = encode(v);
+                if (c != codes[i]) {
+                    codes[i] = c;
+                    changes = true;
+                }
+            }
+        }
+        return changes;
+    }
+
+    @Override
+    public boolean merge(final Frame<? extends BasicValue> frame,
+            final boolean[] access) {
+        BasicFrame b = (BasicFrame) frame;
+        boolean changes = false;
+        for (int i = 0; i < nLocals; ++i) {
+            if (!access[i] && codes[i] != b.codes[i]) {
+                codes[i] = b.codes[i];
+                changes = true;
+            }
+        }
+        return changes;
+    }
+}
@@ -53,25 +53,33 @@ abstract class BCodeHelpers extends BCodeIdiomatic with BytecodeWriters {
   //  https://issues.scala-lang.org/browse/SI-3872
   // -----------------------------------------------------------------------------------------
 
-  /*  An `asm.ClassWriter` that uses `jvmWiseLUB()`
+  /*  The class hierarchy of the BTypes component, using `jvmWiseLUB()`:
    *  The internal name of the least common ancestor of the types given by inameA and inameB.
    *  It's what ASM needs to know in order to compute stack map frames, http://asm.ow2.org/doc/developer-guide.html#controlflow
+   *
+   *  Answers are memoized across the classes of a run (ASM only caches them during the lifetime of a ClassWriter),
+   *  so a new hierarchy is needed for each run: ClassBTypes are re-created in every run.
    */
-  final class CClassWriter(flags: Int) extends asm.ClassWriter(flags) {
+  def newClassHierarchy(): asm.ClassHierarchy = new asm.MemoizingClassHierarchy(new asm.ClassHierarchy {
 
     /**
      * This method is thread-safe: it depends only on the BTypes component, which does not depend
      * on global. TODO @lry move to a different place where no global is in scope, on bTypes.
      */
-    override def getCommonSuperClass(inameA: String, inameB: String): String = {
+    def getCommonSuperClass(inameA: String, inameB: String): String = {
       val a = classBTypeFromInternalName(inameA)
       val b = classBTypeFromInternalName(inameB)
       val lub = a.jvmWiseLUB(b)
       val lubName = lub.internalName
       assert(lubName != "scala/Any")
-      lubName // ASM caches the answer during the lifetime of a ClassWriter. We outlive that. Not sure whether caching on our side would improve things.
+      lubName
     }
-  }
+  })
+
+  /*  An `asm.ClassWriter` that computes common super classes with a hierarchy obtained from `newClassHierarchy()`,
+   *  it never loads classes. Can be used from several threads as long as the hierarchy is thread-safe.
+   */
+  final class CClassWriter(flags: Int, hierarchy: asm.ClassHierarchy) extends asm.ClassWriter(flags, hierarchy)
 
   /*
    * must-single-thread
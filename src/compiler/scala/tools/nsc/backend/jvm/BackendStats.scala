@@ -14,11 +14,32 @@ object BackendStats {
 
   val bcodeInitTimer  = newSubTimer("bcode initialization", bcodeTimer)
   val bcodeGenStat    = newSubTimer("code generation", bcodeTimer)
-  val bcodeDceTimer   = newSubTimer("dead code elimination", bcodeTimer)
+  val bcodeDceTimer   = new ConcurrentSubTimer("dead code elimination", bcodeTimer)
   val bcodeWriteTimer = newSubTimer("classfile writing", bcodeTimer)
 
+  // Passes of LocalOpt, run concurrently with -Ybackend-parallelism / -Yopt-method-parallelism
+  val bcodeUnreachableCodeTimer = new ConcurrentSubTimer("  unreachable code", bcodeTimer)
+  val bcodeEmptyHandlersTimer   = new ConcurrentSubTimer("  empty exception handlers", bcodeTimer)
+  val bcodeUnusedLocalsTimer    = new ConcurrentSubTimer("  unused local variables", bcodeTimer)
+  val bcodeMaxsTimer            = new ConcurrentSubTimer("  max locals / max stack", bcodeTimer)
+
   def timed[T](timer: Statistics.Timer)(body: => T): T = {
     val start = Statistics.startTimer(timer)
     try body finally Statistics.stopTimer(timer, start)
   }
+
+  /**
+   * A sub-timer that may be started and stopped by several threads at the same time. The time spent
+   * in each thread is added up, so the total can exceed the wall-clock time of the backend.
+   */
+  final class ConcurrentSubTimer(prefix: String, base: Statistics.Timer) extends Statistics.SubTimer(prefix, base) {
+    override def start(): Statistics.TimerSnapshot = (0L, System.nanoTime())
+    override def stop(prev: Statistics.TimerSnapshot): Unit = {
+      val elapsed = System.nanoTime() - prev._2
+      synchronized {
+        nanos += elapsed
+        timings += 1
+      }
+    }
+  }
 }
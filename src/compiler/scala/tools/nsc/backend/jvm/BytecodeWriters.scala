@@ -6,7 +6,8 @@
 package scala.tools.nsc
 package backend.jvm
 
-import java.io.{ DataOutputStream, FileOutputStream, IOException, OutputStream, File => JFile }
+import java.io.{ DataOutputStream, FileInputStream, FileOutputStream, IOException, OutputStream, File => JFile }
+import java.nio.ByteBuffer
 import scala.tools.nsc.io._
 import java.util.jar.Attributes.Name
 import scala.language.postfixOps
@@ -51,26 +52,103 @@ trait BytecodeWriters {
     }
   }
 
+  /** Wraps `writer` into an [[AsyncBytecodeWriter]] under `-Ybackend-async-output`.
+   *  Under `-verbose` the writer stays synchronous, its progress messages go to the (single-threaded) reporter.
+   */
+  def withAsyncOutput(writer: BytecodeWriter): BytecodeWriter =
+    if (settings.YbackendAsyncOutput && !settings.verbose) new AsyncBytecodeWriter(writer)
+    else writer
+
   trait BytecodeWriter {
     def writeClass(label: String, jclassName: String, jclassBytes: Array[Byte], outfile: AbstractFile): Unit
     def close(): Unit = ()
   }
 
+  /*
+   * Hands classfiles over to a dedicated I/O thread, so that the compiler thread doesn't wait for the file system.
+   * The I/O thread takes all pending classfiles at once and writes them with `underlying`, which
+   * therefore must not use the reporter. If a write fails, the I/O thread stops, and the failure is
+   * rethrown on the compiler thread by the next `writeClass` or by `close()`.
+   *
+   * In directory output, classfiles whose contents on disk are identical are left untouched.
+   */
+  class AsyncBytecodeWriter(val underlying: BytecodeWriter) extends BytecodeWriter {
+    private case class Pending(label: String, jclassName: String, jclassBytes: Array[Byte], outfile: AbstractFile)
+    private val poison  = Pending(null, null, null, null)
+    private val pending = new java.util.concurrent.LinkedBlockingQueue[Pending](1024)
+    @volatile private var failure: Throwable = null
+
+    underlying match {
+      case w: ClassBytecodeWriter => w.skipUnchanged = true
+      case _                      =>
+    }
+
+    private val ioThread = new Thread("scalac-classfile-writer") {
+      override def run() {
+        val batch = new java.util.ArrayList[Pending]
+        try {
+          var done = false
+          while (!done) {
+            batch add pending.take()
+            pending drainTo batch
+            val it = batch.iterator()
+            while (it.hasNext) {
+              val p = it.next()
+              if (p eq poison) done = true
+              else underlying.writeClass(p.label, p.jclassName, p.jclassBytes, p.outfile)
+            }
+            batch.clear()
+          }
+        } catch {
+          case ex: Throwable => failure = ex
+        }
+      }
+    }
+    ioThread setDaemon true
+    ioThread.start()
+
+    /* Rethrows the failure of the I/O thread, once it has stopped. */
+    private def checkFailure() {
+      if (failure != null) throw failure
+    }
+
+    /* Waits for room in the queue only as long as the I/O thread is still draining it. */
+    private def handOver(p: Pending) {
+      while (!pending.offer(p, 100, java.util.concurrent.TimeUnit.MILLISECONDS)) {
+        checkFailure()
+        if (!ioThread.isAlive) throw new IllegalStateException("the classfile writer thread has stopped")
+      }
+    }
+
+    def writeClass(label: String, jclassName: String, jclassBytes: Array[Byte], outfile: AbstractFile) {
+      checkFailure()
+      handOver(Pending(label, jclassName, jclassBytes, outfile))
+    }
+
+    override def close() {
+      try {
+        handOver(poison)
+        ioThread.join()
+      }
+      finally underlying.close()
+      checkFailure()
+    }
+  }
+
   class DirectToJarfileWriter(jfile: JFile) extends BytecodeWriter {
     val jarMainAttrs = (
       if (settings.mainClass.isDefault) Nil
       else List(Name.MAIN_CLASS -> settings.mainClass.value)
     )
     val writer = new Jar(jfile).jarWriter(jarMainAttrs: _*)
+    if (!settings.YjarCompressionLevel.isDefault)
+      writer setLevel settings.YjarCompressionLevel.value
 
     def writeClass(label: String, jclassName: String, jclassBytes: Array[Byte], outfile: AbstractFile) {
       assert(outfile == null,
              "The outfile formal param is there just because ClassBytecodeWriter overrides this method and uses it.")
       val path = jclassName + ".class"
-      val out  = writer.newOutputStream(path)
-
-      try out.write(jclassBytes, 0, jclassBytes.length)
-      finally out.flush()
+      writer.writeEntry(path, jclassBytes)
 
       informProgress("added " + label + path + " to jar")
     }
@@ -115,15 +193,41 @@ trait BytecodeWriters {
   }
 
   trait ClassBytecodeWriter extends BytecodeWriter {
+    /** Leave classfiles on disk alone if their contents are identical to the ones being written. */
+    var skipUnchanged = false
+
     def writeClass(label: String, jclassName: String, jclassBytes: Array[Byte], outfile: AbstractFile) {
       assert(outfile != null,
              "Precisely this override requires its invoker to hand out a non-null AbstractFile.")
-      val outstream = new DataOutputStream(outfile.bufferedOutput)
-
-      try outstream.write(jclassBytes, 0, jclassBytes.length)
-      finally outstream.close()
+      val jfile = outfile.file
+      if (skipUnchanged && jfile != null) {
+        if (!hasContents(jfile, jclassBytes)) {
+          val channel = new FileOutputStream(jfile).getChannel
+          try {
+            val buf = ByteBuffer.wrap(jclassBytes)
+            while (buf.hasRemaining) channel.write(buf)
+          }
+          finally channel.close()
+        }
+      } else {
+        val outstream = new DataOutputStream(outfile.bufferedOutput)
+
+        try outstream.write(jclassBytes, 0, jclassBytes.length)
+        finally outstream.close()
+      }
       informProgress("wrote '" + label + "' to " + outfile)
     }
+
+    private def hasContents(jfile: JFile, bytes: Array[Byte]): Boolean = jfile.isFile && jfile.length == bytes.length && {
+      val channel = new FileInputStream(jfile).getChannel
+      try {
+        val buf = ByteBuffer.allocate(bytes.length)
+        while (buf.hasRemaining && channel.read(buf) >= 0) ()
+        buf.flip()
+        buf == ByteBuffer.wrap(bytes)
+      }
+      finally channel.close()
+    }
   }
 
   trait DumpBytecodeWriter extends BytecodeWriter {
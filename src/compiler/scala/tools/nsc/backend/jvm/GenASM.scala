@@ -181,8 +181,9 @@ abstract class GenASM extends SubComponent with BytecodeWriters { self =>
       }
 
       debuglog(s"Created new bytecode generator for ${classes.size} classes.")
-      val bytecodeWriter  = initBytecodeWriter(sortedClasses filter isJavaEntryPoint)
-      val needsOutfile    = bytecodeWriter.isInstanceOf[ClassBytecodeWriter]
+      val outputWriter    = initBytecodeWriter(sortedClasses filter isJavaEntryPoint)
+      val needsOutfile    = outputWriter.isInstanceOf[ClassBytecodeWriter]
+      val bytecodeWriter  = withAsyncOutput(outputWriter)
       val plainCodeGen    = new JPlainBuilder(   bytecodeWriter, needsOutfile)
       val mirrorCodeGen   = new JMirrorBuilder(  bytecodeWriter, needsOutfile)
       val beanInfoCodeGen = new JBeanInfoBuilder(bytecodeWriter, needsOutfile)
@@ -10,6 +10,7 @@ package backend
 package jvm
 
 import scala.collection.{ mutable, immutable }
+import scala.collection.convert.decorateAsScala._
 import scala.annotation.switch
 import scala.reflect.internal.util.Statistics
 
@@ -41,6 +42,11 @@ import scala.tools.asm.tree.ClassNode
  *
  *  Plain, mirror, and bean classes are built respectively by PlainClassBuilder, JMirrorBuilder, and JBeanInfoBuilder.
  *
+ *  By default all three pipelines run one after the other on the compiler thread.
+ *  Under `-Ybackend-parallelism:N` (N > 1), N threads run pipeline (2) while the compiler thread is still
+ *  running pipeline (1). Only pipeline (1) touches Symbols and Types, the other two depend only on BTypes.
+ *  Pipeline (3) still runs on the compiler thread, and the arrival-ordered queue-3 keeps the output deterministic.
+ *
  *  @author  Miguel Garcia, http://lamp.epfl.ch/~magarcia/ScalaCompilerCornerReloaded/
  *  @version 1.0
  *
@@ -66,6 +72,8 @@ abstract class GenBCode extends BCodeSyncAndTry {
     private var bytecodeWriter  : BytecodeWriter   = null
     private var mirrorCodeGen   : JMirrorBuilder   = null
     private var beanInfoCodeGen : JBeanInfoBuilder = null
+    private var classHierarchy  : asm.ClassHierarchy = null // shared by all Worker2s of a run
+    private var localOptPool    : scala.concurrent.forkjoin.ForkJoinPool = null // null unless -Yopt-method-parallelism > 1
 
     /* ---------------- q1 ---------------- */
 
@@ -127,11 +135,14 @@ abstract class GenBCode extends BCodeSyncAndTry {
 
       val caseInsensitively = mutable.Map.empty[String, Symbol]
 
+      /* Places an item on queue-2. Overridden when queue-2 is shared with worker threads. */
+      protected def handOver(item: Item2): Unit = q2 add item
+
       def run() {
         while (true) {
           val item = q1.poll
           if (item.isPoison) {
-            q2 add poison2
+            handOver(poison2)
             return
           }
           else {
@@ -202,7 +213,7 @@ abstract class GenBCode extends BCodeSyncAndTry {
                 mirrorC, plainC, beanC,
                 outF)
 
-        q2 add item2 // at the very end of this method so that no Worker2 thread starts mutating before we're done.
+        handOver(item2) // at the very end of this method so that no Worker2 thread starts mutating before we're done.
 
       } // end of method visit(Item1)
 
@@ -215,9 +226,12 @@ abstract class GenBCode extends BCodeSyncAndTry {
      *          - converting the plain ClassNode to byte array and placing it on queue-3
      */
     class Worker2 {
+      // Reset and reused for every class, so that its constant pool table and code buffers are recycled.
+      private val classWriter = new CClassWriter(extraProc, classHierarchy)
+
       def localOptimizations(classNode: ClassNode): Unit = {
         def dce(): Boolean = BackendStats.timed(BackendStats.bcodeDceTimer) {
-          if (settings.YoptUnreachableCode) opt.LocalOpt.removeUnreachableCode(classNode)
+          if (settings.YoptUnreachableCode) opt.LocalOpt.removeUnreachableCode(classNode, localOptPool)
           else false
         }
 
@@ -234,8 +248,8 @@ abstract class GenBCode extends BCodeSyncAndTry {
           else {
             try {
               localOptimizations(item.plain)
-              addToQ3(item)
-          } catch {
+              q3 add serialize(item)
+            } catch {
               case ex: Throwable =>
                 ex.printStackTrace()
                 error(s"Error while emitting ${item.plain.name}\n${ex.getMessage}")
@@ -244,12 +258,12 @@ abstract class GenBCode extends BCodeSyncAndTry {
         }
       }
 
-      private def addToQ3(item: Item2) {
+      protected def serialize(item: Item2): Item3 = {
 
         def getByteArray(cn: asm.tree.ClassNode): Array[Byte] = {
-          val cw = new CClassWriter(extraProc)
-          cn.accept(cw)
-          cw.toByteArray
+          classWriter.reset()
+          cn.accept(classWriter)
+          classWriter.toByteArray
         }
 
         val Item2(arrivalPos, mirror, plain, bean, outFolder) = item
@@ -264,12 +278,53 @@ abstract class GenBCode extends BCodeSyncAndTry {
           if (beanC != null) AsmUtils.traceClass(beanC.jclassBytes)
         }
 
-        q3 add Item3(arrivalPos, mirrorC, plainC, beanC, outFolder)
+        Item3(arrivalPos, mirrorC, plainC, beanC, outFolder)
 
       }
 
     } // end of class BCodePhase.Worker2
 
+    /* ---------------- parallel pipeline-2 ---------------- */
+
+    /*
+     *  Worker1 for the parallel pipeline: blocks (rather than failing) when the bounded queue-2 is full.
+     */
+    class ParallelWorker1(needsOutFolder: Boolean, sharedQ2: java.util.concurrent.BlockingQueue[Item2]) extends Worker1(needsOutFolder) {
+      override protected def handOver(item: Item2): Unit = sharedQ2 put item
+    }
+
+    /*
+     *  One of several threads taking items from the shared queue-2. Items are optimized and serialized
+     *  in any order, queue-3 is a PriorityBlockingQueue that restores the arrival order.
+     *
+     *  Worker threads must not use the reporter (it's not thread-safe): failures are collected
+     *  in `failures` and reported by the compiler thread once all workers are done.
+     */
+    class ParallelWorker2(sharedQ2: java.util.concurrent.BlockingQueue[Item2],
+                          sharedQ3: java.util.concurrent.BlockingQueue[Item3],
+                          failures: java.util.Queue[(String, Throwable)]) extends Worker2 with Runnable {
+
+      override def run() {
+        while (true) {
+          val item = sharedQ2.take()
+          if (item.isPoison) {
+            sharedQ2 put poison2 // let the sibling workers see the poison as well
+            return
+          }
+          else {
+            try {
+              localOptimizations(item.plain)
+              sharedQ3 put serialize(item)
+            } catch {
+              case ex: Throwable =>
+                failures add ((item.plain.name, ex))
+            }
+          }
+        }
+      }
+
+    } // end of class BCodePhase.ParallelWorker2
+
     var arrivalPos = 0
 
     /*
@@ -296,9 +351,17 @@ abstract class GenBCode extends BCodeSyncAndTry {
       bytecodeWriter  = initBytecodeWriter(cleanup.getEntryPoints)
       mirrorCodeGen   = new JMirrorBuilder
       beanInfoCodeGen = new JBeanInfoBuilder
+      classHierarchy  = newClassHierarchy()
 
       val needsOutfileForSymbol = bytecodeWriter.isInstanceOf[ClassBytecodeWriter]
-      buildAndSendToDisk(needsOutfileForSymbol)
+      bytecodeWriter = withAsyncOutput(bytecodeWriter)
+      val methodParallelism = settings.YoptMethodParallelism.value
+      if (methodParallelism > 1) localOptPool = new scala.concurrent.forkjoin.ForkJoinPool(methodParallelism)
+      try buildAndSendToDisk(needsOutfileForSymbol)
+      finally if (localOptPool != null) {
+        localOptPool.shutdown()
+        localOptPool = null
+      }
 
       // closing output files.
       bytecodeWriter.close()
@@ -327,6 +390,12 @@ abstract class GenBCode extends BCodeSyncAndTry {
      */
     private def buildAndSendToDisk(needsOutFolder: Boolean) {
 
+      val parallelism = settings.YbackendParallelism.value
+      if (parallelism > 1) {
+        buildAndSendToDiskInParallel(needsOutFolder, parallelism)
+        return
+      }
+
       feedPipeline1()
       val genStart = Statistics.startTimer(BackendStats.bcodeGenStat)
       (new Worker1(needsOutFolder)).run()
@@ -340,6 +409,60 @@ abstract class GenBCode extends BCodeSyncAndTry {
 
     }
 
+    /*
+     *  Like `buildAndSendToDisk`, but (b) and (c) overlap:
+     *    (a) place all ClassDefs in queue-1
+     *    (b) on the compiler thread, dequeue from queue-1 and hand over ClassNodes to a bounded, shared queue-2
+     *    (c) `parallelism` worker threads dequeue from queue-2, optimize and convert to byte-array, place in queue-3
+     *    (d) once all workers are done, serialize to disk by draining queue-3 in arrival order.
+     */
+    private def buildAndSendToDiskInParallel(needsOutFolder: Boolean, parallelism: Int) {
+      import java.util.concurrent._
+
+      val sharedQ2 = new ArrayBlockingQueue[Item2](parallelism * 32)
+      val sharedQ3 = new PriorityBlockingQueue[Item3](1000, i3comparator)
+      val failures = new ConcurrentLinkedQueue[(String, Throwable)]
+
+      val pool = Executors.newFixedThreadPool(parallelism, new ThreadFactory {
+        private val count = new atomic.AtomicInteger(0)
+        def newThread(r: Runnable) = {
+          val t = new Thread(r, "scalac-backend-worker-" + count.incrementAndGet())
+          t.setDaemon(true)
+          t
+        }
+      })
+
+      feedPipeline1()
+      try {
+        for (_ <- 1 to parallelism)
+          pool execute new ParallelWorker2(sharedQ2, sharedQ3, failures)
+
+        val genStart = Statistics.startTimer(BackendStats.bcodeGenStat)
+        (new ParallelWorker1(needsOutFolder, sharedQ2)).run()
+        Statistics.stopTimer(BackendStats.bcodeGenStat, genStart)
+      } catch {
+        case ex: Throwable =>
+          pool.shutdownNow() // workers may be waiting for a poison that will never arrive
+          throw ex
+      }
+      pool.shutdown()
+      while (!pool.awaitTermination(1, TimeUnit.SECONDS)) ()
+
+      for ((className, ex) <- failures.asScala) {
+        ex.printStackTrace()
+        error(s"Error while emitting $className\n${ex.getMessage}")
+      }
+
+      val exhausted = sharedQ2.poll
+      assert(exhausted != null && exhausted.isPoison && sharedQ2.isEmpty, s"Some classfiles remained in the second queue: $sharedQ2")
+      sharedQ3 drainTo q3
+      q3 add poison3
+
+      val writeStart = Statistics.startTimer(BackendStats.bcodeWriteTimer)
+      drainQ3()
+      Statistics.stopTimer(BackendStats.bcodeWriteTimer, writeStart)
+    }
+
     /* Feed pipeline-1: place all ClassDefs on q1, recording their arrival position. */
     private def feedPipeline1() {
       super.run()
@@ -8,10 +8,13 @@ package backend.jvm
 package opt
 
 import scala.tools.asm.{Opcodes, MethodWriter, ClassWriter}
-import scala.tools.asm.tree.analysis.{Analyzer, BasicValue, BasicInterpreter}
+import scala.tools.asm.tree.analysis.{BasicBlockAnalyzer, BasicValue, BasicInterpreter}
 import scala.tools.asm.tree._
 import scala.collection.convert.decorateAsScala._
+import scala.collection.convert.decorateAsJava._
 import scala.collection.{ mutable => m }
+import java.util.concurrent.{Callable, ExecutionException, ExecutorService}
+import BackendStats.timed
 
 /**
  * Intra-Method optimizations.
@@ -29,6 +32,36 @@ object LocalOpt {
     }
   }
 
+  /**
+   * Classes with fewer instructions (in all methods) than this are optimized sequentially by
+   * `removeUnreachableCode(clazz, executor)`, forking tasks doesn't pay off for them.
+   */
+  final val ParallelInstructionThreshold = 2000
+
+  /**
+   * Like `removeUnreachableCode(clazz)`, but the methods of large classes are optimized in parallel
+   * on `executor`. Methods are independent: every task creates its own analyzer and interpreter, and
+   * only modifies its own MethodNode.
+   *
+   * @param executor The executor running the per-method tasks, if `null` the methods are optimized
+   *                 sequentially on the current thread.
+   */
+  def removeUnreachableCode(clazz: ClassNode, executor: ExecutorService): Boolean = {
+    val methods = clazz.methods.asScala
+    def isLarge = methods.iterator.map(_.instructions.size).sum >= ParallelInstructionThreshold
+    if (executor == null || methods.size < 2 || !isLarge) removeUnreachableCode(clazz)
+    else {
+      val tasks = methods map (method => new Callable[Boolean] {
+        def call(): Boolean = removeUnreachableCode(method, clazz.name)
+      })
+      executor.invokeAll(tasks.asJava).asScala.foldLeft(false) {
+        case (changed, result) =>
+          try result.get || changed
+          catch { case e: ExecutionException if e.getCause != null => throw e.getCause }
+      }
+    }
+  }
+
   /**
    * Remove unreachable code from a method.
    * We rely on dead code elimination provided by the ASM framework, as described in the ASM User
@@ -43,13 +76,15 @@ object LocalOpt {
   private def removeUnreachableCode(method: MethodNode, ownerClassName: String): Boolean = {
     if (method.instructions.size == 0) return false // fast path for abstract methods
 
-    val codeRemoved = removeUnreachableCodeImpl(method, ownerClassName)
+    // The data flow analysis requires the maxLocals / maxStack fields of the method to be computed.
+    timed(BackendStats.bcodeMaxsTimer)(computeMaxLocalsMaxStack(method))
+    val codeRemoved = timed(BackendStats.bcodeUnreachableCodeTimer)(removeUnreachableCodeImpl(method, ownerClassName))
 
     // unreachable-code also removes unused local variable nodes and empty exception handlers.
     // This is required for correctness: such nodes are not allowed to refer to instruction offsets
     // that don't exist (because they have been eliminated).
-    val localsRemoved = removeUnusedLocalVariableNodes(method)
-    val handlersRemoved = removeEmptyExceptionHandlers(method)
+    val localsRemoved = timed(BackendStats.bcodeUnusedLocalsTimer)(removeUnusedLocalVariableNodes(method))
+    val handlersRemoved = timed(BackendStats.bcodeEmptyHandlersTimer)(removeEmptyExceptionHandlers(method))
 
     // When eliminating a handler, the catch block becomes unreachable. The recursive invocation
     // removes these blocks.
@@ -69,18 +104,16 @@ object LocalOpt {
     val initialSize = method.instructions.size
     if (initialSize == 0) return false
 
-    // The data flow analysis requires the maxLocals / maxStack fields of the method to be computed.
-    computeMaxLocalsMaxStack(method)
-    val a = new Analyzer[BasicValue](new BasicInterpreter)
+    // Only reachability is needed, so the per-instruction frames are never materialized.
+    val a = new BasicBlockAnalyzer[BasicValue](new BasicInterpreter)
     a.analyze(ownerClassName, method)
-    val frames = a.getFrames
 
     var i = 0
     val itr = method.instructions.iterator()
     while (itr.hasNext) {
       val ins = itr.next()
       // Don't remove label nodes: they might be referenced for example in a LocalVariableNode
-      if (frames(i) == null && !ins.isInstanceOf[LabelNode]) {
+      if (!a.isReachable(i) && !ins.isInstanceOf[LabelNode]) {
         // Instruction iterators allow removing during iteration.
         // Removing is O(1): instructions are doubly linked list elements.
         itr.remove()
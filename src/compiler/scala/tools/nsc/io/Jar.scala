@@ -79,6 +79,16 @@ class Jar(file: File) extends Iterable[JarEntry] {
 
 class JarWriter(val file: File, val manifest: Manifest) {
   private lazy val out = new JarOutputStream(file.outputStream(), manifest)
+  private var level    = java.util.zip.Deflater.DEFAULT_COMPRESSION
+
+  /** Sets the compression level (as in `java.util.zip.Deflater`) for entries added by `writeEntry`.
+   *  At level 0 entries are STORED rather than DEFLATED without compression.
+   */
+  def setLevel(compressionLevel: Int) {
+    require(compressionLevel == java.util.zip.Deflater.DEFAULT_COMPRESSION || (0 <= compressionLevel && compressionLevel <= 9), compressionLevel)
+    level = compressionLevel
+    if (level != java.util.zip.Deflater.NO_COMPRESSION) out setLevel level
+  }
 
   /** Adds a jar entry for the given path and returns an output
    *  stream to which the data should immediately be written.
@@ -90,6 +100,24 @@ class JarWriter(val file: File, val manifest: Manifest) {
     new DataOutputStream(out)
   }
 
+  /** Adds a jar entry with the given contents in one go. STORED entries need their size
+   *  and checksum up front, which is why this takes the complete array.
+   */
+  def writeEntry(path: String, bytes: Array[Byte]) {
+    val entry = new JarEntry(path)
+    if (level == java.util.zip.Deflater.NO_COMPRESSION) {
+      val crc = new java.util.zip.CRC32
+      crc.update(bytes, 0, bytes.length)
+      entry setMethod java.util.zip.ZipEntry.STORED
+      entry setSize bytes.length
+      entry setCompressedSize bytes.length
+      entry setCrc crc.getValue
+    }
+    out putNextEntry entry
+    try out.write(bytes, 0, bytes.length)
+    finally out.closeEntry()
+  }
+
   def writeAllFrom(dir: Directory) {
     try dir.list foreach (x => addEntry(x, ""))
     finally out.close()
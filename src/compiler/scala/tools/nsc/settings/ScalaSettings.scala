@@ -204,6 +204,8 @@ trait ScalaSettings extends AbsScalaSettings
   val YvirtClasses    = false // too embryonic to even expose as a -Y //BooleanSetting    ("-Yvirtual-classes", "Support virtual classes")
   val YdisableUnreachablePrevention = BooleanSetting("-Ydisable-unreachable-prevention", "Disable the prevention of unreachable blocks in code generation.")
   val YnoLoadImplClass = BooleanSetting   ("-Yno-load-impl-class", "Do not load $class.class files.")
+  val YlazyUnpickle   = BooleanSetting   ("-Ylazy-unpickle", "Unpickle the annotations of library symbols only when they are first inspected.")
+  val YclasspathIndex = StringSetting    ("-Yclasspath-index", "dir", "Keep indices of the jars on the classpath in dir, so that later runs need not open the jars to list their classes.", "")
 
   val exposeEmptyPackage = BooleanSetting("-Yexpose-empty-package", "Internal only: expose the empty package.").internalOnly()
   // the current standard is "inline" but we are moving towards "method"
@@ -234,6 +236,7 @@ trait ScalaSettings extends AbsScalaSettings
     domain = YoptChoices)
 
   def YoptUnreachableCode: Boolean = !Yopt.isSetByUser || Yopt.contains(YoptChoices.unreachableCode)
+  val YoptMethodParallelism = IntSetting("-Yopt-method-parallelism", "number of threads running the local optimizations on the methods of a large class", 1, Some((1, 16)), str => Some(str.toInt))
 
   private def removalIn212 = "This flag is scheduled for removal in 2.12. If you have a case where you need this flag then please report a bug."
 
@@ -282,6 +285,9 @@ trait ScalaSettings extends AbsScalaSettings
   val Ybackend = ChoiceSetting ("-Ybackend", "choice of bytecode emitter", "Choice of bytecode emitter.",
                                 List("GenASM", "GenBCode"),
                                 "GenASM")
+  val YbackendAsyncOutput = BooleanSetting("-Ybackend-async-output", "Write classfiles on a dedicated thread, leaving classfiles whose contents are unchanged on disk untouched.")
+  val YjarCompressionLevel = IntSetting("-Yjar-compression-level", "compression level of entries in a jar output, 0 stores them uncompressed", -1, Some((-1, 9)), str => Some(str.toInt))
+  val YbackendParallelism = IntSetting("-Ybackend-parallelism", "maximum worker threads for classfile optimization and serialization in GenBCode", 1, Some((1, 16)), str => Some(str.toInt))
   // Feature extensions
   val XmacroSettings          = MultiStringSetting("-Xmacro-settings", "option", "Custom settings for macros.")
 
@@ -8,10 +8,12 @@ package scala.tools.nsc
 package symtab
 package classfile
 
+import java.io.IOException
 import java.lang.Float.intBitsToFloat
 import java.lang.Double.longBitsToDouble
 
-import scala.tools.nsc.io.AbstractFile
+import scala.reflect.io.FileZipArchive
+import scala.tools.nsc.io.{ AbstractFile, PlainFile }
 
 /**
  * This class reads files byte per byte. Only used by ClassFileParser
@@ -19,11 +21,13 @@ import scala.tools.nsc.io.AbstractFile
  * @author Philippe Altherr
  * @version 1.0, 23/03/2004
  */
-class AbstractFileReader(val file: AbstractFile) {
+class AbstractFileReader(val file: AbstractFile, val buf: Array[Byte], pooled: Boolean) {
 
-  /** the buffer containing the file
+  def this(file: AbstractFile) = this(file, file.toByteArray, false)
+
+  /** has the buffer been given back to the pool?
    */
-  val buf: Array[Byte] = file.toByteArray
+  private var released = false
 
   /** the current input pointer
    */
@@ -85,4 +89,91 @@ class AbstractFileReader(val file: AbstractFile) {
    */
   def skip(n: Int) { bp += n }
 
+  /** the `len` bytes at position `start` in an array that stays valid after
+   *  the reader is released, together with their offset in that array
+   */
+  def retainedBytes(start: Int, len: Int): (Array[Byte], Int) =
+    if (pooled) (buf.slice(start, start + len), 0) else (buf, start)
+
+  /** give the buffer back to the pool, if it came from there. The reader
+   *  must not be used afterwards.
+   */
+  def release() {
+    if (pooled && !released) {
+      released = true
+      AbstractFileReader.giveBack(buf)
+    }
+  }
+}
+
+object AbstractFileReader {
+  /* buffers longer than this are not kept, a classfile rarely needs one */
+  private final val MaxPooledLength = 1 << 20
+  /* the number of buffers kept per thread, enough for nested classfile parses */
+  private final val MaxPooled = 4
+
+  private val pools = new ThreadLocal[List[Array[Byte]]] {
+    override def initialValue() = Nil
+  }
+
+  /** A reader of `file` whose buffer is borrowed from a pool of the current
+   *  thread, so that reading a classfile does not allocate a new array for it.
+   *  The buffer may be longer than the file. It must be given back with
+   *  `release` once the file is parsed, and nothing read from it directly may
+   *  be kept after that; `retainedBytes` copies what must be.
+   *
+   *  Only plain files and the entries of jars on disk are read into a pooled
+   *  buffer, for they report their size reliably. Other files are read into a
+   *  buffer of their own, as with `new AbstractFileReader(file)`.
+   */
+  def pooled(file: AbstractFile): AbstractFileReader = {
+    val poolable = file match {
+      case _: PlainFile => true
+      case _            => file.underlyingSource exists (_.isInstanceOf[FileZipArchive])
+    }
+    file.sizeOption match {
+      case Some(size) if poolable && size >= 0 && size <= MaxPooledLength =>
+        val buf = borrow(size)
+        try {
+          readFully(file, buf, size)
+          new AbstractFileReader(file, buf, true)
+        } catch {
+          case ex: Throwable =>
+            giveBack(buf)
+            throw ex
+        }
+      case _ =>
+        new AbstractFileReader(file)
+    }
+  }
+
+  private def borrow(size: Int): Array[Byte] = {
+    val pool = pools.get
+    pool find (_.length >= size) match {
+      case Some(buf) =>
+        pools.set(pool filterNot (_ eq buf))
+        buf
+      case None =>
+        // round up, so that a buffer serves the slightly larger files that follow
+        new Array[Byte](math.min(Integer.highestOneBit(math.max(size, 1024) - 1) << 1, MaxPooledLength))
+    }
+  }
+
+  private def giveBack(buf: Array[Byte]) {
+    val pool = pools.get
+    if (pool.length < MaxPooled) pools.set(buf :: pool)
+  }
+
+  private def readFully(file: AbstractFile, buf: Array[Byte], size: Int) {
+    val in = file.input
+    try {
+      var read = 0
+      while (read < size) {
+        val n = in.read(buf, read, size - read)
+        if (n == -1)
+          throw new IOException("read error")
+        read += n
+      }
+    } finally in.close()
+  }
 }
@@ -93,6 +93,7 @@ abstract class ClassfileParser {
 
   private object unpickler extends scala.reflect.internal.pickling.UnPickler {
     val symbolTable: ClassfileParser.this.symbolTable.type = ClassfileParser.this.symbolTable
+    override protected def lazySymbolAnnotations = symbolTable.settings.YlazyUnpickle.value
   }
 
   private def handleMissing(e: MissingRequirementError) = {
@@ -132,7 +133,7 @@ abstract class ClassfileParser {
     debuglog("[class] >> " + root.fullName)
 
     pushBusy(root) {
-      this.in           = new AbstractFileReader(file)
+      this.in           = AbstractFileReader.pooled(file)
       this.clazz        = if (root.isModule) root.companionClass else root
       // WARNING! do no use clazz.companionModule to find staticModule.
       // In a situation where root can be defined, but its companionClass not,
@@ -140,9 +141,12 @@ abstract class ClassfileParser {
       this.staticModule = if (root.isModule) root else root.companionModule
       this.isScala      = false
 
-      parseHeader()
-      this.pool = newConstantPool
-      parseClass()
+      try {
+        parseHeader()
+        this.pool = newConstantPool
+        parseClass()
+      }
+      finally in.release()
     }
   }
 
@@ -332,11 +336,16 @@ abstract class ClassfileParser {
       values(head) match {
         case xs: Array[Byte] => xs
         case _               =>
-          val arr: Array[Byte] = indices.toArray flatMap { index =>
+          val utf8Starts = indices map { index =>
             if (index <= 0 || ConstantPool.this.len <= index) errorBadIndex(index)
-            val start = firstExpecting(index, CONSTANT_UTF8)
-            val len   = (in getChar start).toInt
-            in.buf drop start + 2 take len
+            firstExpecting(index, CONSTANT_UTF8)
+          }
+          val arr = new Array[Byte](utf8Starts.foldLeft(0)((total, start) => total + (in getChar start).toInt))
+          var pos = 0
+          for (start <- utf8Starts) {
+            val len = (in getChar start).toInt
+            System.arraycopy(in.buf, start + 2, arr, pos, len)
+            pos += len
           }
           recordAtIndex(getSubArray(arr), head)
       }
@@ -812,7 +821,9 @@ abstract class ClassfileParser {
         case tpnme.ScalaSignatureATTR =>
           if (!isScalaAnnot) {
             debugwarn(s"symbol ${sym.fullName} has pickled signature in attribute")
-            unpickler.unpickle(in.buf, in.bp, clazz, staticModule, in.file.name)
+            // the unpickler's lazy types keep reading from the array after the classfile is parsed
+            val (bytes, offset) = in.retainedBytes(in.bp, attrLen)
+            unpickler.unpickle(bytes, offset, clazz, staticModule, in.file.name)
           }
           in.skip(attrLen)
         case tpnme.ScalaATTR =>
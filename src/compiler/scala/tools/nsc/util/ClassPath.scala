@@ -17,6 +17,7 @@ import scala.collection.convert.WrapAsScala.enumerationAsScalaIterator
 import java.net.MalformedURLException
 import java.util.regex.PatternSyntaxException
 import scala.reflect.runtime.ReflectionUtils
+import scala.reflect.io.FileZipArchive
 
 /** <p>
  *    This module provides star expansion of '-classpath' option arguments, behaves the same as
@@ -141,7 +142,13 @@ object ClassPath {
       assert(endsClass(name), name)
       name.substring(0, name.length - 6)
     }
-    def newClassPath(dir: AbstractFile) = new DirectoryClassPath(dir, this)
+    /** Where jars are indexed, if they are. */
+    def classPathIndex: Option[ClassPathIndex] = None
+
+    def newClassPath(dir: AbstractFile) = dir match {
+      case jar: FileZipArchive if classPathIndex.isDefined => classPathIndex.get.classPath(jar, this)
+      case _                                               => new DirectoryClassPath(dir, this)
+    }
   }
 
   object DefaultJavaContext extends JavaContext
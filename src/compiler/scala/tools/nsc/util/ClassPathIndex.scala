@@ -0,0 +1,296 @@
+/* NSC -- new Scala compiler
+ * Copyright 2006-2013 LAMP/EPFL
+ */
+
+package scala.tools.nsc
+package util
+
+import java.io.{ ByteArrayOutputStream, DataOutputStream, FileOutputStream, IOException, RandomAccessFile }
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.util.zip.ZipFile
+import scala.collection.{ immutable, mutable }
+import scala.reflect.io.FileZipArchive
+import io.{ AbstractFile, Directory, JFile }
+import ClassPath.ClassPathContext
+
+/** Persistent indices of the packages and classes in jars.
+ *
+ *  Listing a jar for a `DirectoryClassPath` reads its whole central directory,
+ *  which dominates startup on long classpaths. An index records the package
+ *  tree of one jar, with the name, size and time of the class files in every
+ *  package. It is kept in a file in `dir`, and stays valid while the path,
+ *  length and modification time of the jar match the ones it records.
+ *
+ *  Index files are memory-mapped, and class names are only decoded for the
+ *  packages the compiler lists. A jar is opened only when the first class
+ *  file from it is read.
+ *
+ *  An index file has the following format. Each string is written as its
+ *  length in a short, followed by its UTF-8 bytes.
+ *  {{{
+ *  int magic, int version
+ *  long length, long lastModified, string path            -- of the jar
+ *  int packages
+ *  per package, parents before children:
+ *    string path ("" for the root, "a/b/" otherwise), int parent, int classes, int offset
+ *  per class, grouped by package, each group at its package's offset from here:
+ *    string name, int size, long time
+ *  }}}
+ */
+class ClassPathIndex(val dir: Directory) {
+  import ClassPathIndex._
+
+  /** A classpath for `jar` backed by its index. The index is created or
+   *  refreshed first if needed. If the jar cannot be indexed, it is listed
+   *  directly.
+   */
+  def classPath(jar: FileZipArchive, context: ClassPathContext[AbstractFile]): ClassPath[AbstractFile] =
+    try new IndexedClassPath(open(jar), 0, context)
+    catch { case _: IOException => new DirectoryClassPath(jar, context) }
+
+  /** The index of `jar`, written to `dir` if it is missing or out of date. */
+  def open(jar: FileZipArchive): JarIndex = {
+    val file = indexFile(jar.file)
+    val existing =
+      try if (file.isFile) read(map(file), jar) else null
+      catch { case _: IOException | _: RuntimeException => null } // an unreadable index is rebuilt
+    if (existing ne null) existing
+    else {
+      val bytes = build(jar.file)
+      store(bytes, file)
+      read(ByteBuffer.wrap(bytes), jar)
+    }
+  }
+
+  private def indexFile(jar: JFile) =
+    new JFile(dir.jfile, jar.getName + "-" + Integer.toHexString(jar.getAbsolutePath.hashCode) + ".idx")
+
+  private def map(file: JFile): ByteBuffer = {
+    val raf = new RandomAccessFile(file, "r")
+    try raf.getChannel.map(FileChannel.MapMode.READ_ONLY, 0, raf.length)
+    finally raf.close()
+  }
+
+  /* Returns `null` if the index does not describe the current version of `jar`. */
+  private def read(buf: ByteBuffer, jar: FileZipArchive): JarIndex = {
+    val in = new Reader(buf, 0)
+    val file = jar.file
+    if (in.readInt() == Magic && in.readInt() == Version && in.readLong() == file.length &&
+        in.readLong() == file.lastModified && in.readString() == file.getAbsolutePath)
+      new JarIndex(jar, buf, in.pos)
+    else null
+  }
+
+  /* Writes the index atomically, so that concurrent compilers only ever see complete ones.
+   * The index is a cache: failing to write it only costs the next run the time to rebuild it.
+   */
+  private def store(bytes: Array[Byte], file: JFile) {
+    try {
+      if (dir.isDirectory || dir.jfile.mkdirs()) {
+        val tmp = java.io.File.createTempFile(file.getName, ".tmp", dir.jfile)
+        try {
+          val out = new FileOutputStream(tmp)
+          try out.write(bytes) finally out.close()
+          if (!tmp.renameTo(file)) {
+            file.delete()
+            tmp.renameTo(file)
+          }
+        } finally tmp.delete()
+      }
+    } catch { case _: IOException => }
+  }
+
+  override def toString() = "classpath index in " + dir
+}
+
+object ClassPathIndex {
+  private final val Magic   = 0x53435049 // "SCPI"
+  private final val Version = 1
+
+  private def endsClass(s: String) = s.length > 6 && s.substring(s.length - 6) == ".class"
+
+  private final class PackageEntry(val path: String, val parent: Int) {
+    val classes = new mutable.ArrayBuffer[(String, Int, Long)]
+  }
+
+  /* Reads the central directory of `jar` into an index. */
+  private def build(jar: JFile): Array[Byte] = {
+    val packages = mutable.ArrayBuffer(new PackageEntry("", -1))
+    val indices  = mutable.HashMap[String, Int]("" -> 0)
+
+    def ensurePackage(path: String): Int = indices get path match {
+      case Some(i) => i
+      case None    =>
+        val parent = ensurePackage(path.substring(0, path.lastIndexOf('/', path.length - 2) + 1))
+        packages += new PackageEntry(path, parent)
+        indices(path) = packages.length - 1
+        packages.length - 1
+    }
+
+    val zipFile = new ZipFile(jar)
+    try {
+      val enum = zipFile.entries()
+      while (enum.hasMoreElements) {
+        val zipEntry = enum.nextElement
+        val name     = zipEntry.getName
+        if (zipEntry.isDirectory) ensurePackage(name)
+        else {
+          val slash = name.lastIndexOf('/')
+          val pkg   = ensurePackage(name.substring(0, slash + 1))
+          if (endsClass(name))
+            packages(pkg).classes += ((name.substring(slash + 1), zipEntry.getSize.toInt, zipEntry.getTime))
+        }
+      }
+    } finally zipFile.close()
+
+    val classBytes = new ByteArrayOutputStream
+    val classOut   = new DataOutputStream(classBytes)
+    val offsets    = packages map { p =>
+      val offset = classOut.size
+      for ((name, size, time) <- p.classes) {
+        writeString(classOut, name)
+        classOut.writeInt(size)
+        classOut.writeLong(time)
+      }
+      offset
+    }
+
+    val bytes = new ByteArrayOutputStream(classOut.size + 64 * packages.length)
+    val out   = new DataOutputStream(bytes)
+    out.writeInt(Magic)
+    out.writeInt(Version)
+    out.writeLong(jar.length)
+    out.writeLong(jar.lastModified)
+    writeString(out, jar.getAbsolutePath)
+    out.writeInt(packages.length)
+    for ((p, offset) <- packages zip offsets) {
+      writeString(out, p.path)
+      out.writeInt(p.parent)
+      out.writeInt(p.classes.length)
+      out.writeInt(offset)
+    }
+    classBytes writeTo out
+    out.flush()
+    bytes.toByteArray
+  }
+
+  private def writeString(out: DataOutputStream, s: String) {
+    val bytes = s getBytes "UTF-8"
+    out.writeShort(bytes.length)
+    out.write(bytes)
+  }
+
+  /* Reads with absolute positions, so that readers do not interfere. */
+  private final class Reader(buf: ByteBuffer, var pos: Int) {
+    def readInt(): Int = { val x = buf.getInt(pos); pos += 4; x }
+    def readLong(): Long = { val x = buf.getLong(pos); pos += 8; x }
+    def readString(): String = {
+      val length = buf.getShort(pos) & 0xffff
+      val bytes  = new Array[Byte](length)
+      var i = 0
+      while (i < length) {
+        bytes(i) = buf.get(pos + 2 + i)
+        i += 1
+      }
+      pos += 2 + length
+      new String(bytes, "UTF-8")
+    }
+  }
+
+  /** The index of one jar, with its package table decoded. */
+  final class JarIndex private[util] (val jar: FileZipArchive, buf: ByteBuffer, tableStart: Int) {
+    private[this] val count   = buf.getInt(tableStart)
+    val paths                 = new Array[String](count)
+    private[this] val classes = new Array[Int](count)
+    private[this] val offsets = new Array[Int](count)
+    private[this] val children: Array[mutable.ArrayBuffer[Int]] = Array.fill(count)(new mutable.ArrayBuffer[Int])
+    private[this] val classesStart = {
+      val in = new Reader(buf, tableStart + 4)
+      var i = 0
+      while (i < count) {
+        paths(i) = in.readString()
+        val parent = in.readInt()
+        classes(i) = in.readInt()
+        offsets(i) = in.readInt()
+        if (parent >= 0) children(parent) += i
+        i += 1
+      }
+      in.pos
+    }
+    validate()
+
+    /* Class records are only decoded when a package is listed, so check here that they
+     * lie where the table says and fill the index exactly: a corrupt index must fail
+     * while it is opened, where it is rebuilt.
+     */
+    private def validate() {
+      var pos = classesStart
+      var i = 0
+      while (i < count) {
+        if (classes(i) < 0 || offsets(i) != pos - classesStart)
+          throw new IOException("corrupt classpath index for " + jar.path)
+        var j = 0
+        while (j < classes(i)) {
+          pos += 2 + (buf.getShort(pos) & 0xffff) + 12 // name, size, time
+          j += 1
+        }
+        i += 1
+      }
+      if (pos != buf.limit)
+        throw new IOException("corrupt classpath index for " + jar.path)
+    }
+
+    def subpackages(pkg: Int): Seq[Int] = children(pkg)
+
+    /** The simple name of a package, the name of the jar for the root. */
+    def name(pkg: Int): String =
+      if (pkg == 0) jar.name
+      else {
+        val path = paths(pkg)
+        path.substring(path.lastIndexOf('/', path.length - 2) + 1, path.length - 1)
+      }
+
+    /** The class files of a package, which open the jar only once they are read. */
+    def classFiles(pkg: Int): IndexedSeq[AbstractFile] = {
+      val in    = new Reader(buf, classesStart + offsets(pkg))
+      val files = new mutable.ArrayBuffer[AbstractFile](classes(pkg))
+      var i = 0
+      while (i < classes(pkg)) {
+        val name = in.readString()
+        val size = in.readInt()
+        val time = in.readLong()
+        files += jar.lazyEntry(paths(pkg) + name, size, time)
+        i += 1
+      }
+      files
+    }
+  }
+}
+
+/**
+ * A jar, or a package in it, listed from the jar's `ClassPathIndex`.
+ */
+class IndexedClassPath(index: ClassPathIndex.JarIndex, pkg: Int, val context: ClassPathContext[AbstractFile]) extends ClassPath[AbstractFile] {
+  def name = index.name(pkg)
+  override def origin = Some(index.jar.path)
+  def asURLs = if (pkg == 0) List(index.jar.toURL) else Nil
+  def asClasspathString = if (pkg == 0) index.jar.path else index.paths(pkg)
+  val sourcepaths: IndexedSeq[AbstractFile] = IndexedSeq()
+
+  lazy val classes: IndexedSeq[AnyClassRep] = {
+    val classBuf = immutable.Vector.newBuilder[ClassRep]
+    for (f <- index.classFiles(pkg) if validClassFile(f.name))
+      classBuf += ClassRep(Some(f), None)
+    classBuf.result()
+  }
+
+  lazy val packages: IndexedSeq[ClassPath[AbstractFile]] = {
+    val packageBuf = immutable.Vector.newBuilder[IndexedClassPath]
+    for (p <- index.subpackages(pkg) if validPackage(index.name(p)))
+      packageBuf += new IndexedClassPath(index, p, context)
+    packageBuf.result()
+  }
+
+  override def toString() = "indexed classpath: " + index.jar.path + (if (pkg == 0) "" else "(" + index.paths(pkg) + ")")
+}
@@ -9,7 +9,7 @@ package util
 
 import scala.tools.reflect.WrappedProperties.AccessControl
 import scala.tools.nsc.{ Settings }
-import scala.tools.nsc.util.{ ClassPath, JavaClassPath }
+import scala.tools.nsc.util.{ ClassPath, ClassPathIndex, JavaClassPath }
 import scala.reflect.io.{ File, Directory, Path, AbstractFile }
 import scala.reflect.runtime.ReflectionUtils
 import ClassPath.{ JavaContext, DefaultJavaContext, join, split }
@@ -170,6 +170,13 @@ object PathResolver {
       !ReflectionUtils.scalacShouldntLoadClassfile(name)
   }
 
+  // used in PathResolver constructor, with -Yclasspath-index
+  private class IndexedJavaContext(noImplClass: Boolean, index: ClassPathIndex) extends JavaContext {
+    override def isValidName(name: String): Boolean =
+      !noImplClass || !ReflectionUtils.scalacShouldntLoadClassfile(name)
+    override val classPathIndex = Some(index)
+  }
+
   // called from scalap
   def fromPathString(path: String, context: JavaContext = DefaultJavaContext): JavaClassPath = {
     val s = new Settings()
@@ -201,7 +208,9 @@ class PathResolver(settings: Settings, context: JavaContext) {
   import PathResolver.{ Defaults, Environment, AsLines, MkLines, ppcp }
 
   def this(settings: Settings) = this(settings,
-      if (settings.YnoLoadImplClass) PathResolver.NoImplClassJavaContext
+      if (settings.YclasspathIndex.value != "")
+        new PathResolver.IndexedJavaContext(settings.YnoLoadImplClass.value, new ClassPathIndex(Directory(settings.YclasspathIndex.value)))
+      else if (settings.YnoLoadImplClass) PathResolver.NoImplClassJavaContext
       else DefaultJavaContext)
 
   private def cmdLineOrElse(name: String, alt: String) = {
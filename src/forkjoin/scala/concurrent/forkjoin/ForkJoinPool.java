@@ -6,6 +6,7 @@
 
 package scala.concurrent.forkjoin;
 
+import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -18,6 +19,9 @@ import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.RunnableFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 /**
  * @since 1.8
@@ -1016,6 +1020,8 @@ public class ForkJoinPool extends AbstractExecutorService {
         volatile Thread parker;    // == owner during call to park; else null
         volatile ForkJoinTask<?> currentJoin;  // task being joined in awaitJoin
         ForkJoinTask<?> currentSteal; // current non-local task being executed
+        long totalSteals;          // steals, never reset; if INSTRUMENTED
+        final long[] taskTimes;    // task time histogram; if INSTRUMENTED
 
         volatile Object pad10, pad11, pad12, pad13, pad14, pad15, pad16, pad17;
         volatile Object pad18, pad19, pad1a, pad1b, pad1c, pad1d;
@@ -1026,6 +1032,8 @@ public class ForkJoinPool extends AbstractExecutorService {
             this.owner = owner;
             this.mode = mode;
             this.seed = seed;
+            this.taskTimes = (INSTRUMENTED && owner != null) ?
+                new long[ForkJoinPoolStatistics.TASK_TIME_BUCKETS] : null;
             // Place indices in the center of array (that is not yet allocated)
             base = top = INITIAL_QUEUE_CAPACITY >>> 1;
         }
@@ -1336,9 +1344,15 @@ public class ForkJoinPool extends AbstractExecutorService {
          */
         final void runTask(ForkJoinTask<?> t) {
             if (t != null) {
+                long start = INSTRUMENTED ? System.nanoTime() : 0L;
                 (currentSteal = t).doExec();
                 currentSteal = null;
                 ++nsteals;
+                if (INSTRUMENTED) {
+                    ++taskTimes[ForkJoinPoolStatistics.taskTimeBucket
+                                (System.nanoTime() - start)];
+                    ++totalSteals;
+                }
                 if (base - top < 0) {       // process remaining local tasks
                     if (mode == 0)
                         popAndExecAll();
@@ -1444,6 +1458,22 @@ public class ForkJoinPool extends AbstractExecutorService {
         return ++poolNumberSequence;
     }
 
+    /**
+     * Whether pools record the statistics reported by getStatistics
+     * which are not needed for their operation. Being a static final,
+     * the checks guarding the recording are removed by the JIT when
+     * it is false.
+     */
+    static final boolean INSTRUMENTED = instrumentationEnabled();
+
+    private static boolean instrumentationEnabled() {
+        try {
+            return Boolean.getBoolean("scala.concurrent.forkjoin.instrument");
+        } catch (SecurityException ignore) {
+            return false;
+        }
+    }
+
     // static constants
 
     /**
@@ -1591,6 +1621,7 @@ public class ForkJoinPool extends AbstractExecutorService {
     final ForkJoinWorkerThreadFactory factory;
     final Thread.UncaughtExceptionHandler ueh; // per-worker UEH
     final String workerNamePrefix;             // to create worker name string
+    final Instrumentation instrumentation;     // non-null if INSTRUMENTED
 
     volatile Object pad10, pad11, pad12, pad13, pad14, pad15, pad16, pad17;
     volatile Object pad18, pad19, pad1a, pad1b;
@@ -1681,6 +1712,57 @@ public class ForkJoinPool extends AbstractExecutorService {
         }
     }
 
+    //  Instrumentation
+
+    /**
+     * Counts kept by an instrumented pool, other than those kept by
+     * each WorkQueue.
+     */
+    static final class Instrumentation {
+        final AtomicLong parks = new AtomicLong();
+        final AtomicLong unparks = new AtomicLong();
+        final AtomicLong compensations = new AtomicLong();
+        final AtomicLong compensationThreads = new AtomicLong();
+        // counts of workers that have terminated; guarded by this
+        final long[] retiredTaskTimes =
+            new long[ForkJoinPoolStatistics.TASK_TIME_BUCKETS];
+
+        /**
+         * Adds the task times of the given terminating worker to the
+         * pool's totals.
+         */
+        synchronized void retire(WorkQueue w) {
+            long[] tt;
+            if (w != null && (tt = w.taskTimes) != null) {
+                for (int i = 0; i < tt.length; ++i)
+                    retiredTaskTimes[i] += tt[i];
+            }
+        }
+
+        synchronized long[] taskTimes() {
+            return retiredTaskTimes.clone();
+        }
+    }
+
+    /**
+     * Parks the current worker, for at most the given time if
+     * positive.
+     */
+    private void parkWorker(long time) {
+        if (INSTRUMENTED)
+            instrumentation.parks.incrementAndGet();
+        U.park(false, time);
+    }
+
+    /**
+     * Unparks the given worker.
+     */
+    private void unparkWorker(Thread p) {
+        if (INSTRUMENTED)
+            instrumentation.unparks.incrementAndGet();
+        U.unpark(p);
+    }
+
     //  Registering and deregistering workers
 
     /**
@@ -1749,6 +1831,8 @@ public class ForkJoinPool extends AbstractExecutorService {
             long ns = w.nsteals, sc;     // collect steal count
             do {} while (!U.compareAndSwapLong(this, STEALCOUNT,
                                                sc = stealCount, sc + ns));
+            if (INSTRUMENTED)
+                instrumentation.retire(w);
             if (((ps = plock) & PL_LOCK) != 0 ||
                 !U.compareAndSwapInt(this, PLOCK, ps, ps += PL_LOCK))
                 ps = acquirePlock();
@@ -1786,7 +1870,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                     if (U.compareAndSwapLong(this, CTL, c, nc)) {
                         v.eventCount = (e + E_SEQ) & E_MASK;
                         if ((p = v.parker) != null)
-                            U.unpark(p);
+                            unparkWorker(p);
                         break;
                     }
                 }
@@ -1952,7 +2036,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                         w.hint = hint;
                         w.eventCount = (e + E_SEQ) & E_MASK;
                         if ((p = w.parker) != null)
-                            U.unpark(p);
+                            unparkWorker(p);
                         break;
                     }
                     if (q.top - q.base <= 0)
@@ -2072,7 +2156,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                         U.putObject(wt, PARKBLOCKER, this);
                         w.parker = wt;           // emulate LockSupport.park
                         if (w.eventCount < 0)    // recheck
-                            U.park(false, 0L);   // block
+                            parkWorker(0L);      // block
                         w.parker = null;
                         U.putObject(wt, PARKBLOCKER, null);
                     }
@@ -2097,7 +2181,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                         v.hint = h;
                         v.eventCount = (e + E_SEQ) & E_MASK;
                         if ((p = v.parker) != null)
-                            U.unpark(p);
+                            unparkWorker(p);
                         if (--n <= 0)
                             break;
                     }
@@ -2132,7 +2216,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                 U.putObject(wt, PARKBLOCKER, this);
                 w.parker = wt;
                 if (ctl == currentCtl)
-                    U.park(false, parkTime);
+                    parkWorker(parkTime);
                 w.parker = null;
                 U.putObject(wt, PARKBLOCKER, null);
                 if (ctl != currentCtl)
@@ -2180,7 +2264,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                     if (U.compareAndSwapLong(this, CTL, c, nc)) {
                         w.eventCount = (e + E_SEQ) & E_MASK;
                         if ((p = w.parker) != null)
-                            U.unpark(p);
+                            unparkWorker(p);
                         if (--n <= 0)
                             break;
                     }
@@ -2321,7 +2405,9 @@ public class ForkJoinPool extends AbstractExecutorService {
                 if (U.compareAndSwapLong(this, CTL, c, nc)) {
                     w.eventCount = (e + E_SEQ) & E_MASK;
                     if ((p = w.parker) != null)
-                        U.unpark(p);
+                        unparkWorker(p);
+                    if (INSTRUMENTED)
+                        instrumentation.compensations.incrementAndGet();
                     return true;   // replace with idle worker
                 }
             }
@@ -2341,6 +2427,8 @@ public class ForkJoinPool extends AbstractExecutorService {
                         if ((fac = factory) != null &&
                             (wt = fac.newThread(this)) != null) {
                             wt.start();
+                            if (INSTRUMENTED)
+                                instrumentation.compensationThreads.incrementAndGet();
                             return true;
                         }
                     } catch (Throwable rex) {
@@ -2645,7 +2733,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                                             } catch (Throwable ignore) {
                                             }
                                         }
-                                        U.unpark(wt);
+                                        unparkWorker(wt);
                                     }
                                 }
                             }
@@ -2663,7 +2751,7 @@ public class ForkJoinPool extends AbstractExecutorService {
                                 w.eventCount = (e + E_SEQ) & E_MASK;
                                 w.qlock = -1;
                                 if ((p = w.parker) != null)
-                                    U.unpark(p);
+                                    unparkWorker(p);
                             }
                         }
                     }
@@ -2882,6 +2970,7 @@ public class ForkJoinPool extends AbstractExecutorService {
         sb.append(Integer.toString(pn));
         sb.append("-worker-");
         this.workerNamePrefix = sb.toString();
+        this.instrumentation = INSTRUMENTED ? new Instrumentation() : null;
     }
 
     /**
@@ -2896,6 +2985,7 @@ public class ForkJoinPool extends AbstractExecutorService {
         this.factory = factory;
         this.ueh = handler;
         this.workerNamePrefix = "ForkJoinPool.commonPool-worker-";
+        this.instrumentation = INSTRUMENTED ? new Instrumentation() : null;
     }
 
     /**
@@ -3295,6 +3385,129 @@ public class ForkJoinPool extends AbstractExecutorService {
         return count;
     }
 
+    /**
+     * Returns a snapshot of the state of this pool, including the
+     * depth of each of its work queues. If this pool is
+     * instrumented, which is the case if the system property {@code
+     * scala.concurrent.forkjoin.instrument} was {@code true} when
+     * this class was initialized, the snapshot also includes counts
+     * of parks, unparks and compensations, per-queue steal counts and
+     * a histogram of task execution times. These are not recorded
+     * otherwise, so that pools which are not instrumented pay
+     * nothing for them. This method may be useful for monitoring
+     * whether a pool is saturated or starved for tasks.
+     *
+     * @return a snapshot of the state of this pool
+     */
+    public ForkJoinPoolStatistics getStatistics() {
+        long st = stealCount;
+        long c = ctl;
+        long qt = 0L, qs = 0L; int rc = 0, n = 0;
+        long[] tt = INSTRUMENTED ? instrumentation.taskTimes() :
+            new long[ForkJoinPoolStatistics.TASK_TIME_BUCKETS];
+        WorkQueue[] ws = workQueues; WorkQueue w;
+        int len = (ws == null) ? 0 : ws.length;
+        int[] indices = new int[len], depths = new int[len];
+        long[] steals = new long[len];
+        for (int i = 0; i < len; ++i) {
+            if ((w = ws[i]) != null) {
+                int size = w.queueSize();
+                if ((i & 1) == 0)
+                    qs += size;
+                else {
+                    qt += size;
+                    st += w.nsteals;
+                    if (w.isApparentlyUnblocked())
+                        ++rc;
+                    long[] wt;
+                    if (INSTRUMENTED && (wt = w.taskTimes) != null) {
+                        steals[n] = w.totalSteals;
+                        for (int j = 0; j < tt.length; ++j)
+                            tt[j] += wt[j];
+                    }
+                }
+                indices[n] = i;
+                depths[n] = size;
+                ++n;
+            }
+        }
+        int pc = (config & SMASK);
+        int tc = pc + (short)(c >>> TC_SHIFT);
+        int ac = pc + (int)(c >> AC_SHIFT);
+        if (ac < 0) // ignore transient negative
+            ac = 0;
+        Instrumentation in = instrumentation;
+        return new ForkJoinPoolStatistics
+            (INSTRUMENTED, pc, tc, ac, rc, st, qt, qs,
+             Arrays.copyOf(indices, n), Arrays.copyOf(depths, n),
+             Arrays.copyOf(steals, n),
+             INSTRUMENTED ? in.parks.get() : 0L,
+             INSTRUMENTED ? in.unparks.get() : 0L,
+             INSTRUMENTED ? in.compensations.get() : 0L,
+             INSTRUMENTED ? in.compensationThreads.get() : 0L,
+             tt);
+    }
+
+    /**
+     * Returns {@code true} if pools record the park, unpark,
+     * compensation, steal and task time statistics, which is the
+     * case when the system property {@code
+     * scala.concurrent.forkjoin.instrument} was {@code true} when this
+     * class was initialized.
+     *
+     * @return {@code true} if pools are instrumented
+     */
+    public static boolean isInstrumented() {
+        return INSTRUMENTED;
+    }
+
+    /**
+     * Registers a {@link ForkJoinPoolMXBean} for this pool with the
+     * platform MBean server, under the name {@code
+     * scala.concurrent.forkjoin:type=ForkJoinPool,name=}<i>pool
+     * name</i>, where the pool name is the prefix of the names of the
+     * pool's worker threads, such as {@code ForkJoinPool-1}. The
+     * caller is responsible for unregistering it, as the registration
+     * keeps this pool reachable.
+     *
+     * @return the name under which the MXBean was registered
+     * @throws JMException if the MXBean could not be registered
+     */
+    public ObjectName registerMXBean() throws JMException {
+        String prefix = workerNamePrefix;
+        String name = prefix.substring(0, prefix.length() - "-worker-".length());
+        ObjectName on = new ObjectName
+            ("scala.concurrent.forkjoin:type=ForkJoinPool,name=" + name);
+        ManagementFactory.getPlatformMBeanServer().registerMBean
+            (new Management(this), on);
+        return on;
+    }
+
+    /**
+     * The MXBean registered by registerMXBean, reading a fresh
+     * snapshot for each attribute.
+     */
+    static final class Management implements ForkJoinPoolMXBean {
+        final ForkJoinPool pool;
+        Management(ForkJoinPool pool) { this.pool = pool; }
+        public boolean isInstrumented() { return INSTRUMENTED; }
+        public int getParallelism() { return pool.getParallelism(); }
+        public int getPoolSize() { return pool.getPoolSize(); }
+        public int getActiveThreadCount() { return pool.getActiveThreadCount(); }
+        public int getRunningThreadCount() { return pool.getRunningThreadCount(); }
+        public long getStealCount() { return pool.getStealCount(); }
+        public long getQueuedTaskCount() { return pool.getQueuedTaskCount(); }
+        public long getQueuedSubmissionCount() { return pool.getQueuedSubmissionCount(); }
+        public int[] getWorkQueueIndices() { return pool.getStatistics().getWorkQueueIndices(); }
+        public int[] getWorkQueueDepths() { return pool.getStatistics().getWorkQueueDepths(); }
+        public long[] getWorkQueueStealCounts() { return pool.getStatistics().getWorkQueueStealCounts(); }
+        public long getParkCount() { return pool.getStatistics().getParkCount(); }
+        public long getUnparkCount() { return pool.getStatistics().getUnparkCount(); }
+        public long getCompensationCount() { return pool.getStatistics().getCompensationCount(); }
+        public long getCompensationThreadCount() { return pool.getStatistics().getCompensationThreadCount(); }
+        public long[] getTaskTimeHistogram() { return pool.getStatistics().getTaskTimeHistogram(); }
+    }
+
     /**
      * Returns a string identifying this pool, as well as its state,
      * including indications of run state, parallelism level, and
@@ -0,0 +1,33 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package scala.concurrent.forkjoin;
+
+/**
+ * The management interface of a {@link ForkJoinPool}, registered
+ * with the platform MBean server by {@link
+ * ForkJoinPool#registerMXBean}. Each attribute is read from the
+ * current state of the pool; see {@link ForkJoinPoolStatistics} for
+ * the meaning of each attribute.
+ */
+public interface ForkJoinPoolMXBean {
+    boolean isInstrumented();
+    int getParallelism();
+    int getPoolSize();
+    int getActiveThreadCount();
+    int getRunningThreadCount();
+    long getStealCount();
+    long getQueuedTaskCount();
+    long getQueuedSubmissionCount();
+    int[] getWorkQueueIndices();
+    int[] getWorkQueueDepths();
+    long[] getWorkQueueStealCounts();
+    long getParkCount();
+    long getUnparkCount();
+    long getCompensationCount();
+    long getCompensationThreadCount();
+    long[] getTaskTimeHistogram();
+}
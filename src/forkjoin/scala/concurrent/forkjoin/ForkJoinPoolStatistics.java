@@ -0,0 +1,243 @@
+/*
+ * Written by Doug Lea with assistance from members of JCP JSR-166
+ * Expert Group and released to the public domain, as explained at
+ * http://creativecommons.org/publicdomain/zero/1.0/
+ */
+
+package scala.concurrent.forkjoin;
+
+/**
+ * A snapshot of the state of a {@link ForkJoinPool}, as returned by
+ * {@link ForkJoinPool#getStatistics}. Like the other monitoring
+ * methods of the pool, the values are only estimates, obtained
+ * without stopping the pool.
+ *
+ * <p>The counts of parks, unparks and compensations, the per-queue
+ * steal counts and the task execution time histogram are only
+ * recorded if the pool is {@link #isInstrumented instrumented}, which
+ * is the case when the system property {@code
+ * scala.concurrent.forkjoin.instrument} is {@code true} at the time
+ * this class is initialized. Otherwise they are all zero.
+ */
+public final class ForkJoinPoolStatistics implements ForkJoinPoolMXBean {
+    /**
+     * The number of buckets in the {@link #getTaskTimeHistogram task
+     * execution time histogram}.
+     */
+    public static final int TASK_TIME_BUCKETS = 32;
+
+    private final boolean instrumented;
+    private final int parallelism;
+    private final int poolSize;
+    private final int activeThreadCount;
+    private final int runningThreadCount;
+    private final long stealCount;
+    private final long queuedTaskCount;
+    private final long queuedSubmissionCount;
+    private final int[] workQueueIndices;
+    private final int[] workQueueDepths;
+    private final long[] workQueueStealCounts;
+    private final long parkCount;
+    private final long unparkCount;
+    private final long compensationCount;
+    private final long compensationThreadCount;
+    private final long[] taskTimeHistogram;
+
+    ForkJoinPoolStatistics(boolean instrumented, int parallelism,
+                           int poolSize, int activeThreadCount,
+                           int runningThreadCount, long stealCount,
+                           long queuedTaskCount, long queuedSubmissionCount,
+                           int[] workQueueIndices, int[] workQueueDepths,
+                           long[] workQueueStealCounts, long parkCount,
+                           long unparkCount, long compensationCount,
+                           long compensationThreadCount,
+                           long[] taskTimeHistogram) {
+        this.instrumented = instrumented;
+        this.parallelism = parallelism;
+        this.poolSize = poolSize;
+        this.activeThreadCount = activeThreadCount;
+        this.runningThreadCount = runningThreadCount;
+        this.stealCount = stealCount;
+        this.queuedTaskCount = queuedTaskCount;
+        this.queuedSubmissionCount = queuedSubmissionCount;
+        this.workQueueIndices = workQueueIndices;
+        this.workQueueDepths = workQueueDepths;
+        this.workQueueStealCounts = workQueueStealCounts;
+        this.parkCount = parkCount;
+        this.unparkCount = unparkCount;
+        this.compensationCount = compensationCount;
+        this.compensationThreadCount = compensationThreadCount;
+        this.taskTimeHistogram = taskTimeHistogram;
+    }
+
+    /**
+     * Returns the index of the bucket of the task execution time
+     * histogram that counts a task which ran for the given time.
+     *
+     * @param nanos the execution time, in nanoseconds
+     * @return the bucket index
+     */
+    static int taskTimeBucket(long nanos) {
+        int i = 64 - Long.numberOfLeadingZeros(nanos >>> 10);
+        return (i < TASK_TIME_BUCKETS) ? i : TASK_TIME_BUCKETS - 1;
+    }
+
+    /**
+     * Returns {@code true} if the pool records the statistics which
+     * are only available when instrumented.
+     *
+     * @return {@code true} if the pool is instrumented
+     */
+    public boolean isInstrumented() { return instrumented; }
+
+    /**
+     * Returns the targeted parallelism level of the pool.
+     *
+     * @return the targeted parallelism level of the pool
+     */
+    public int getParallelism() { return parallelism; }
+
+    /**
+     * Returns the number of worker threads that have started but not
+     * yet terminated.
+     *
+     * @return the number of worker threads
+     */
+    public int getPoolSize() { return poolSize; }
+
+    /**
+     * Returns the number of threads that are stealing or executing
+     * tasks.
+     *
+     * @return the number of active threads
+     */
+    public int getActiveThreadCount() { return activeThreadCount; }
+
+    /**
+     * Returns the number of worker threads that are not blocked
+     * waiting to join tasks or for other managed synchronization.
+     *
+     * @return the number of running worker threads
+     */
+    public int getRunningThreadCount() { return runningThreadCount; }
+
+    /**
+     * Returns the total number of tasks stolen from one thread's work
+     * queue by another.
+     *
+     * @return the number of steals
+     */
+    public long getStealCount() { return stealCount; }
+
+    /**
+     * Returns the number of tasks held in the queues of worker
+     * threads.
+     *
+     * @return the number of queued tasks
+     */
+    public long getQueuedTaskCount() { return queuedTaskCount; }
+
+    /**
+     * Returns the number of tasks submitted to the pool that have not
+     * yet begun executing.
+     *
+     * @return the number of queued submissions
+     */
+    public long getQueuedSubmissionCount() { return queuedSubmissionCount; }
+
+    /**
+     * Returns the indices of the work queues of the pool. Odd indices
+     * belong to the queues of worker threads, even indices to the
+     * queues of external submissions.
+     *
+     * @return the work queue indices
+     */
+    public int[] getWorkQueueIndices() { return workQueueIndices.clone(); }
+
+    /**
+     * Returns the number of tasks held in each work queue, in the
+     * order of {@link #getWorkQueueIndices}.
+     *
+     * @return the work queue depths
+     */
+    public int[] getWorkQueueDepths() { return workQueueDepths.clone(); }
+
+    /**
+     * Returns the number of tasks each work queue's worker has taken
+     * from the pool since it started, in the order of {@link
+     * #getWorkQueueIndices}. Only recorded if instrumented.
+     *
+     * @return the work queue steal counts
+     */
+    public long[] getWorkQueueStealCounts() { return workQueueStealCounts.clone(); }
+
+    /**
+     * Returns the number of times a worker thread parked waiting for
+     * work. Only recorded if instrumented.
+     *
+     * @return the number of parks
+     */
+    public long getParkCount() { return parkCount; }
+
+    /**
+     * Returns the number of times a parked worker thread was woken
+     * up. Only recorded if instrumented.
+     *
+     * @return the number of unparks
+     */
+    public long getUnparkCount() { return unparkCount; }
+
+    /**
+     * Returns the number of times an idle worker was activated to
+     * compensate for a thread blocked in a join or in {@link
+     * ForkJoinPool#managedBlock}. Only recorded if instrumented.
+     *
+     * @return the number of compensations by idle workers
+     */
+    public long getCompensationCount() { return compensationCount; }
+
+    /**
+     * Returns the number of worker threads created to compensate for
+     * a thread blocked in a join or in {@link
+     * ForkJoinPool#managedBlock}. Only recorded if instrumented.
+     *
+     * @return the number of compensation threads created
+     */
+    public long getCompensationThreadCount() { return compensationThreadCount; }
+
+    /**
+     * Returns the histogram of the execution times of the tasks run by
+     * worker threads, not counting local tasks forked by them. Bucket
+     * 0 counts tasks that ran for less than 1024 nanoseconds; bucket
+     * {@code i} counts tasks that ran for at least {@code 2^(i+9)}
+     * and less than {@code 2^(i+10)} nanoseconds, except for the last
+     * bucket, which counts all longer tasks. Only recorded if
+     * instrumented.
+     *
+     * @return the task execution time histogram
+     */
+    public long[] getTaskTimeHistogram() { return taskTimeHistogram.clone(); }
+
+    /**
+     * Returns a string describing this snapshot.
+     *
+     * @return a string describing this snapshot
+     */
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ForkJoinPoolStatistics[");
+        sb.append("parallelism = ").append(parallelism);
+        sb.append(", size = ").append(poolSize);
+        sb.append(", active = ").append(activeThreadCount);
+        sb.append(", running = ").append(runningThreadCount);
+        sb.append(", steals = ").append(stealCount);
+        sb.append(", tasks = ").append(queuedTaskCount);
+        sb.append(", submissions = ").append(queuedSubmissionCount);
+        if (instrumented) {
+            sb.append(", parks = ").append(parkCount);
+            sb.append(", unparks = ").append(unparkCount);
+            sb.append(", compensations = ").append(compensationCount);
+            sb.append(", compensation threads = ").append(compensationThreadCount);
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -81,6 +81,12 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
 
   private def equal(k1: K, k2: K, ct: TrieMap[K, V]) = ct.equality.equiv(k1, k2)
 
+  /** Reports a committed change of `delta` bindings to the size counter of `ct`, if it has one. */
+  private def counted(committed: Boolean, delta: Int, ct: TrieMap[K, V]): Boolean = {
+    if (committed && delta != 0) ct.countSize(delta)
+    committed
+  }
+
   private def inode(cn: MainNode[K, V]) = {
     val nin = new INode[K, V](gen)
     nin.WRITE(cn)
@@ -122,26 +128,27 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
               else {
                 val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
                 val nn = rn.updatedAt(pos, inode(CNode.dual(sn, sn.hc, new SNode(k, v, hc), hc, lev + 5, gen)), gen)
-                GCAS(cn, nn, ct)
+                counted(GCAS(cn, nn, ct), 1, ct)
               }
           }
         } else {
           val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
           val ncnode = rn.insertedAt(pos, flag, new SNode(k, v, hc), gen)
-          GCAS(cn, ncnode, ct)
+          counted(GCAS(cn, ncnode, ct), 1, ct)
         }
       case tn: TNode[K, V] =>
         clean(parent, ct, lev - 5)
         false
       case ln: LNode[K, V] => // 3) an l-node
-        val nn = ln.inserted(k, v)
-        GCAS(ln, nn, ct)
+        val pos = ln.indexOf(k, hc, ct)
+        val nn = ln.inserted(pos, k, v, hc, lev, gen, ct)
+        counted(GCAS(ln, nn, ct), if (pos < 0) 1 else 0, ct)
     }
   }
 
   /** Inserts a new key value pair, given that a specific condition is met.
    *
-   *  @param cond        null - don't care if the key was there; KEY_ABSENT - key wasn't there; KEY_PRESENT - key was there; other value `v` - key must be bound to `v`
+   *  @param cond        null - don't care if the key was there; KEY_ABSENT - key wasn't there; KEY_ABSENT_OR_NULL - key wasn't there or was bound to null; KEY_PRESENT - key was there; other value `v` - key must be bound to `v`
    *  @return            null if unsuccessful, Option[V] otherwise (indicating previous value bound to the key)
    */
   @tailrec def rec_insertif(k: K, v: V, hc: Int, cond: AnyRef, lev: Int, parent: INode[K, V], startgen: Gen, ct: TrieMap[K, V]): Option[V] = {
@@ -170,7 +177,7 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
                 } else {
                   val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
                   val nn = rn.updatedAt(pos, inode(CNode.dual(sn, sn.hc, new SNode(k, v, hc), hc, lev + 5, gen)), gen)
-                  if (GCAS(cn, nn, ct)) None
+                  if (counted(GCAS(cn, nn, ct), 1, ct)) None
                   else null
                 }
               case INode.KEY_ABSENT =>
@@ -178,7 +185,18 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
                 else {
                   val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
                   val nn = rn.updatedAt(pos, inode(CNode.dual(sn, sn.hc, new SNode(k, v, hc), hc, lev + 5, gen)), gen)
-                  if (GCAS(cn, nn, ct)) None
+                  if (counted(GCAS(cn, nn, ct), 1, ct)) None
+                  else null
+                }
+              case INode.KEY_ABSENT_OR_NULL =>
+                if (sn.hc == hc && equal(sn.k, k, ct)) {
+                  if (sn.v != null) Some(sn.v)
+                  else if (GCAS(cn, cn.updatedAt(pos, new SNode(k, v, hc), gen), ct)) Some(sn.v)
+                  else null
+                } else {
+                  val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
+                  val nn = rn.updatedAt(pos, inode(CNode.dual(sn, sn.hc, new SNode(k, v, hc), hc, lev + 5, gen)), gen)
+                  if (counted(GCAS(cn, nn, ct), 1, ct)) None
                   else null
                 }
               case INode.KEY_PRESENT =>
@@ -192,10 +210,10 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
             }
           }
         } else cond match {
-          case null | INode.KEY_ABSENT =>
+          case null | INode.KEY_ABSENT | INode.KEY_ABSENT_OR_NULL =>
             val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
             val ncnode = rn.insertedAt(pos, flag, new SNode(k, v, hc), gen)
-            if (GCAS(cn, ncnode, ct)) None else null
+            if (counted(GCAS(cn, ncnode, ct), 1, ct)) None else null
           case INode.KEY_PRESENT => None
           case otherv => None
         }
@@ -203,26 +221,32 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
         clean(parent, ct, lev - 5)
         null
       case ln: LNode[K, V] => // 3) an l-node
+        val pos = ln.indexOf(k, hc, ct)
+        val optv = if (pos < 0) None else Some(ln.value(pos))
         def insertln() = {
-          val nn = ln.inserted(k, v)
-          GCAS(ln, nn, ct)
+          val nn = ln.inserted(pos, k, v, hc, lev, gen, ct)
+          counted(GCAS(ln, nn, ct), if (pos < 0) 1 else 0, ct)
         }
         cond match {
           case null =>
-            val optv = ln.get(k)
             if (insertln()) optv else null
           case INode.KEY_ABSENT =>
-            ln.get(k) match {
+            optv match {
               case None => if (insertln()) None else null
               case optv => optv
             }
+          case INode.KEY_ABSENT_OR_NULL =>
+            optv match {
+              case None | Some(null) => if (insertln()) optv else null
+              case optv => optv
+            }
           case INode.KEY_PRESENT =>
-            ln.get(k) match {
+            optv match {
               case Some(v0) => if (insertln()) Some(v0) else null
               case None => None
             }
           case otherv =>
-            ln.get(k) match {
+            optv match {
               case Some(v0) if v0 == otherv => if (insertln()) Some(otherv.asInstanceOf[V]) else null
               case _ => None
             }
@@ -268,7 +292,8 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
         }
         cleanReadOnly(tn)
       case ln: LNode[K, V] => // 5) an l-node
-        ln.get(k).asInstanceOf[Option[AnyRef]].orNull
+        val pos = ln.indexOf(k, hc, ct)
+        if (pos < 0) null else ln.value(pos).asInstanceOf[AnyRef]
     }
   }
 
@@ -299,7 +324,7 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
             case sn: SNode[K, V] =>
               if (sn.hc == hc && equal(sn.k, k, ct) && (v == null || sn.v == v)) {
                 val ncn = cn.removedAt(pos, flag, gen).toContracted(lev)
-                if (GCAS(cn, ncn, ct)) Some(sn.v) else null
+                if (counted(GCAS(cn, ncn, ct), -1, ct)) Some(sn.v) else null
               } else None
           }
 
@@ -340,19 +365,176 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
         clean(parent, ct, lev - 5)
         null
       case ln: LNode[K, V] =>
-        if (v == null) {
-          val optv = ln.get(k)
-          val nn = ln.removed(k, ct)
-          if (GCAS(ln, nn, ct)) optv else null
-        } else ln.get(k) match {
-          case optv @ Some(v0) if v0 == v =>
-            val nn = ln.removed(k, ct)
-            if (GCAS(ln, nn, ct)) optv else null
-          case _ => None
+        val pos = ln.indexOf(k, hc, ct)
+        if (pos < 0 || (v != null && ln.value(pos) != v)) None
+        else {
+          val nn = ln.removedAt(pos)
+          if (counted(GCAS(ln, nn, ct), -1, ct)) {
+            if (nn.isInstanceOf[TNode[_, _]]) clean(parent, ct, lev - 5)
+            Some(ln.value(pos))
+          } else null
         }
     }
   }
 
+  /** Inserts the bindings `batch(i)` for all the indices `i` in `pending`, overwriting the
+   *  bindings of keys that are already present, and earlier bindings in `batch` with later ones.
+   *  The hashes of these bindings agree on their lowest `lev` bits.
+   *
+   *  The bindings that go directly below a c-node are committed with one GCAS, after which
+   *  their entries in `batch` are set to null, so that a restart retries only the others.
+   *
+   *  @return        true if all the bindings were inserted, false if the operation must be restarted
+   */
+  def rec_insertall(batch: Array[SNode[K, V]], pending: Array[Int], lev: Int, parent: INode[K, V], startgen: Gen, ct: TrieMap[K, V]): Boolean = {
+    val m = GCAS_READ(ct) // use -Yinline!
+
+    m match {
+      case cn: CNode[K, V] =>
+        val buckets = CNode.bucketed(batch, pending, lev)
+        descendAll(cn, buckets, startgen, ct)(_.rec_insertall(batch, _, lev + 5, this, startgen, ct)) match {
+          case INode.DESCENDED =>
+            // the remaining buckets go into empty slots or next to s-nodes
+            val bmp = cn.bitmap
+            var nbmp = bmp
+            var idx = 0
+            while (idx < 32) {
+              if (buckets(idx) ne null) nbmp |= 1 << idx
+              idx += 1
+            }
+            if (!buckets.exists(_ ne null)) true
+            else {
+              val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
+              val narr = new Array[BasicNode](Integer.bitCount(nbmp))
+              var added = 0
+              var pos = 0
+              idx = 0
+              while (idx < 32) {
+                val flag = 1 << idx
+                if ((nbmp & flag) != 0) {
+                  val old = if ((bmp & flag) != 0) rn.array(Integer.bitCount(bmp & (flag - 1))) else null
+                  val b = buckets(idx)
+                  narr(pos) = if (b eq null) old else {
+                    val nn = CNode.slot(CNode.gathered(old.asInstanceOf[SNode[K, V]], batch, b), lev + 5, gen, ct)
+                    if (ct.isSizeCounted) added += CNode.freshSize(nn) - (if (old eq null) 0 else 1)
+                    nn
+                  }
+                  pos += 1
+                }
+                idx += 1
+              }
+              if (counted(GCAS(cn, new CNode[K, V](nbmp, narr, gen), ct), added, ct)) {
+                CNode.clear(batch, buckets)
+                true
+              } else false // the i-node may belong to an older generation now, restart from the root
+            }
+          case INode.RENEWED =>
+            rec_insertall(batch, CNode.remaining(batch, pending), lev, parent, startgen, ct)
+          case _ =>
+            false
+        }
+      case tn: TNode[K, V] =>
+        clean(parent, ct, lev - 5)
+        false
+      case ln: LNode[K, V] =>
+        val nn = CNode.subtrie(ln.snodes ++ (pending map (batch(_)) filter (_ ne null)), lev, gen, ct)
+        val added = if (ct.isSizeCounted) CNode.freshSize(nn) - ln.size else 0
+        if (counted(GCAS(ln, nn, ct), added, ct)) {
+          for (j <- pending) batch(j) = null
+          true
+        } else false // the i-node may belong to an older generation now, restart from the root
+    }
+  }
+
+  /** Removes the keys of `batch(i)` for all the indices `i` in `pending`, whose hashes agree
+   *  on their lowest `lev` bits, setting the entries of `batch` to null once they are removed.
+   *
+   *  A batch never removes all the entries of a c-node or l-node below the root. One key is
+   *  kept back instead, and removed after a restart, so that the node gets contracted into its
+   *  parent just as if the keys had been removed one at a time.
+   *
+   *  @return        true if all the keys were removed, false if the operation must be restarted
+   */
+  def rec_removeall(batch: Array[SNode[K, V]], pending: Array[Int], lev: Int, parent: INode[K, V], startgen: Gen, ct: TrieMap[K, V]): Boolean = {
+    val m = GCAS_READ(ct) // use -Yinline!
+
+    m match {
+      case cn: CNode[K, V] =>
+        val buckets = CNode.bucketed(batch, pending, lev)
+        descendAll(cn, buckets, startgen, ct)(_.rec_removeall(batch, _, lev + 5, this, startgen, ct)) match {
+          case INode.DESCENDED =>
+            // the remaining buckets fall onto s-nodes or into empty slots
+            val bmp = cn.bitmap
+            var nbmp = bmp
+            var idx = 0
+            while (idx < 32) {
+              val flag = 1 << idx
+              val b = buckets(idx)
+              if ((b ne null) && (bmp & flag) != 0) {
+                val sn = cn.array(Integer.bitCount(bmp & (flag - 1))).asInstanceOf[SNode[K, V]]
+                if (b exists { j => sn.hc == batch(j).hc && equal(sn.k, batch(j).k, ct) }) nbmp ^= flag
+              }
+              idx += 1
+            }
+            val keptBack = if (nbmp == 0 && bmp != 0 && lev > 0) Integer.numberOfTrailingZeros(bmp) else -1
+            if (keptBack >= 0) nbmp = 1 << keptBack
+
+            val removed = Integer.bitCount(bmp ^ nbmp)
+            val committed = removed == 0 || {
+              val rn = if (cn.gen eq gen) cn else cn.renewed(gen, ct)
+              counted(GCAS(cn, rn.retained(nbmp, gen).toContracted(lev), ct), -removed, ct)
+            }
+            if (committed) {
+              if (keptBack >= 0) buckets(keptBack) = null
+              CNode.clear(batch, buckets)
+              if ((parent ne null) && GCAS_READ(ct).isInstanceOf[TNode[_, _]]) clean(parent, ct, lev - 5)
+              keptBack < 0
+            } else false // the i-node may belong to an older generation now, restart from the root
+          case INode.RENEWED =>
+            rec_removeall(batch, CNode.remaining(batch, pending), lev, parent, startgen, ct)
+          case _ =>
+            false
+        }
+      case tn: TNode[K, V] =>
+        clean(parent, ct, lev - 5)
+        false
+      case ln: LNode[K, V] =>
+        val positions = pending map { j => if (batch(j) eq null) -1 else ln.indexOf(batch(j).k, batch(j).hc, ct) }
+        val distinct = positions.filter(_ >= 0).distinct
+        val keptBack = if (distinct.length == ln.size) distinct.last else -1
+        val removing = distinct filter (_ != keptBack)
+        val committed = removing.isEmpty || counted(GCAS(ln, ln.removedAll(removing), ct), -removing.length, ct)
+        if (committed) {
+          for (i <- pending.indices; if keptBack < 0 || positions(i) != keptBack) batch(pending(i)) = null
+          if (GCAS_READ(ct).isInstanceOf[TNode[_, _]]) clean(parent, ct, lev - 5)
+          keptBack < 0
+        } else false // the i-node may belong to an older generation now, restart from the root
+    }
+  }
+
+  /** Applies the batch operation `op` to the i-nodes below `cn` into which the non-null
+   *  `buckets` descend, and sets the buckets that are done to null.
+   *
+   *  @return        DESCENDED if all of them are done, RENEWED if `cn` had to be renewed and the
+   *                 operation must be retried at this i-node, or RESTART if it must be restarted
+   */
+  private def descendAll(cn: CNode[K, V], buckets: Array[Array[Int]], startgen: Gen, ct: TrieMap[K, V])(op: (INode[K, V], Array[Int]) => Boolean): Int = {
+    val bmp = cn.bitmap
+    var idx = 0
+    while (idx < 32) {
+      val flag = 1 << idx
+      if ((buckets(idx) ne null) && (bmp & flag) != 0) cn.array(Integer.bitCount(bmp & (flag - 1))) match {
+        case in: INode[K, V] =>
+          if (startgen ne in.gen) return (if (GCAS(cn, cn.renewed(startgen, ct), ct)) INode.RENEWED else INode.RESTART)
+          if (!op(in, buckets(idx))) return INode.RESTART
+          buckets(idx) = null
+        case sn: SNode[K, V] =>
+      }
+      idx += 1
+    }
+    INode.DESCENDED
+  }
+
   private def clean(nd: INode[K, V], ct: TrieMap[K, V], lev: Int) {
     val m = nd.GCAS_READ(ct)
     m match {
@@ -383,6 +565,12 @@ private[collection] final class INode[K, V](bn: MainNode[K, V], g: Gen) extends
 private[concurrent] object INode {
   val KEY_PRESENT = new AnyRef
   val KEY_ABSENT = new AnyRef
+  val KEY_ABSENT_OR_NULL = new AnyRef
+
+  /* outcomes of descending into the sub-tries of a c-node with a batch */
+  final val DESCENDED = 0
+  final val RENEWED = 1
+  final val RESTART = 2
 
   def newRootNode[K, V] = {
     val gen = new Gen
@@ -429,22 +617,101 @@ extends MainNode[K, V] with KVNode[K, V] {
 }
 
 
-private[collection] final class LNode[K, V](final val listmap: immutable.ListMap[K, V])
+/** A leaf with two or more bindings stored in flat arrays: the hash of the `i`-th binding
+ *  is `hashes(i)`, and its key and value are `kvs(2 * i)` and `kvs(2 * i + 1)`.
+ *
+ *  An l-node holds the bindings of keys whose hashes collide completely, or up to
+ *  `LNode.Capacity` bindings whose hashes agree on the bits above its i-node, which saves
+ *  an s-node and the c-nodes of the lower levels per binding. It is split into a c-node
+ *  when it overflows.
+ */
+private[collection] final class LNode[K, V](final val hashes: Array[Int], final val kvs: Array[AnyRef])
 extends MainNode[K, V] {
-  def this(k: K, v: V) = this(immutable.ListMap(k -> v))
-  def this(k1: K, v1: V, k2: K, v2: V) = this(immutable.ListMap(k1 -> v1, k2 -> v2))
-  def inserted(k: K, v: V) = new LNode(listmap + ((k, v)))
-  def removed(k: K, ct: TrieMap[K, V]): MainNode[K, V] = {
-    val updmap = listmap - k
-    if (updmap.size > 1) new LNode(updmap)
-    else {
-      val (k, v) = updmap.iterator.next()
-      new TNode(k, v, ct.computeHash(k)) // create it tombed so that it gets compressed on subsequent accesses
+  def size = hashes.length
+  def key(i: Int) = kvs(2 * i).asInstanceOf[K]
+  def value(i: Int) = kvs(2 * i + 1).asInstanceOf[V]
+
+  /** The position of the binding of `k`, or -1 if there is none. */
+  def indexOf(k: K, hc: Int, ct: TrieMap[K, V]): Int = {
+    var i = 0
+    while (i < hashes.length) {
+      if (hashes(i) == hc && ct.equality.equiv(kvs(2 * i).asInstanceOf[K], k)) return i
+      i += 1
+    }
+    -1
+  }
+
+  /** Returns a node with the binding at position `pos` replaced, or with a new binding if `pos`
+   *  is -1. The result is a c-node at level `lev` if the new binding does not fit.
+   */
+  def inserted(pos: Int, k: K, v: V, hc: Int, lev: Int, gen: Gen, ct: TrieMap[K, V]): MainNode[K, V] = {
+    if (pos >= 0) {
+      val nkvs = kvs.clone
+      nkvs(2 * pos) = k.asInstanceOf[AnyRef]
+      nkvs(2 * pos + 1) = v.asInstanceOf[AnyRef]
+      new LNode(hashes, nkvs)
+    } else if (size < LNode.Capacity || hashes.forall(_ == hc)) {
+      val len = size
+      val nhashes = java.util.Arrays.copyOf(hashes, len + 1)
+      val nkvs = java.util.Arrays.copyOf(kvs, 2 * len + 2)
+      nhashes(len) = hc
+      nkvs(2 * len) = k.asInstanceOf[AnyRef]
+      nkvs(2 * len + 1) = v.asInstanceOf[AnyRef]
+      new LNode(nhashes, nkvs)
+    } else CNode.subtrie(snodes :+ new SNode(k, v, hc), lev, gen, ct)
+  }
+
+  def removedAt(pos: Int): MainNode[K, V] = removedAll(pos :: Nil)
+
+  /** Returns a node without the bindings at the positions `ps`, which must leave at least one. */
+  def removedAll(ps: Seq[Int]): MainNode[K, V] = {
+    val removed = new Array[Boolean](size)
+    for (p <- ps) removed(p) = true
+    val left = removed.count(!_)
+    if (left == 1) {
+      val i = removed.indexOf(false)
+      new TNode(key(i), value(i), hashes(i)) // create it tombed so that it gets compressed on subsequent accesses
+    } else {
+      val nhashes = new Array[Int](left)
+      val nkvs = new Array[AnyRef](2 * left)
+      var i = 0
+      var j = 0
+      while (i < size) {
+        if (!removed(i)) {
+          nhashes(j) = hashes(i)
+          nkvs(2 * j) = kvs(2 * i)
+          nkvs(2 * j + 1) = kvs(2 * i + 1)
+          j += 1
+        }
+        i += 1
+      }
+      new LNode(nhashes, nkvs)
     }
   }
-  def get(k: K) = listmap.get(k)
-  def cachedSize(ct: AnyRef): Int = listmap.size
-  def string(lev: Int) = (" " * lev) + "LNode(%s)".format(listmap.mkString(", "))
+
+  def snodes: Array[SNode[K, V]] = Array.tabulate(size)(i => new SNode(key(i), value(i), hashes(i)))
+  def iterator: Iterator[(K, V)] = Iterator.tabulate(size)(i => (key(i), value(i)))
+  def cachedSize(ct: AnyRef): Int = size
+  def string(lev: Int) = (" " * lev) + "LNode(%s)".format(iterator.mkString(", "))
+}
+
+
+private[concurrent] object LNode {
+  /** The number of bindings with different hashes that an l-node holds before it is split. */
+  final val Capacity = 8
+
+  def apply[K, V](sns: Array[SNode[K, V]]): LNode[K, V] = {
+    val hashes = new Array[Int](sns.length)
+    val kvs = new Array[AnyRef](2 * sns.length)
+    var i = 0
+    while (i < sns.length) {
+      hashes(i) = sns(i).hc
+      kvs(2 * i) = sns(i).k.asInstanceOf[AnyRef]
+      kvs(2 * i + 1) = sns(i).v.asInstanceOf[AnyRef]
+      i += 1
+    }
+    new LNode(hashes, kvs)
+  }
 }
 
 
@@ -511,6 +778,23 @@ private[collection] final class CNode[K, V](val bitmap: Int, val array: Array[Ba
     new CNode[K, V](bmp | flag, narr, gen)
   }
 
+  /** Returns a copy of this cnode with only the entries whose flags are in `nbmp`. */
+  def retained(nbmp: Int, gen: Gen) = {
+    val bmp = bitmap
+    val narr = new Array[BasicNode](Integer.bitCount(nbmp))
+    var pos = 0
+    var idx = 0
+    while (idx < 32) {
+      val flag = 1 << idx
+      if ((nbmp & flag) != 0) {
+        narr(pos) = array(Integer.bitCount(bmp & (flag - 1)))
+        pos += 1
+      }
+      idx += 1
+    }
+    new CNode[K, V](nbmp, narr, gen)
+  }
+
   /** Returns a copy of this cnode such that all the i-nodes below it are copied
    *  to the specified generation `ngen`.
    */
@@ -573,7 +857,7 @@ private[collection] final class CNode[K, V](val bitmap: Int, val array: Array[Ba
     case sn: SNode[K, V] => Some(sn.kvPair)
     case in: INode[K, V] => in.mainnode match {
       case tn: TNode[K, V] => Some(tn.kvPair)
-      case ln: LNode[K, V] => ln.listmap.toList
+      case ln: LNode[K, V] => ln.iterator.toList
       case cn: CNode[K, V] => cn.collectElems
     }
   }
@@ -592,20 +876,136 @@ private[collection] final class CNode[K, V](val bitmap: Int, val array: Array[Ba
 
 private[concurrent] object CNode {
 
-  def dual[K, V](x: SNode[K, V], xhc: Int, y: SNode[K, V], yhc: Int, lev: Int, gen: Gen): MainNode[K, V] = if (lev < 35) {
-    val xidx = (xhc >>> lev) & 0x1f
-    val yidx = (yhc >>> lev) & 0x1f
-    val bmp = (1 << xidx) | (1 << yidx)
-    if (xidx == yidx) {
-      val subinode = new INode[K, V](gen)//(TrieMap.inodeupdater)
-      subinode.mainnode = dual(x, xhc, y, yhc, lev + 5, gen)
-      new CNode(bmp, Array(subinode), gen)
-    } else {
-      if (xidx < yidx) new CNode(bmp, Array(x, y), gen)
-      else new CNode(bmp, Array(y, x), gen)
+  /** Returns the main node of a fresh i-node with the bindings of two different keys. */
+  def dual[K, V](x: SNode[K, V], xhc: Int, y: SNode[K, V], yhc: Int, lev: Int, gen: Gen): MainNode[K, V] =
+    LNode(Array(x, y))
+
+  /* batches */
+
+  /** Groups the indices in `pending` of the non-null entries of `batch` by the index of their
+   *  hash in a c-node at level `lev`, keeping their order. Buckets without entries are null.
+   */
+  def bucketed[K, V](batch: Array[SNode[K, V]], pending: Array[Int], lev: Int): Array[Array[Int]] = {
+    val sizes = new Array[Int](32)
+    var i = 0
+    while (i < pending.length) {
+      val sn = batch(pending(i))
+      if (sn ne null) sizes((sn.hc >>> lev) & 0x1f) += 1
+      i += 1
     }
-  } else {
-    new LNode(x.k, x.v, y.k, y.v)
+    val buckets = new Array[Array[Int]](32)
+    var idx = 0
+    while (idx < 32) {
+      if (sizes(idx) > 0) buckets(idx) = new Array[Int](sizes(idx))
+      sizes(idx) = 0
+      idx += 1
+    }
+    i = 0
+    while (i < pending.length) {
+      val sn = batch(pending(i))
+      if (sn ne null) {
+        val idx = (sn.hc >>> lev) & 0x1f
+        buckets(idx)(sizes(idx)) = pending(i)
+        sizes(idx) += 1
+      }
+      i += 1
+    }
+    buckets
+  }
+
+  /** The indices in `pending` of the entries of `batch` that are not done yet. */
+  def remaining[K, V](batch: Array[SNode[K, V]], pending: Array[Int]): Array[Int] = pending filter (batch(_) ne null)
+
+  /** Marks the entries of `batch` in all the non-null `buckets` as done. */
+  def clear[K, V](batch: Array[SNode[K, V]], buckets: Array[Array[Int]]): Unit = {
+    var idx = 0
+    while (idx < 32) {
+      val b = buckets(idx)
+      if (b ne null) {
+        var i = 0
+        while (i < b.length) {
+          batch(b(i)) = null
+          i += 1
+        }
+      }
+      idx += 1
+    }
+  }
+
+  /** The entries of `batch` at the indices `b`, preceded by `old` unless it is null. */
+  def gathered[K, V](old: SNode[K, V], batch: Array[SNode[K, V]], b: Array[Int]): Array[SNode[K, V]] = {
+    val offset = if (old eq null) 0 else 1
+    val sns = new Array[SNode[K, V]](b.length + offset)
+    if (old ne null) sns(0) = old
+    var i = 0
+    while (i < b.length) {
+      sns(i + offset) = batch(b(i))
+      i += 1
+    }
+    sns
+  }
+
+  /** Builds a fresh node for a slot of a c-node at level `lev - 5` with the bindings `sns`,
+   *  where later bindings overwrite earlier ones with an equal key. This is an s-node if
+   *  there is a single key, or an i-node above a sub-trie at level `lev` otherwise.
+   */
+  def slot[K, V](sns: Array[SNode[K, V]], lev: Int, gen: Gen, ct: TrieMap[K, V]): BasicNode =
+    if (!fitsLNode(sns)) new INode(split(sns, lev, gen, ct), gen)
+    else {
+      val nodes = distinct(sns, ct)
+      if (nodes.length == 1) nodes(0)
+      else new INode(LNode(nodes), gen)
+    }
+
+  /** Builds a fresh main node at level `lev` with the bindings `sns`, of which there must be
+   *  two with different keys. This is an l-node if they fit into one, or a c-node otherwise.
+   */
+  def subtrie[K, V](sns: Array[SNode[K, V]], lev: Int, gen: Gen, ct: TrieMap[K, V]): MainNode[K, V] =
+    if (fitsLNode(sns)) LNode(distinct(sns, ct))
+    else split(sns, lev, gen, ct)
+
+  private def fitsLNode[K, V](sns: Array[SNode[K, V]]) = {
+    val hc = sns(0).hc
+    sns.length <= LNode.Capacity || (sns forall (_.hc == hc))
+  }
+
+  private def distinct[K, V](sns: Array[SNode[K, V]], ct: TrieMap[K, V]): Array[SNode[K, V]] = {
+    val nodes = new scala.collection.mutable.ArrayBuffer[SNode[K, V]](sns.length)
+    for (sn <- sns) nodes.indexWhere(n => n.hc == sn.hc && ct.equality.equiv(n.k, sn.k)) match {
+      case -1 => nodes += sn
+      case i  => nodes(i) = sn
+    }
+    nodes.toArray
+  }
+
+  private def split[K, V](sns: Array[SNode[K, V]], lev: Int, gen: Gen, ct: TrieMap[K, V]): CNode[K, V] = {
+    val buckets = bucketed(sns, Array.range(0, sns.length), lev)
+    var bmp = 0
+    var idx = 0
+    while (idx < 32) {
+      if (buckets(idx) ne null) bmp |= 1 << idx
+      idx += 1
+    }
+    val arr = new Array[BasicNode](Integer.bitCount(bmp))
+    var pos = 0
+    idx = 0
+    while (idx < 32) {
+      val b = buckets(idx)
+      if (b ne null) {
+        arr(pos) = if (b.length == 1) sns(b(0)) else slot(b map (sns(_)), lev + 5, gen, ct)
+        pos += 1
+      }
+      idx += 1
+    }
+    new CNode(bmp, arr, gen)
+  }
+
+  /** The number of bindings below a fresh node built by `slot` or `subtrie`. */
+  def freshSize(n: BasicNode): Int = n match {
+    case sn: SNode[_, _] => 1
+    case in: INode[_, _] => freshSize(in.mainnode)
+    case cn: CNode[_, _] => cn.array.foldLeft(0)(_ + freshSize(_))
+    case ln: LNode[_, _] => ln.size
   }
 
 }
@@ -616,6 +1016,78 @@ private[concurrent] case class RDCSS_Descriptor[K, V](old: INode[K, V], expected
 }
 
 
+/** A striped counter of the bindings in a `TrieMap`, in the manner of `LongAdder`.
+ *
+ *  Each thread adds to the cell selected by its id, and cells are spaced a cache line
+ *  apart, so concurrent writers rarely contend on the same word. The sum is not atomic
+ *  with respect to concurrent updates, but it is exact once updates have quiesced.
+ *
+ *  The count the cells start from is the size of `seed`, a read-only map that is only
+ *  traversed the first time the sum is read, so that a snapshot can start from the exact
+ *  size of its source without counting it eagerly.
+ */
+private[concurrent] final class SizeCounter(seed: TrieMap[_, _]) {
+  import SizeCounter._
+
+  private val cells = new AtomicLongArray(Stripes * Padding)
+  @volatile private var pendingSeed = seed
+  @volatile private var base = 0L
+
+  def this(initial: Long) = {
+    this(null: TrieMap[_, _])
+    base = initial
+  }
+
+  def add(delta: Int): Unit = {
+    val id = Thread.currentThread.getId
+    val cell = (scala.util.hashing.byteswap32((id ^ (id >>> 32)).toInt) & (Stripes - 1)) * Padding
+    cells.getAndAdd(cell, delta)
+  }
+
+  private def seeded: Long = {
+    if (pendingSeed ne null) synchronized {
+      val frozen = pendingSeed
+      if (frozen ne null) {
+        base = frozen.size
+        pendingSeed = null
+      }
+    }
+    base
+  }
+
+  def sum: Long = {
+    var s = seeded
+    var i = 0
+    while (i < cells.length) {
+      s += cells.get(i)
+      i += Padding
+    }
+    s
+  }
+
+  def reset(): Unit = {
+    synchronized {
+      pendingSeed = null
+      base = 0L
+    }
+    var i = 0
+    while (i < cells.length) {
+      cells.set(i, 0L)
+      i += Padding
+    }
+  }
+}
+
+
+private[concurrent] object SizeCounter {
+  /** The number of cells, the smallest power of two not below twice the number of processors. */
+  val Stripes = math.min(Integer.highestOneBit(Runtime.getRuntime.availableProcessors * 2 - 1) << 1, 64)
+
+  /** The distance between cells, in longs, so that every cell sits on its own cache line. */
+  final val Padding = 8
+}
+
+
 /** A concurrent hash-trie or TrieMap is a concurrent thread-safe lock-free
  *  implementation of a hash array mapped trie. It is used to implement the
  *  concurrent map abstraction. It has particularly scalable concurrent insert
@@ -630,7 +1102,7 @@ private[concurrent] case class RDCSS_Descriptor[K, V](old: INode[K, V], expected
  *  @since 2.10
  */
 @SerialVersionUID(0L - 6402774413839597105L)
-final class TrieMap[K, V] private (r: AnyRef, rtupd: AtomicReferenceFieldUpdater[TrieMap[K, V], AnyRef], hashf: Hashing[K], ef: Equiv[K])
+final class TrieMap[K, V] private (r: AnyRef, rtupd: AtomicReferenceFieldUpdater[TrieMap[K, V], AnyRef], hashf: Hashing[K], ef: Equiv[K], sc: SizeCounter)
 extends scala.collection.concurrent.Map[K, V]
    with scala.collection.mutable.MapLike[K, V, TrieMap[K, V]]
    with CustomParallelizable[(K, V), ParTrieMap[K, V]]
@@ -639,17 +1111,26 @@ extends scala.collection.concurrent.Map[K, V]
   private var hashingobj = if (hashf.isInstanceOf[Hashing.Default[_]]) new TrieMap.MangledHashing[K] else hashf
   private var equalityobj = ef
   private var rootupdater = rtupd
+  private var sizecounter = sc
   def hashing = hashingobj
   def equality = equalityobj
   @volatile var root = r
 
-  def this(hashf: Hashing[K], ef: Equiv[K]) = this(
+  /** Creates an empty map.
+   *
+   *  @param countSize  if true, the map maintains a striped counter of its bindings, which
+   *                    makes `size` an approximate O(1) operation; see `isSizeCounted`
+   */
+  def this(hashf: Hashing[K], ef: Equiv[K], countSize: Boolean) = this(
     INode.newRootNode,
     AtomicReferenceFieldUpdater.newUpdater(classOf[TrieMap[K, V]], classOf[AnyRef], "root"),
     hashf,
-    ef
+    ef,
+    if (countSize) new SizeCounter(0) else null
   )
 
+  def this(hashf: Hashing[K], ef: Equiv[K]) = this(hashf, ef, false)
+
   def this() = this(Hashing.default, Equiv.universal)
 
   /* internal methods */
@@ -665,6 +1146,7 @@ extends scala.collection.concurrent.Map[K, V]
       out.writeObject(v)
     }
     out.writeObject(TrieMapSerializationEnd)
+    out.writeBoolean(isSizeCounted)
   }
 
   private def readObject(in: java.io.ObjectInputStream) {
@@ -675,14 +1157,20 @@ extends scala.collection.concurrent.Map[K, V]
     equalityobj = in.readObject().asInstanceOf[Equiv[K]]
 
     var obj: AnyRef = null
+    var count = 0L
     do {
       obj = in.readObject()
       if (obj != TrieMapSerializationEnd) {
         val k = obj.asInstanceOf[K]
         val v = in.readObject().asInstanceOf[V]
         update(k, v)
+        count += 1
       }
     } while (obj != TrieMapSerializationEnd)
+
+    // maps serialized before size counting existed end with the marker
+    val counted = try in.readBoolean() catch { case _: java.io.EOFException => false }
+    if (counted) sizecounter = new SizeCounter(count)
   }
 
   def CAS_ROOT(ov: AnyRef, nv: AnyRef) = rootupdater.compareAndSet(this, ov, nv)
@@ -769,6 +1257,16 @@ extends scala.collection.concurrent.Map[K, V]
     else removehc(k, v, hc)
   }
 
+  @tailrec private def insertall(batch: Array[SNode[K, V]], pending: Array[Int]) {
+    val r = RDCSS_READ_ROOT()
+    if (!r.rec_insertall(batch, pending, 0, null, r.gen, this)) insertall(batch, CNode.remaining(batch, pending))
+  }
+
+  @tailrec private def removeall(batch: Array[SNode[K, V]], pending: Array[Int]) {
+    val r = RDCSS_READ_ROOT()
+    if (!r.rec_removeall(batch, pending, 0, null, r.gen, this)) removeall(batch, CNode.remaining(batch, pending))
+  }
+
   def string = RDCSS_READ_ROOT().string(0)
 
   /* public methods */
@@ -795,7 +1293,7 @@ extends scala.collection.concurrent.Map[K, V]
   @tailrec def snapshot(): TrieMap[K, V] = {
     val r = RDCSS_READ_ROOT()
     val expmain = r.gcasRead(this)
-    if (RDCSS_ROOT(r, expmain, r.copyToGen(new Gen, this))) new TrieMap(r.copyToGen(new Gen, this), rootupdater, hashing, equality)
+    if (RDCSS_ROOT(r, expmain, r.copyToGen(new Gen, this))) new TrieMap(r.copyToGen(new Gen, this), rootupdater, hashing, equality, snapshotCounter(r))
     else snapshot()
   }
 
@@ -809,18 +1307,26 @@ extends scala.collection.concurrent.Map[K, V]
    *  Note that the snapshot itself is never rewritten unlike when calling
    *  the `snapshot` method, but the obtained snapshot cannot be modified.
    *
-   *  This method is used by other methods such as `size` and `iterator`.
+   *  This method is used by other methods such as `exactSize` and `iterator`.
    */
   @tailrec def readOnlySnapshot(): scala.collection.Map[K, V] = {
     val r = RDCSS_READ_ROOT()
     val expmain = r.gcasRead(this)
-    if (RDCSS_ROOT(r, expmain, r.copyToGen(new Gen, this))) new TrieMap(r, null, hashing, equality)
+    if (RDCSS_ROOT(r, expmain, r.copyToGen(new Gen, this))) new TrieMap(r, null, hashing, equality, null)
     else readOnlySnapshot()
   }
 
+  /* the counter of a snapshot starts from the size of the frozen root `r` it was taken
+   * from, counted through a read-only view the first time the counter is read; the count
+   * of this map could be off by updates in flight while the snapshot was taken */
+  private def snapshotCounter(r: INode[K, V]) =
+    if (sizecounter eq null) null
+    else new SizeCounter(new TrieMap(r, null, hashing, equality, null))
+
   @tailrec override def clear() {
     val r = RDCSS_READ_ROOT()
     if (!RDCSS_ROOT(r, r.gcasRead(this), INode.newRootNode[K, V])) clear()
+    else if (sizecounter ne null) sizecounter.reset()
   }
 
 
@@ -868,6 +1374,63 @@ extends scala.collection.concurrent.Map[K, V]
     this
   }
 
+  /** Inserts all the given bindings, where later bindings overwrite earlier ones with an equal key.
+   *
+   *  The bindings are grouped by their hashes, and all of them that go below the same node
+   *  of the trie are committed with a single atomic update of that node, so this is much
+   *  faster than inserting them one at a time. Every binding is inserted atomically, but
+   *  the batch as a whole is not.
+   */
+  def putAll(kvs: TraversableOnce[(K, V)]): Unit = {
+    val b = Array.newBuilder[SNode[K, V]]
+    kvs foreach { kv => b += new SNode(kv._1, kv._2, computeHash(kv._1)) }
+    val batch = b.result()
+    insertall(batch, Array.range(0, batch.length))
+  }
+
+  /** Removes all the given keys, committing the removals from the same node of the trie
+   *  with a single atomic update of that node. Every key is removed atomically, but the
+   *  batch as a whole is not.
+   */
+  def removeAll(ks: TraversableOnce[K]): Unit = {
+    val b = Array.newBuilder[SNode[K, V]]
+    ks foreach { k => b += new SNode(k, null.asInstanceOf[V], computeHash(k)) }
+    val batch = b.result()
+    removeall(batch, Array.range(0, batch.length))
+  }
+
+  override def ++=(xs: TraversableOnce[(K, V)]): this.type = {
+    putAll(xs)
+    this
+  }
+
+  override def --=(xs: TraversableOnce[K]): this.type = {
+    removeAll(xs)
+    this
+  }
+
+  /** Atomically replaces the binding of `k` with the result of `f` applied to its current
+   *  value, or removes it if `f` returns `None`, and returns the new value.
+   *
+   *  If the binding is concurrently modified, `f` is evaluated again with the new value,
+   *  so it should be free of side effects. A key bound to `null` is absent, as for `get`.
+   */
+  @tailrec def compute(k: K)(f: Option[V] => Option[V]): Option[V] = {
+    val hc = computeHash(k)
+    val ov = Option(lookuphc(k, hc)).asInstanceOf[Option[V]]
+    val nv = f(ov)
+    val done = (ov, nv) match {
+      case (None, None)       => true
+      case (None, Some(v))    => insertifhc(k, hc, v, INode.KEY_ABSENT_OR_NULL) match {
+        case None | Some(null) => true // a key bound to null is absent, as for `get`
+        case _                 => false
+      }
+      case (Some(o), None)    => removehc(k, o, hc).nonEmpty
+      case (Some(o), Some(v)) => insertifhc(k, hc, v, o.asInstanceOf[AnyRef]).nonEmpty
+    }
+    if (done) nv else compute(k)(f)
+  }
+
   def putIfAbsent(k: K, v: V): Option[V] = {
     val hc = computeHash(k)
     insertifhc(k, hc, v, INode.KEY_ABSENT)
@@ -897,10 +1460,28 @@ extends scala.collection.concurrent.Map[K, V]
     r.cachedSize(this)
   }
 
-  override def size: Int =
+  /** Whether this map maintains a counter of its bindings.
+   *
+   *  If so, `size` reads the counter instead of traversing a snapshot, which is O(1)
+   *  but only approximate while there are concurrent updates, or if `clear` ran
+   *  concurrently with other updates. Use `exactSize` for a linearizable size.
+   */
+  def isSizeCounted = sizecounter ne null
+
+  private[concurrent] def countSize(delta: Int): Unit = if (sizecounter ne null) sizecounter.add(delta)
+
+  /** Returns the number of bindings in a snapshot of this map.
+   *  This operation is linearizable, and traverses the trie the first
+   *  time it is called on a given snapshot.
+   */
+  def exactSize: Int =
     if (nonReadOnly) readOnlySnapshot().size
     else cachedSize()
 
+  override def size: Int =
+    if (sizecounter ne null) math.max(0L, math.min(sizecounter.sum, Int.MaxValue.toLong)).toInt
+    else exactSize
+
   override def stringPrefix = "TrieMap"
 
 }
@@ -913,6 +1494,21 @@ object TrieMap extends MutableMapFactory[TrieMap] {
 
   def empty[K, V]: TrieMap[K, V] = new TrieMap[K, V]
 
+  /** A builder that collects the bindings and inserts them with `putAll` when the
+   *  result is requested, so that every node of the new trie is written only once.
+   */
+  override def newBuilder[K, V]: mutable.Builder[(K, V), TrieMap[K, V]] =
+    new mutable.ArrayBuffer[(K, V)] mapResult { kvs =>
+      val ct = empty[K, V]
+      ct.putAll(kvs)
+      ct
+    }
+
+  /** Creates an empty map that counts its bindings, so that its `size` is O(1).
+   *  @see [[TrieMap.isSizeCounted]]
+   */
+  def withSizeCounter[K, V]: TrieMap[K, V] = new TrieMap[K, V](Hashing.default, Equiv.universal, countSize = true)
+
   class MangledHashing[K] extends Hashing[K] {
     def hash(k: K)= scala.util.hashing.byteswap32(k.##)
   }
@@ -952,7 +1548,7 @@ private[collection] class TrieMapIterator[K, V](var level: Int, private var ct:
     case tn: TNode[K, V] =>
       current = tn
     case ln: LNode[K, V] =>
-      subiter = ln.listmap.iterator
+      subiter = ln.iterator
       checkSubiter()
     case null =>
       current = null
@@ -14,6 +14,8 @@ package mutable
 
 import scala.reflect.ClassTag
 import scala.runtime.ScalaRunTime._
+import scala.runtime.Statics
+import scala.util.hashing.MurmurHash3
 import scala.collection.generic._
 import scala.collection.parallel.mutable.ParArray
 
@@ -126,6 +128,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): T = array(index).asInstanceOf[T]
     def update(index: Int, elem: T) { array(index) = elem }
+    override def hashCode = Statics.objectArrayHash(array.asInstanceOf[Array[AnyRef]], 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofByte(val array: Array[Byte]) extends WrappedArray[Byte] with Serializable {
@@ -133,6 +136,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Byte = array(index)
     def update(index: Int, elem: Byte) { array(index) = elem }
+    override def hashCode = Statics.byteArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofShort(val array: Array[Short]) extends WrappedArray[Short] with Serializable {
@@ -140,6 +144,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Short = array(index)
     def update(index: Int, elem: Short) { array(index) = elem }
+    override def hashCode = Statics.shortArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofChar(val array: Array[Char]) extends WrappedArray[Char] with Serializable {
@@ -147,6 +152,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Char = array(index)
     def update(index: Int, elem: Char) { array(index) = elem }
+    override def hashCode = Statics.charArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofInt(val array: Array[Int]) extends WrappedArray[Int] with Serializable {
@@ -154,6 +160,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Int = array(index)
     def update(index: Int, elem: Int) { array(index) = elem }
+    override def hashCode = Statics.intArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofLong(val array: Array[Long]) extends WrappedArray[Long] with Serializable {
@@ -161,6 +168,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Long = array(index)
     def update(index: Int, elem: Long) { array(index) = elem }
+    override def hashCode = Statics.longArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofFloat(val array: Array[Float]) extends WrappedArray[Float] with Serializable {
@@ -168,6 +176,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Float = array(index)
     def update(index: Int, elem: Float) { array(index) = elem }
+    override def hashCode = Statics.floatArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofDouble(val array: Array[Double]) extends WrappedArray[Double] with Serializable {
@@ -175,6 +184,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Double = array(index)
     def update(index: Int, elem: Double) { array(index) = elem }
+    override def hashCode = Statics.doubleArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofBoolean(val array: Array[Boolean]) extends WrappedArray[Boolean] with Serializable {
@@ -182,6 +192,7 @@ object WrappedArray {
     def length: Int = array.length
     def apply(index: Int): Boolean = array(index)
     def update(index: Int, elem: Boolean) { array(index) = elem }
+    override def hashCode = Statics.booleanArrayHash(array, 0, array.length, MurmurHash3.seqSeed)
   }
 
   final class ofUnit(val array: Array[Unit]) extends WrappedArray[Unit] with Serializable {
@@ -9,7 +9,8 @@
 package scala
 package collection.parallel
 
-import java.util.concurrent.ThreadPoolExecutor
+import java.util.concurrent.{ ConcurrentHashMap, ThreadPoolExecutor }
+import java.util.concurrent.atomic.AtomicLong
 import scala.concurrent.forkjoin.ForkJoinPool
 import scala.concurrent.ExecutionContext
 
@@ -56,6 +57,156 @@ trait TaskSupport extends Tasks
 class ForkJoinTaskSupport(val environment: ForkJoinPool = ForkJoinTasks.defaultForkJoinPool)
 extends TaskSupport with AdaptiveWorkStealingForkJoinTasks
 
+/** A task support that uses a fork join pool to schedule tasks, and which adapts the
+ *  size of the leaf tasks of an operation to how long they took in earlier invocations
+ *  of that operation.
+ *
+ *  The other task supports split a collection of `n` elements into leaf tasks of about
+ *  `n / (8 * parallelismLevel)` elements, regardless of what the operation does with
+ *  each element. So cheap operations on large collections are split into more tasks
+ *  than they need, and costly operations on small collections into too few.
+ *  This task support times the leaf tasks of each kind of operation (such as `map` or
+ *  `reduce`). After each invocation, it doubles the leaf size of the operation if its
+ *  leaves took less than half of `targetLeafNanos` on average, and halves it if they
+ *  took more than twice as long. Leaves never get larger than `n / parallelismLevel`
+ *  elements, nor smaller than one element.
+ *
+ *  Operations on collections with sequence splitters, such as `ParArray`, `ParRange`
+ *  and `ParVector`, are adapted, since their splitters know how many elements they
+ *  have left, as are the tasks which split an index range by size, such as
+ *  `ParArray.map` and the copying of array and hash table combiners into their
+ *  results. Scans and the operations of other collections are split as by
+ *  `ForkJoinTaskSupport`.
+ *  Operations are told apart by the class of their task, so an operation shares its
+ *  statistics across all the functions it is invoked with.
+ *
+ *  {{{
+ *  import scala.collection.parallel._
+ *  val pc = mutable.ParArray.range(0, 1000000)
+ *  pc.tasksupport = new AdaptiveForkJoinTaskSupport
+ *  }}}
+ *
+ *  @param environment      the fork join pool which runs the tasks
+ *  @param targetLeafNanos  the desired duration of a leaf task, in nanoseconds
+ *
+ *  @see [[scala.collection.parallel.TaskSupport]] for more information.
+ */
+class AdaptiveForkJoinTaskSupport(environment: ForkJoinPool = ForkJoinTasks.defaultForkJoinPool, val targetLeafNanos: Long = 100000L)
+extends ForkJoinTaskSupport(environment) {
+  import AdaptiveForkJoinTaskSupport.LeafCost
+
+  private[this] val costs = new ConcurrentHashMap[Class[_], LeafCost]
+
+  private def costOf(task: Task[_, _]): LeafCost = {
+    val cls = task.getClass
+    val cost = costs.get(cls)
+    if (cost ne null) cost
+    else {
+      val fresh = new LeafCost
+      val prev = costs.putIfAbsent(cls, fresh)
+      if (prev eq null) fresh else prev
+    }
+  }
+
+  /** The number of elements above which a task of the same class as `task`, over a
+   *  collection of `size` elements, is split further.
+   */
+  private[parallel] def threshold(task: Task[_, _], size: Int): Int = costOf(task).threshold(size, parallelismLevel)
+
+  /** Decides whether an accessor `task`, which traverses the elements of the splitter `pit`
+   *  over the collection `coll`, should be split further.
+   */
+  private[parallel] def shouldSplitFurther[S](task: Task[_, _], pit: IterableSplitter[S], coll: ParIterable[S]): Boolean = pit match {
+    case _: SeqSplitter[_] => shouldSplitFurther(task, pit.remaining, coll.size)
+    case _                 => pit.shouldSplitFurther(coll, parallelismLevel)
+  }
+
+  /** Decides whether `task`, which has `howmany` of the `size` elements of its operation
+   *  left to process, should be split further.
+   */
+  private[parallel] def shouldSplitFurther(task: Task[_, _], howmany: Int, size: Int): Boolean =
+    howmany > threshold(task, size)
+
+  /** Does the leaf computation of `body`, and times it if `body` is adapted. */
+  private[parallel] def tryLeaf[R](body: Task[R, _], lastres: Option[R]): Unit = costs.get(body.getClass) match {
+    case null => body.tryLeaf(lastres)
+    case cost =>
+      val start = System.nanoTime
+      body.tryLeaf(lastres)
+      cost.record(System.nanoTime - start)
+  }
+
+  private def adapt(task: Task[_, _]): Unit = costs.get(task.getClass) match {
+    case null =>
+    case cost => cost.adapt(targetLeafNanos)
+  }
+
+  override def execute[R, Tp](task: Task[R, Tp]): () => R = {
+    val result = super.execute(task)
+    () => try result() finally adapt(task)
+  }
+
+  override def executeAndWaitResult[R, Tp](task: Task[R, Tp]): R =
+    try super.executeAndWaitResult(task) finally adapt(task)
+}
+
+object AdaptiveForkJoinTaskSupport {
+  /* The tasks of parallel operations reach the adaptive task support through these,
+   * so that the other task supports are left as they are. */
+
+  private[parallel] def shouldSplitFurther[S](tasks: Tasks, task: Task[_, _], pit: IterableSplitter[S], coll: ParIterable[S]): Boolean = tasks match {
+    case adaptive: AdaptiveForkJoinTaskSupport => adaptive.shouldSplitFurther(task, pit, coll)
+    case _                                     => pit.shouldSplitFurther(coll, tasks.parallelismLevel)
+  }
+
+  private[parallel] def shouldSplitFurther(tasks: Tasks, task: Task[_, _], howmany: Int, size: Int): Boolean = tasks match {
+    case adaptive: AdaptiveForkJoinTaskSupport => adaptive.shouldSplitFurther(task, howmany, size)
+    case _                                     => howmany > thresholdFromSize(size, tasks.parallelismLevel)
+  }
+
+  private[parallel] def tryLeaf[R](tasks: Tasks, body: Task[R, _], lastres: Option[R]): Unit = tasks match {
+    case adaptive: AdaptiveForkJoinTaskSupport => adaptive.tryLeaf(body, lastres)
+    case _                                     => body.tryLeaf(lastres)
+  }
+
+  /** The leaf size of an operation is adapted to at most `2^MaxShift` times
+   *  larger or smaller than `thresholdFromSize`.
+   */
+  final val MaxShift = 10
+
+  /** The measured cost of the leaf tasks of one operation, and the leaf size it leads to. */
+  private final class LeafCost {
+    @volatile private[this] var shift = 0
+    @volatile private[this] var clamped = false
+    private[this] val nanos = new AtomicLong
+    private[this] val leaves = new AtomicLong
+
+    def threshold(size: Int, parallelismLevel: Int): Int = {
+      val t = thresholdFromSize(size, parallelismLevel).toLong
+      val s = shift
+      val scaled = if (s >= 0) t << s else t >> -s
+      val max = math.max(1, size / parallelismLevel)
+      clamped = scaled >= max
+      math.max(1L, math.min(scaled, max.toLong)).toInt
+    }
+
+    def record(time: Long): Unit = {
+      nanos.addAndGet(time)
+      leaves.incrementAndGet()
+    }
+
+    def adapt(target: Long): Unit = {
+      val n = leaves.getAndSet(0)
+      val time = nanos.getAndSet(0)
+      if (n > 0) {
+        val mean = time / n
+        if (mean < target / 2) { if (shift < MaxShift && !clamped) shift += 1 }
+        else if (mean > target * 2) { if (shift > -MaxShift) shift -= 1 }
+      }
+    }
+  }
+}
+
 /** A task support that uses a thread pool executor to schedule tasks.
  *
  *  @see [[scala.collection.parallel.TaskSupport]] for more information.
@@ -149,14 +149,14 @@ trait AdaptiveWorkStealingTasks extends Tasks {
       internal()
       release()
     } else {
-      body.tryLeaf(None)
+      AdaptiveForkJoinTaskSupport.tryLeaf(AdaptiveWorkStealingTasks.this, body, None)
       release()
     }
 
     def internal() = {
       var last = spawnSubtasks()
 
-      last.body.tryLeaf(None)
+      AdaptiveForkJoinTaskSupport.tryLeaf(AdaptiveWorkStealingTasks.this, last.body, None)
       last.release()
       body.result = last.body.result
       body.throwable = last.body.throwable
@@ -166,7 +166,7 @@ trait AdaptiveWorkStealingTasks extends Tasks {
         last = last.next
         if (last.tryCancel()) {
           // println("Done with " + beforelast.body + ", next direct is " + last.body)
-          last.body.tryLeaf(Some(body.result))
+          AdaptiveForkJoinTaskSupport.tryLeaf(AdaptiveWorkStealingTasks.this, last.body, Some(body.result))
           last.release()
         } else {
           // println("Done with " + beforelast.body + ", next sync is " + last.body)
@@ -23,6 +23,7 @@ import scala.collection.generic.GenericParCompanion
 import scala.collection.generic.GenericCompanion
 import scala.collection.immutable.{ HashSet, TrieIterator }
 import scala.collection.parallel.Task
+import scala.collection.parallel.AdaptiveForkJoinTaskSupport
 
 
 
@@ -210,7 +211,7 @@ extends scala.collection.parallel.BucketCombiner[T, ParHashSet[T], Any, HashSetC
       val fp = howmany / 2
       List(new CreateTrie(bucks, root, offset, fp), new CreateTrie(bucks, root, offset + fp, howmany - fp))
     }
-    def shouldSplitFurther = howmany > scala.collection.parallel.thresholdFromSize(root.length, combinerTaskSupport.parallelismLevel)
+    def shouldSplitFurther = AdaptiveForkJoinTaskSupport.shouldSplitFurther(combinerTaskSupport, this, howmany, root.length)
   }
 }
 
@@ -23,6 +23,7 @@ import scala.collection.parallel.Combiner
 import scala.collection.parallel.SeqSplitter
 import scala.collection.parallel.ParSeqLike
 import scala.collection.parallel.Task
+import scala.collection.parallel.AdaptiveForkJoinTaskSupport
 import scala.collection.parallel.CHECK_RATE
 import scala.collection.mutable.ArraySeq
 import scala.collection.mutable.Builder
@@ -662,7 +663,7 @@ self =>
       val fp = howmany / 2
       List(new Map(f, targetarr, offset, fp), new Map(f, targetarr, offset + fp, howmany - fp))
     }
-    def shouldSplitFurther = howmany > scala.collection.parallel.thresholdFromSize(length, tasksupport.parallelismLevel)
+    def shouldSplitFurther = AdaptiveForkJoinTaskSupport.shouldSplitFurther(tasksupport, this, howmany, length)
   }
 
   /* serialization */
@@ -16,6 +16,7 @@ import scala.collection.mutable.HashEntry
 import scala.collection.mutable.HashTable
 import scala.collection.mutable.UnrolledBuffer
 import scala.collection.parallel.Task
+import scala.collection.parallel.AdaptiveForkJoinTaskSupport
 
 /** A parallel hash map.
  *
@@ -288,7 +289,7 @@ extends scala.collection.parallel.BucketCombiner[(K, V), ParHashMap[K, V], Defau
     override def merge(that: FillBlocks) {
       this.result += that.result
     }
-    def shouldSplitFurther = howmany > scala.collection.parallel.thresholdFromSize(ParHashMapCombiner.numblocks, combinerTaskSupport.parallelismLevel)
+    def shouldSplitFurther = AdaptiveForkJoinTaskSupport.shouldSplitFurther(combinerTaskSupport, this, howmany, ParHashMapCombiner.numblocks)
   }
 }
 
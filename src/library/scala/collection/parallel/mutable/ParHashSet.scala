@@ -16,6 +16,7 @@ import scala.collection.mutable.FlatHashTable
 import scala.collection.parallel.Combiner
 import scala.collection.mutable.UnrolledBuffer
 import scala.collection.parallel.Task
+import scala.collection.parallel.AdaptiveForkJoinTaskSupport
 
 
 
@@ -312,7 +313,7 @@ with scala.collection.mutable.FlatHashTable.HashUtils[T] {
       // the total number of successfully inserted elements is adjusted accordingly
       result = (this.result._1 + that.result._1 + inserted, remainingLeftovers concat that.result._2)
     }
-    def shouldSplitFurther = howmany > scala.collection.parallel.thresholdFromSize(ParHashMapCombiner.numblocks, combinerTaskSupport.parallelismLevel)
+    def shouldSplitFurther = AdaptiveForkJoinTaskSupport.shouldSplitFurther(combinerTaskSupport, this, howmany, ParHashMapCombiner.numblocks)
   }
 
 }
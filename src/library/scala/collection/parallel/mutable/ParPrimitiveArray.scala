@@ -0,0 +1,536 @@
+/*                     __                                               *\
+**     ________ ___   / /  ___     Scala API                            **
+**    / __/ __// _ | / /  / _ |    (c) 2003-2013, LAMP/EPFL             **
+**  __\ \/ /__/ __ |/ /__/ __ |    http://scala-lang.org/               **
+** /____/\___/_/ |_/____/_/ | |                                         **
+**                          |/                                          **
+\*                                                                      */
+
+package scala
+package collection.parallel.mutable
+
+import scala.collection.generic.CanCombineFrom
+import scala.collection.parallel.Combiner
+import scala.collection.parallel.SeqSplitter
+import scala.collection.parallel.ParSeqLike
+import scala.collection.mutable.Builder
+import scala.collection.mutable.WrappedArray
+
+/** A parallel sequence holding primitive elements in a primitive array.
+ *
+ *  Unlike a `ParArray`, which keeps its elements in an `Array[Any]` and boxes
+ *  each primitive, the concrete subclasses `ParIntArray`, `ParLongArray` and
+ *  `ParDoubleArray` keep an `Array[Int]`, `Array[Long]` and `Array[Double]`.
+ *  Their splitters traverse the array without boxing in `foreach`, `count`,
+ *  `sum` and `product`, and add the elements into a `PrimitiveArrayCombiner`
+ *  unboxed in `map`, `filter` and `filterNot` whenever the result is a
+ *  parallel array of the same primitive type. Operations producing other
+ *  collections fall back to the generic, boxing implementations.
+ *
+ *  @tparam T        the primitive element type
+ *  @tparam Repr     the type of the concrete parallel array
+ *
+ *  @define Coll `ParPrimitiveArray`
+ *  @define coll primitive parallel array
+ */
+abstract class ParPrimitiveArray[T, Repr <: ParPrimitiveArray[T, Repr]]
+extends ParSeq[T]
+   with ParSeqLike[T, Repr, WrappedArray[T]]
+   with Serializable
+{
+  protected[this] def newPrimitiveCombiner: PrimitiveArrayCombiner[T, Repr]
+
+  protected[this] override def newCombiner: Combiner[T, Repr] = newPrimitiveCombiner
+
+  protected[this] override def newBuilder: Builder[T, Repr] = newPrimitiveCombiner
+
+  def seq: WrappedArray[T]
+
+  protected[parallel] def splitter: PrimitiveArraySplitter
+
+  abstract class PrimitiveArraySplitter(var i: Int, val until: Int) extends SeqSplitter[T] {
+    protected def newSplitter(from: Int, until: Int): PrimitiveArraySplitter
+
+    def hasNext = i < until
+
+    def remaining = until - i
+
+    def dup = newSplitter(i, until)
+
+    def psplit(sizesIncomplete: Int*): Seq[PrimitiveArraySplitter] = {
+      var traversed = i
+      val total = sizesIncomplete.reduceLeft(_ + _)
+      val left = remaining
+      val sizes = if (total >= left) sizesIncomplete else sizesIncomplete :+ (left - total)
+      for (sz <- sizes) yield if (traversed < until) {
+        val start = traversed
+        val end = (traversed + sz) min until
+        traversed = end
+        newSplitter(start, end)
+      } else {
+        newSplitter(traversed, traversed)
+      }
+    }
+
+    override def split: Seq[PrimitiveArraySplitter] = {
+      val left = remaining
+      if (left >= 2) {
+        val splitpoint = left / 2
+        val sq = Seq(newSplitter(i, i + splitpoint), newSplitter(i + splitpoint, until))
+        i = until
+        sq
+      } else {
+        Seq(this)
+      }
+    }
+
+    override def toString = getClass.getSimpleName + "(" + i + ", " + until + ")"
+  }
+}
+
+
+/** A parallel sequence of `Int`s backed by an `Array[Int]`.
+ *
+ *  @define Coll `ParIntArray`
+ *  @define coll parallel int array
+ */
+@SerialVersionUID(1L)
+final class ParIntArray(val array: Array[Int]) extends ParPrimitiveArray[Int, ParIntArray] {
+
+  def apply(i: Int) = array(i)
+
+  def update(i: Int, elem: Int) = array(i) = elem
+
+  def length = array.length
+
+  def seq = new WrappedArray.ofInt(array)
+
+  protected[this] def newPrimitiveCombiner = new IntArrayCombiner
+
+  protected[parallel] def splitter: IntArraySplitter = new IntArraySplitter(0, length)
+
+  class IntArraySplitter(from: Int, to: Int) extends PrimitiveArraySplitter(from, to) {
+    protected def newSplitter(from: Int, until: Int) = new IntArraySplitter(from, until)
+
+    def next = {
+      val elem = array(i)
+      i += 1
+      elem
+    }
+
+    /* overrides for efficiency */
+
+    override def foreach[U](f: Int => U) = {
+      val a = array
+      var j = i
+      while (j < until) {
+        f(a(j))
+        j += 1
+      }
+      i = until
+    }
+
+    override def count(p: Int => Boolean) = {
+      val a = array
+      var c = 0
+      var j = i
+      while (j < until) {
+        if (p(a(j))) c += 1
+        j += 1
+      }
+      i = until
+      c
+    }
+
+    override def sum[U >: Int](implicit num: Numeric[U]): U = if (num eq Numeric.IntIsIntegral) {
+      val a = array
+      var s = 0
+      var j = i
+      while (j < until) {
+        s += a(j)
+        j += 1
+      }
+      i = until
+      s
+    } else super.sum(num)
+
+    override def product[U >: Int](implicit num: Numeric[U]): U = if (num eq Numeric.IntIsIntegral) {
+      val a = array
+      var p = 1
+      var j = i
+      while (j < until) {
+        p *= a(j)
+        j += 1
+      }
+      i = until
+      p
+    } else super.product(num)
+
+    override def map2combiner[S, That](f: Int => S, cb: Combiner[S, That]): Combiner[S, That] = cb match {
+      case icb: IntArrayCombiner =>
+        // `cb` only accepts `Int`s, so `S` is `Int`
+        val g = f.asInstanceOf[Int => Int]
+        val a = array
+        var j = i
+        while (j < until) {
+          icb += g(a(j))
+          j += 1
+        }
+        i = until
+        cb
+      case _ => super.map2combiner(f, cb)
+    }
+
+    override def copy2builder[U >: Int, Coll, Bld <: Builder[U, Coll]](cb: Bld): Bld = cb match {
+      case icb: IntArrayCombiner =>
+        icb.addAll(array, i, until)
+        i = until
+        cb
+      case _ => super.copy2builder[U, Coll, Bld](cb)
+    }
+
+    override def filter2combiner[U >: Int, This](pred: Int => Boolean, cb: Combiner[U, This]): Combiner[U, This] = cb match {
+      case icb: IntArrayCombiner =>
+        filterInto(pred, true, icb)
+        cb
+      case _ => super.filter2combiner(pred, cb)
+    }
+
+    override def filterNot2combiner[U >: Int, This](pred: Int => Boolean, cb: Combiner[U, This]): Combiner[U, This] = cb match {
+      case icb: IntArrayCombiner =>
+        filterInto(pred, false, icb)
+        cb
+      case _ => super.filterNot2combiner(pred, cb)
+    }
+
+    private def filterInto(pred: Int => Boolean, keep: Boolean, icb: IntArrayCombiner) {
+      val a = array
+      var j = i
+      while (j < until) {
+        val elem = a(j)
+        if (pred(elem) == keep) icb += elem
+        j += 1
+      }
+      i = until
+    }
+  }
+}
+
+/** This object provides the combiner factory and the implicit builder factory
+ *  that keep `ParIntArray` transformations unboxed.
+ */
+object ParIntArray {
+  implicit def canBuildFrom: CanCombineFrom[ParIntArray, Int, ParIntArray] =
+    new CanCombineFrom[ParIntArray, Int, ParIntArray] {
+      def apply(from: ParIntArray) = newCombiner
+      def apply() = newCombiner
+    }
+
+  def newBuilder: Combiner[Int, ParIntArray] = newCombiner
+
+  def newCombiner: Combiner[Int, ParIntArray] = new IntArrayCombiner
+
+  /** Creates a new parallel array by wrapping the specified array.
+   */
+  def handoff(arr: Array[Int]): ParIntArray = new ParIntArray(arr)
+
+  def apply(elems: Int*): ParIntArray = new ParIntArray(elems.toArray)
+}
+
+
+/** A parallel sequence of `Long`s backed by an `Array[Long]`.
+ *
+ *  @define Coll `ParLongArray`
+ *  @define coll parallel long array
+ */
+@SerialVersionUID(1L)
+final class ParLongArray(val array: Array[Long]) extends ParPrimitiveArray[Long, ParLongArray] {
+
+  def apply(i: Int) = array(i)
+
+  def update(i: Int, elem: Long) = array(i) = elem
+
+  def length = array.length
+
+  def seq = new WrappedArray.ofLong(array)
+
+  protected[this] def newPrimitiveCombiner = new LongArrayCombiner
+
+  protected[parallel] def splitter: LongArraySplitter = new LongArraySplitter(0, length)
+
+  class LongArraySplitter(from: Int, to: Int) extends PrimitiveArraySplitter(from, to) {
+    protected def newSplitter(from: Int, until: Int) = new LongArraySplitter(from, until)
+
+    def next = {
+      val elem = array(i)
+      i += 1
+      elem
+    }
+
+    /* overrides for efficiency */
+
+    override def foreach[U](f: Long => U) = {
+      val a = array
+      var j = i
+      while (j < until) {
+        f(a(j))
+        j += 1
+      }
+      i = until
+    }
+
+    override def count(p: Long => Boolean) = {
+      val a = array
+      var c = 0
+      var j = i
+      while (j < until) {
+        if (p(a(j))) c += 1
+        j += 1
+      }
+      i = until
+      c
+    }
+
+    override def sum[U >: Long](implicit num: Numeric[U]): U = if (num eq Numeric.LongIsIntegral) {
+      val a = array
+      var s = 0L
+      var j = i
+      while (j < until) {
+        s += a(j)
+        j += 1
+      }
+      i = until
+      s
+    } else super.sum(num)
+
+    override def product[U >: Long](implicit num: Numeric[U]): U = if (num eq Numeric.LongIsIntegral) {
+      val a = array
+      var p = 1L
+      var j = i
+      while (j < until) {
+        p *= a(j)
+        j += 1
+      }
+      i = until
+      p
+    } else super.product(num)
+
+    override def map2combiner[S, That](f: Long => S, cb: Combiner[S, That]): Combiner[S, That] = cb match {
+      case lcb: LongArrayCombiner =>
+        // `cb` only accepts `Long`s, so `S` is `Long`
+        val g = f.asInstanceOf[Long => Long]
+        val a = array
+        var j = i
+        while (j < until) {
+          lcb += g(a(j))
+          j += 1
+        }
+        i = until
+        cb
+      case _ => super.map2combiner(f, cb)
+    }
+
+    override def copy2builder[U >: Long, Coll, Bld <: Builder[U, Coll]](cb: Bld): Bld = cb match {
+      case lcb: LongArrayCombiner =>
+        lcb.addAll(array, i, until)
+        i = until
+        cb
+      case _ => super.copy2builder[U, Coll, Bld](cb)
+    }
+
+    override def filter2combiner[U >: Long, This](pred: Long => Boolean, cb: Combiner[U, This]): Combiner[U, This] = cb match {
+      case lcb: LongArrayCombiner =>
+        filterInto(pred, true, lcb)
+        cb
+      case _ => super.filter2combiner(pred, cb)
+    }
+
+    override def filterNot2combiner[U >: Long, This](pred: Long => Boolean, cb: Combiner[U, This]): Combiner[U, This] = cb match {
+      case lcb: LongArrayCombiner =>
+        filterInto(pred, false, lcb)
+        cb
+      case _ => super.filterNot2combiner(pred, cb)
+    }
+
+    private def filterInto(pred: Long => Boolean, keep: Boolean, lcb: LongArrayCombiner) {
+      val a = array
+      var j = i
+      while (j < until) {
+        val elem = a(j)
+        if (pred(elem) == keep) lcb += elem
+        j += 1
+      }
+      i = until
+    }
+  }
+}
+
+/** This object provides the combiner factory and the implicit builder factory
+ *  that keep `ParLongArray` transformations unboxed.
+ */
+object ParLongArray {
+  implicit def canBuildFrom: CanCombineFrom[ParLongArray, Long, ParLongArray] =
+    new CanCombineFrom[ParLongArray, Long, ParLongArray] {
+      def apply(from: ParLongArray) = newCombiner
+      def apply() = newCombiner
+    }
+
+  def newBuilder: Combiner[Long, ParLongArray] = newCombiner
+
+  def newCombiner: Combiner[Long, ParLongArray] = new LongArrayCombiner
+
+  /** Creates a new parallel array by wrapping the specified array.
+   */
+  def handoff(arr: Array[Long]): ParLongArray = new ParLongArray(arr)
+
+  def apply(elems: Long*): ParLongArray = new ParLongArray(elems.toArray)
+}
+
+
+/** A parallel sequence of `Double`s backed by an `Array[Double]`.
+ *
+ *  @define Coll `ParDoubleArray`
+ *  @define coll parallel double array
+ */
+@SerialVersionUID(1L)
+final class ParDoubleArray(val array: Array[Double]) extends ParPrimitiveArray[Double, ParDoubleArray] {
+
+  def apply(i: Int) = array(i)
+
+  def update(i: Int, elem: Double) = array(i) = elem
+
+  def length = array.length
+
+  def seq = new WrappedArray.ofDouble(array)
+
+  protected[this] def newPrimitiveCombiner = new DoubleArrayCombiner
+
+  protected[parallel] def splitter: DoubleArraySplitter = new DoubleArraySplitter(0, length)
+
+  class DoubleArraySplitter(from: Int, to: Int) extends PrimitiveArraySplitter(from, to) {
+    protected def newSplitter(from: Int, until: Int) = new DoubleArraySplitter(from, until)
+
+    def next = {
+      val elem = array(i)
+      i += 1
+      elem
+    }
+
+    /* overrides for efficiency */
+
+    override def foreach[U](f: Double => U) = {
+      val a = array
+      var j = i
+      while (j < until) {
+        f(a(j))
+        j += 1
+      }
+      i = until
+    }
+
+    override def count(p: Double => Boolean) = {
+      val a = array
+      var c = 0
+      var j = i
+      while (j < until) {
+        if (p(a(j))) c += 1
+        j += 1
+      }
+      i = until
+      c
+    }
+
+    override def sum[U >: Double](implicit num: Numeric[U]): U = if (num eq Numeric.DoubleIsFractional) {
+      val a = array
+      var s = 0.0
+      var j = i
+      while (j < until) {
+        s += a(j)
+        j += 1
+      }
+      i = until
+      s
+    } else super.sum(num)
+
+    override def product[U >: Double](implicit num: Numeric[U]): U = if (num eq Numeric.DoubleIsFractional) {
+      val a = array
+      var p = 1.0
+      var j = i
+      while (j < until) {
+        p *= a(j)
+        j += 1
+      }
+      i = until
+      p
+    } else super.product(num)
+
+    override def map2combiner[S, That](f: Double => S, cb: Combiner[S, That]): Combiner[S, That] = cb match {
+      case dcb: DoubleArrayCombiner =>
+        // `cb` only accepts `Double`s, so `S` is `Double`
+        val g = f.asInstanceOf[Double => Double]
+        val a = array
+        var j = i
+        while (j < until) {
+          dcb += g(a(j))
+          j += 1
+        }
+        i = until
+        cb
+      case _ => super.map2combiner(f, cb)
+    }
+
+    override def copy2builder[U >: Double, Coll, Bld <: Builder[U, Coll]](cb: Bld): Bld = cb match {
+      case dcb: DoubleArrayCombiner =>
+        dcb.addAll(array, i, until)
+        i = until
+        cb
+      case _ => super.copy2builder[U, Coll, Bld](cb)
+    }
+
+    override def filter2combiner[U >: Double, This](pred: Double => Boolean, cb: Combiner[U, This]): Combiner[U, This] = cb match {
+      case dcb: DoubleArrayCombiner =>
+        filterInto(pred, true, dcb)
+        cb
+      case _ => super.filter2combiner(pred, cb)
+    }
+
+    override def filterNot2combiner[U >: Double, This](pred: Double => Boolean, cb: Combiner[U, This]): Combiner[U, This] = cb match {
+      case dcb: DoubleArrayCombiner =>
+        filterInto(pred, false, dcb)
+        cb
+      case _ => super.filterNot2combiner(pred, cb)
+    }
+
+    private def filterInto(pred: Double => Boolean, keep: Boolean, dcb: DoubleArrayCombiner) {
+      val a = array
+      var j = i
+      while (j < until) {
+        val elem = a(j)
+        if (pred(elem) == keep) dcb += elem
+        j += 1
+      }
+      i = until
+    }
+  }
+}
+
+/** This object provides the combiner factory and the implicit builder factory
+ *  that keep `ParDoubleArray` transformations unboxed.
+ */
+object ParDoubleArray {
+  implicit def canBuildFrom: CanCombineFrom[ParDoubleArray, Double, ParDoubleArray] =
+    new CanCombineFrom[ParDoubleArray, Double, ParDoubleArray] {
+      def apply(from: ParDoubleArray) = newCombiner
+      def apply() = newCombiner
+    }
+
+  def newBuilder: Combiner[Double, ParDoubleArray] = newCombiner
+
+  def newCombiner: Combiner[Double, ParDoubleArray] = new DoubleArrayCombiner
+
+  /** Creates a new parallel array by wrapping the specified array.
+   */
+  def handoff(arr: Array[Double]): ParDoubleArray = new ParDoubleArray(arr)
+
+  def apply(elems: Double*): ParDoubleArray = new ParDoubleArray(elems.toArray)
+}
@@ -74,7 +74,7 @@ extends ParMap[K, V]
     this
   }
 
-  override def size = {
+  override def size = if (ctrie.isSizeCounted) ctrie.size else {
     val in = ctrie.readRoot()
     val r = in.gcasRead(ctrie)
     r match {
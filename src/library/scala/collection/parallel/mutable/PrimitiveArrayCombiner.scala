@@ -0,0 +1,258 @@
+/*                     __                                               *\
+**     ________ ___   / /  ___     Scala API                            **
+**    / __/ __// _ | / /  / _ |    (c) 2003-2013, LAMP/EPFL             **
+**  __\ \/ /__/ __ |/ /__/ __ |    http://scala-lang.org/               **
+** /____/\___/_/ |_/____/_/ | |                                         **
+**                          |/                                          **
+\*                                                                      */
+
+package scala
+package collection.parallel.mutable
+
+import scala.collection.mutable.ArrayBuffer
+import scala.collection.parallel.Combiner
+import scala.collection.parallel.Task
+import scala.collection.parallel.AdaptiveForkJoinTaskSupport
+
+/** A combiner for the primitive parallel arrays.
+ *
+ *  Elements are appended unboxed into a chunk of a primitive array. A full
+ *  chunk is never copied to grow it - it is put aside and a new, larger chunk is
+ *  started instead. Combining two combiners concatenates their chunk lists, and
+ *  `result` computes the offset of every chunk in the final array and copies
+ *  the chunks into it in parallel, or hands the only chunk off directly if it
+ *  is exactly full.
+ *
+ *  @tparam T       the primitive element type
+ *  @tparam Repr    the primitive parallel array the combiner produces
+ */
+abstract class PrimitiveArrayCombiner[T, Repr] extends Combiner[T, Repr] {
+  import PrimitiveArrayCombiner._
+
+  /* chunks that are no longer appended to, and the number of elements in each */
+  private val chunks = new ArrayBuffer[AnyRef]
+  private val sizes = new ArrayBuffer[Int]
+  private var sealedSize = 0
+
+  /** The number of elements in the chunk currently being appended to. */
+  protected def currentSize: Int
+
+  /** Puts the current chunk aside with `seal` and starts a new one of the given length. */
+  protected[mutable] def sealCurrent(nextLength: Int): Unit
+
+  protected def clearCurrent(): Unit
+
+  protected def newArray(length: Int): AnyRef
+
+  protected def wrap(array: AnyRef): Repr
+
+  protected final def seal(chunk: AnyRef, size: Int) = if (size > 0) {
+    chunks += chunk
+    sizes += size
+    sealedSize += size
+  }
+
+  protected final def nextChunkLength(current: Int) = math.min(current * 2, MaxChunkLength)
+
+  def size = sealedSize + currentSize
+
+  def clear() = {
+    chunks.clear()
+    sizes.clear()
+    sealedSize = 0
+    clearCurrent()
+  }
+
+  def combine[N <: T, NewTo >: Repr](other: Combiner[N, NewTo]): Combiner[N, NewTo] = if (this ne other) {
+    if (other.getClass eq getClass) {
+      val that = other.asInstanceOf[PrimitiveArrayCombiner[T, Repr]]
+      sealCurrent(InitialChunkLength)
+      that.sealCurrent(InitialChunkLength)
+      chunks ++= that.chunks
+      sizes ++= that.sizes
+      sealedSize += that.sealedSize
+      this
+    } else throw new UnsupportedOperationException("Cannot combine with combiner of different type.")
+  } else this
+
+  def result(): Repr = {
+    sealCurrent(InitialChunkLength)
+    if (chunks.length == 1 && java.lang.reflect.Array.getLength(chunks(0)) == sizes(0)) wrap(chunks(0))
+    else {
+      val array = newArray(sealedSize)
+      if (chunks.length > 1) {
+        val offsets = new Array[Int](chunks.length)
+        var i = 1
+        while (i < chunks.length) {
+          offsets(i) = offsets(i - 1) + sizes(i - 1)
+          i += 1
+        }
+        combinerTaskSupport.executeAndWaitResult(new CopyChunksToArray(array, 0, sealedSize, offsets))
+      } else if (chunks.length == 1) System.arraycopy(chunks(0), 0, array, 0, sizes(0))
+      wrap(array)
+    }
+  }
+
+  override def toString = getClass.getSimpleName + "(" + size + ")"
+
+  /* tasks */
+
+  /** Copies the elements between `offset` and `offset + howmany` of the result
+   *  from the chunks into `array`. Each chunk starts at its entry in `offsets`.
+   */
+  class CopyChunksToArray(array: AnyRef, offset: Int, howmany: Int, offsets: Array[Int])
+  extends Task[Unit, CopyChunksToArray] {
+    var result = ()
+
+    def leaf(prev: Option[Unit]) = if (howmany > 0) {
+      // the last chunk starting at or before `offset`
+      var chunk = java.util.Arrays.binarySearch(offsets, offset)
+      if (chunk < 0) chunk = -chunk - 2
+      var ind = offset - offsets(chunk)
+      var arrayIndex = offset
+      var totalleft = howmany
+      while (totalleft > 0) {
+        val n = math.min(totalleft, sizes(chunk) - ind)
+        System.arraycopy(chunks(chunk), ind, array, arrayIndex, n)
+        arrayIndex += n
+        totalleft -= n
+        chunk += 1
+        ind = 0
+      }
+    }
+    def split = {
+      val fp = howmany / 2
+      List(new CopyChunksToArray(array, offset, fp, offsets), new CopyChunksToArray(array, offset + fp, howmany - fp, offsets))
+    }
+    def shouldSplitFurther = AdaptiveForkJoinTaskSupport.shouldSplitFurther(combinerTaskSupport, this, howmany, sealedSize)
+    override def toString = "CopyChunksToArray(" + offset + ", " + howmany + ")"
+  }
+}
+
+object PrimitiveArrayCombiner {
+  private[mutable] final val InitialChunkLength = 16
+  private[mutable] final val MaxChunkLength = 1 << 16
+}
+
+final class IntArrayCombiner extends PrimitiveArrayCombiner[Int, ParIntArray] {
+  import PrimitiveArrayCombiner._
+
+  private var chunk = new Array[Int](InitialChunkLength)
+  private var pos = 0
+
+  protected def currentSize = pos
+
+  protected def clearCurrent() = pos = 0
+
+  protected[mutable] def sealCurrent(nextLength: Int) = if (pos > 0) {
+    seal(chunk, pos)
+    chunk = new Array[Int](nextLength)
+    pos = 0
+  }
+
+  protected def newArray(length: Int) = new Array[Int](length)
+
+  protected def wrap(array: AnyRef) = new ParIntArray(array.asInstanceOf[Array[Int]])
+
+  def +=(elem: Int): this.type = {
+    if (pos == chunk.length) sealCurrent(nextChunkLength(chunk.length))
+    chunk(pos) = elem
+    pos += 1
+    this
+  }
+
+  /** Appends the elements of `xs` between `from` and `until`. */
+  def addAll(xs: Array[Int], from: Int, until: Int): this.type = {
+    var i = from
+    while (i < until) {
+      if (pos == chunk.length) sealCurrent(nextChunkLength(chunk.length))
+      val n = math.min(until - i, chunk.length - pos)
+      System.arraycopy(xs, i, chunk, pos, n)
+      pos += n
+      i += n
+    }
+    this
+  }
+}
+
+final class LongArrayCombiner extends PrimitiveArrayCombiner[Long, ParLongArray] {
+  import PrimitiveArrayCombiner._
+
+  private var chunk = new Array[Long](InitialChunkLength)
+  private var pos = 0
+
+  protected def currentSize = pos
+
+  protected def clearCurrent() = pos = 0
+
+  protected[mutable] def sealCurrent(nextLength: Int) = if (pos > 0) {
+    seal(chunk, pos)
+    chunk = new Array[Long](nextLength)
+    pos = 0
+  }
+
+  protected def newArray(length: Int) = new Array[Long](length)
+
+  protected def wrap(array: AnyRef) = new ParLongArray(array.asInstanceOf[Array[Long]])
+
+  def +=(elem: Long): this.type = {
+    if (pos == chunk.length) sealCurrent(nextChunkLength(chunk.length))
+    chunk(pos) = elem
+    pos += 1
+    this
+  }
+
+  /** Appends the elements of `xs` between `from` and `until`. */
+  def addAll(xs: Array[Long], from: Int, until: Int): this.type = {
+    var i = from
+    while (i < until) {
+      if (pos == chunk.length) sealCurrent(nextChunkLength(chunk.length))
+      val n = math.min(until - i, chunk.length - pos)
+      System.arraycopy(xs, i, chunk, pos, n)
+      pos += n
+      i += n
+    }
+    this
+  }
+}
+
+final class DoubleArrayCombiner extends PrimitiveArrayCombiner[Double, ParDoubleArray] {
+  import PrimitiveArrayCombiner._
+
+  private var chunk = new Array[Double](InitialChunkLength)
+  private var pos = 0
+
+  protected def currentSize = pos
+
+  protected def clearCurrent() = pos = 0
+
+  protected[mutable] def sealCurrent(nextLength: Int) = if (pos > 0) {
+    seal(chunk, pos)
+    chunk = new Array[Double](nextLength)
+    pos = 0
+  }
+
+  protected def newArray(length: Int) = new Array[Double](length)
+
+  protected def wrap(array: AnyRef) = new ParDoubleArray(array.asInstanceOf[Array[Double]])
+
+  def +=(elem: Double): this.type = {
+    if (pos == chunk.length) sealCurrent(nextChunkLength(chunk.length))
+    chunk(pos) = elem
+    pos += 1
+    this
+  }
+
+  /** Appends the elements of `xs` between `from` and `until`. */
+  def addAll(xs: Array[Double], from: Int, until: Int): this.type = {
+    var i = from
+    while (i < until) {
+      if (pos == chunk.length) sealCurrent(nextChunkLength(chunk.length))
+      val n = math.min(until - i, chunk.length - pos)
+      System.arraycopy(xs, i, chunk, pos, n)
+      pos += n
+      i += n
+    }
+    this
+  }
+}
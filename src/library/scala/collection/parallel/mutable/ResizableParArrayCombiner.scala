@@ -18,6 +18,7 @@ import scala.collection.parallel.TaskSupport
 import scala.collection.parallel.unsupportedop
 import scala.collection.parallel.Combiner
 import scala.collection.parallel.Task
+import scala.collection.parallel.AdaptiveForkJoinTaskSupport
 
 
 
@@ -33,7 +34,7 @@ trait ResizableParArrayCombiner[T] extends LazyCombiner[T, ParArray[T], ExposedA
     val arrayseq = new ArraySeq[T](size)
     val array = arrayseq.array.asInstanceOf[Array[Any]]
 
-    combinerTaskSupport.executeAndWaitResult(new CopyChainToArray(array, 0, size))
+    combinerTaskSupport.executeAndWaitResult(new CopyChainToArray(array, 0, size, chainOffsets))
 
     new ParArray(arrayseq)
   } else { // optimisation if there is only 1 array
@@ -42,9 +43,25 @@ trait ResizableParArrayCombiner[T] extends LazyCombiner[T, ParArray[T], ExposedA
 
   override def toString = "ResizableParArrayCombiner(" + size + "): " //+ chain
 
+  /** The position of each buffer of the chain in the resulting array, so that
+   *  the copying tasks can find where to start in logarithmic time.
+   */
+  private def chainOffsets: Array[Int] = {
+    val offsets = new Array[Int](chain.length)
+    var i = 1
+    while (i < chain.length) {
+      offsets(i) = offsets(i - 1) + chain(i - 1).size
+      i += 1
+    }
+    offsets
+  }
+
   /* tasks */
 
-  class CopyChainToArray(array: Array[Any], offset: Int, howmany: Int) extends Task[Unit, CopyChainToArray] {
+  class CopyChainToArray(array: Array[Any], offset: Int, howmany: Int, offsets: Array[Int]) extends Task[Unit, CopyChainToArray] {
+    // the constructor of 2.11.0, kept for binary compatibility
+    def this(array: Array[Any], offset: Int, howmany: Int) = this(array, offset, howmany, null)
+    private[this] val starts = if (offsets ne null) offsets else chain.scanLeft(0)(_ + _.size).init.toArray
     var result = ()
     def leaf(prev: Option[Unit]) = if (howmany > 0) {
       var totalleft = howmany
@@ -70,19 +87,20 @@ trait ResizableParArrayCombiner[T] extends LazyCombiner[T, ParArray[T], ExposedA
       Array.copy(buffarr, buffStart, ra, arrayStart, until - buffStart)
     }
     private def findStart(pos: Int) = {
-      var left = pos
-      var buffind = 0
-      while (left >= chain(buffind).size) {
-        left -= chain(buffind).size
-        buffind += 1
+      // the last buffer starting at or before `pos` - empty buffers share their offset with the next one
+      var lo = 0
+      var hi = starts.length - 1
+      while (lo < hi) {
+        val mid = (lo + hi + 1) >>> 1
+        if (starts(mid) <= pos) lo = mid else hi = mid - 1
       }
-      (buffind, left)
+      (lo, pos - starts(lo))
     }
     def split = {
       val fp = howmany / 2
-      List(new CopyChainToArray(array, offset, fp), new CopyChainToArray(array, offset + fp, howmany - fp))
+      List(new CopyChainToArray(array, offset, fp, starts), new CopyChainToArray(array, offset + fp, howmany - fp, starts))
     }
-    def shouldSplitFurther = howmany > scala.collection.parallel.thresholdFromSize(size, combinerTaskSupport.parallelismLevel)
+    def shouldSplitFurther = AdaptiveForkJoinTaskSupport.shouldSplitFurther(combinerTaskSupport, this, howmany, size)
   }
 }
 
@@ -28,7 +28,8 @@ import scala.annotation.tailrec
  * or fast enough not to benefit from it; while
  * `fromExecutor` and `fromExecutorService` do NOT add
  * this optimization since they don't know whether the underlying
- * executor will benefit from it.
+ * executor will benefit from it; `ExecutionContext.batching` adds it
+ * to any `ExecutionContext`.
  * A batching executor can create deadlocks if code does
  * not use `scala.concurrent.blocking` when it should,
  * because tasks created within other tasks will block
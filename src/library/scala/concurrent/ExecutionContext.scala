@@ -125,7 +125,7 @@ object ExecutionContext {
      * The default `ExecutionContext` implementation is backed by a port of
      * [[http://gee.cs.oswego.edu/dl/jsr166/dist/jsr166-4jdk7docs/java/util/concurrent/ForkJoinPool.html java.util.concurrent.ForkJoinPool]].
      */
-    implicit lazy val global: ExecutionContextExecutor = impl.ExecutionContextImpl.fromExecutor(null: Executor)
+    implicit lazy val global: ExecutionContextExecutor = impl.ExecutionContextImpl.createGlobal()
   }
 
   /** Creates an `ExecutionContext` from the given `ExecutorService`.
@@ -168,6 +168,34 @@ object ExecutionContext {
    */
   def fromExecutor(e: Executor): ExecutionContextExecutor = fromExecutor(e, defaultReporter)
 
+  /** Creates an `ExecutionContext` which batches the `Future` callbacks it is given.
+   *
+   *  A callback (such as the function passed to `map`, `flatMap` or `onComplete`) which is
+   *  submitted while another callback is running on this context is not handed to
+   *  `underlying`, but queued and run on the current thread once the running callback
+   *  returns. A pipeline of short transformations therefore costs one submission to
+   *  `underlying` instead of one per step. Other tasks, such as the bodies of `Future.apply`,
+   *  are always handed to `underlying`.
+   *
+   *  If a callback calls `blocking`, the callbacks queued behind it are handed back to
+   *  `underlying` before it blocks. Callbacks which block without `blocking`, or which run
+   *  for a long time, hold up the callbacks queued behind them.
+   *
+   *  {{{
+   *  implicit val ec = ExecutionContext.batching(ExecutionContext.global)
+   *  Future(compute()).map(parse).map(validate).foreach(store)
+   *  }}}
+   *
+   *  The `execute` method of `underlying` must not run the given task synchronously, on
+   *  the calling thread; it must enqueue or hand it off. Each call of this method creates
+   *  a separate context, so a context should be created once and then shared.
+   *
+   *  @param underlying  the `ExecutionContext` which runs the batches
+   *  @return            the batching `ExecutionContext`
+   */
+  def batching(underlying: ExecutionContext): ExecutionContextExecutor =
+    new impl.ExecutionContextImpl.BatchingExecutionContext(underlying)
+
   /** The default reporter simply prints the stack trace of the `Throwable` to [[http://docs.oracle.com/javase/8/docs/api/java/lang/System.html#err System.err]].
    *
    *  @return the function for error reporting
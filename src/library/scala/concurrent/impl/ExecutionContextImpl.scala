@@ -13,7 +13,7 @@ package scala.concurrent.impl
 import java.util.concurrent.{ LinkedBlockingQueue, Callable, Executor, ExecutorService, Executors, ThreadFactory, TimeUnit, ThreadPoolExecutor }
 import java.util.Collection
 import scala.concurrent.forkjoin._
-import scala.concurrent.{ BlockContext, ExecutionContext, Awaitable, CanAwait, ExecutionContextExecutor, ExecutionContextExecutorService }
+import scala.concurrent.{ BatchingExecutor, BlockContext, ExecutionContext, Awaitable, CanAwait, ExecutionContextExecutor, ExecutionContextExecutorService }
 import scala.util.control.NonFatal
 
 
@@ -74,11 +74,12 @@ private[scala] class ExecutionContextImpl private[impl] (es: Executor, reporter:
     val threadFactory = new DefaultThreadFactory(daemonic = true)
 
     try {
-      new ForkJoinPool(
+      val pool = new ForkJoinPool(
         desiredParallelism,
         threadFactory,
         uncaughtExceptionHandler,
         true) // Async all the way baby
+      pool
     } catch {
       case NonFatal(t) =>
         System.err.println("Failed to create ForkJoinPool for the default ExecutionContext, falling back to ThreadPoolExecutor")
@@ -129,6 +130,33 @@ private[concurrent] object ExecutionContextImpl {
           }
         }
 
+  /** Runs `Future` callbacks submitted from within a callback in the same batch, on
+   *  the thread that is already running it, and hands every other task, and every
+   *  new batch, to `underlying`.
+   */
+  final class BatchingExecutionContext(underlying: ExecutionContext) extends ExecutionContextExecutor with BatchingExecutor {
+    override protected def unbatchedExecute(r: Runnable): Unit = underlying.execute(r)
+    override def reportFailure(t: Throwable): Unit = underlying.reportFailure(t)
+    // keep batching on top of whatever `underlying` captures when it is prepared
+    override def prepare(): ExecutionContext = underlying.prepare() match {
+      case `underlying` => this
+      case prepared     => new BatchingExecutionContext(prepared)
+    }
+  }
+
+  /** Creates the context behind `ExecutionContext.global`. When pools are instrumented, its pool,
+   *  which is never shut down, makes its statistics visible over JMX.
+   */
+  def createGlobal(): ExecutionContextImpl = {
+    val ec = fromExecutor(null: Executor)
+    ec.executor match {
+      case pool: ForkJoinPool if ForkJoinPool.isInstrumented =>
+        try pool.registerMXBean() catch { case NonFatal(t) => ec.reportFailure(t) }
+      case _ =>
+    }
+    ec
+  }
+
   def fromExecutor(e: Executor, reporter: Throwable => Unit = ExecutionContext.defaultReporter): ExecutionContextImpl = new ExecutionContextImpl(e, reporter)
   def fromExecutorService(es: ExecutorService, reporter: Throwable => Unit = ExecutionContext.defaultReporter): ExecutionContextImpl with ExecutionContextExecutorService =
     new ExecutionContextImpl(es, reporter) with ExecutionContextExecutorService {
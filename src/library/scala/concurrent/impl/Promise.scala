@@ -8,7 +8,7 @@
 
 package scala.concurrent.impl
 
-import scala.concurrent.{ ExecutionContext, CanAwait, OnCompleteRunnable, TimeoutException, ExecutionException, blocking }
+import scala.concurrent.{ ExecutionContext, CanAwait, OnCompleteRunnable, TimeoutException, ExecutionException, BlockContext, BatchingExecutor, blocking }
 import scala.concurrent.Future.InternalCallbackExecutor
 import scala.concurrent.duration.{ Duration, Deadline, FiniteDuration, NANOSECONDS }
 import scala.annotation.tailrec
@@ -27,20 +27,72 @@ private class CallbackRunnable[T](val executor: ExecutionContext, val onComplete
   // must be filled in before running it
   var value: Try[T] = null
 
+  // the callback registered before this one, while this callback is waiting on a promise
+  var next: CallbackRunnable[T] = null
+
   override def run() = {
     require(value ne null) // must set value to non-null before running!
     try onComplete(value) catch { case NonFatal(e) => executor reportFailure e }
   }
 
-  def executeWithValue(v: Try[T]): Unit = {
+  def setValue(v: Try[T]): Unit = {
     require(value eq null) // can't complete it twice
     value = v
+  }
+
+  def executeWithValue(v: Try[T]): Unit = {
+    setValue(v)
     // Note that we cannot prepare the ExecutionContext at this point, since we might
     // already be running on a different thread!
     try executor.execute(this) catch { case NonFatal(t) => executor reportFailure t }
   }
 }
 
+/* Runs a chain of callbacks, linked through `next`, which share the same prepared `executor`
+ * and have their values set. Only used with a `BatchingExecutor`, which runs the callbacks
+ * submitted from a callback one after the other on the same thread anyway; any other executor
+ * gets one task per callback, since a callback may wait for a sibling to run.
+ * If one of the callbacks blocks, or throws, the remaining callbacks are handed back to the
+ * executor as a new batch.
+ */
+private final class CallbackBatch[T](executor: ExecutionContext, first: CallbackRunnable[T]) extends Runnable with OnCompleteRunnable with BlockContext {
+  private[this] var rest: CallbackRunnable[T] = first
+  private[this] var parentBlockContext: BlockContext = _
+
+  // this method runs in the executor's thread
+  override def run(): Unit = {
+    val prevBlockContext = BlockContext.current
+    BlockContext.withBlockContext(this) {
+      try {
+        parentBlockContext = prevBlockContext
+        while (rest ne null) {
+          val callback = rest
+          rest = callback.next
+          callback.next = null
+          try callback.run() catch {
+            case t: Throwable =>
+              handOff() // move the remaining callbacks to another thread so we can rethrow
+              throw t
+          }
+        }
+      } finally parentBlockContext = null
+    }
+  }
+
+  private def handOff(): Unit = if (rest ne null) {
+    val remaining = rest
+    rest = null
+    try executor.execute(new CallbackBatch(executor, remaining)) catch { case NonFatal(t) => executor reportFailure t }
+  }
+
+  override def blockOn[R](thunk: => R)(implicit permission: CanAwait): R = {
+    // don't keep the remaining callbacks waiting behind a blocked one
+    handOff()
+    require(parentBlockContext ne null)
+    parentBlockContext.blockOn(thunk)
+  }
+}
+
 private[concurrent] object Promise {
 
   private def resolveTry[T](source: Try[T]): Try[T] = source match {
@@ -92,11 +144,16 @@ private[concurrent] object Promise {
    *  AbstractPromise. The type of object stored in the cell fully describes the
    *  current state of the promise.
    *
-   *  1. List[CallbackRunnable] - The promise is incomplete and has zero or more callbacks
-   *     to call when it is eventually completed.
+   *  1. Nil - The promise is incomplete and has no callbacks.
+   *     CallbackRunnable[T] - The promise is incomplete and has one or more callbacks
+   *     to call when it is eventually completed. The callbacks form a stack linked through
+   *     their `next` fields, with the most recently added callback on top.
    *  2. Try[T] - The promise is complete and now contains its value.
    *  3. DefaultPromise[T] - The promise is linked to another promise.
    *
+   * When the promise is completed, the callbacks which share a batching ExecutionContext
+   * are submitted to it as a single batch instead of as one task per callback.
+   *
    * The ability to link DefaultPromises is needed to prevent memory leaks when
    * using Future.flatMap. The previous implementation of Future.flatMap used
    * onComplete handlers to propagate the ultimate value of a flatMap operation
@@ -243,20 +300,19 @@ private[concurrent] object Promise {
     def tryComplete(value: Try[T]): Boolean = {
       val resolved = resolveTry(value)
       tryCompleteAndGetListeners(resolved) match {
-        case null             => false
-        case rs if rs.isEmpty => true
-        case rs               => rs.foreach(r => r.executeWithValue(resolved)); true
+        case null                      => false
+        case head: CallbackRunnable[_] => dispatch(head.asInstanceOf[CallbackRunnable[T]], resolved); true
+        case _                         => true
       }
     }
 
-    /** Called by `tryComplete` to store the resolved value and get the list of
-     *  listeners, or `null` if it is already completed.
+    /** Called by `tryComplete` to store the resolved value and get the stack of
+     *  listeners (`Nil` if there are none), or `null` if it is already completed.
      */
     @tailrec
-    private def tryCompleteAndGetListeners(v: Try[T]): List[CallbackRunnable[T]] = {
+    private def tryCompleteAndGetListeners(v: Try[T]): AnyRef = {
       getState match {
-        case raw: List[_] =>
-          val cur = raw.asInstanceOf[List[CallbackRunnable[T]]]
+        case cur @ (Nil | _: CallbackRunnable[_]) =>
           if (updateState(cur, v)) cur else tryCompleteAndGetListeners(v)
         case _: DefaultPromise[_] =>
           compressedRoot().tryCompleteAndGetListeners(v)
@@ -264,6 +320,54 @@ private[concurrent] object Promise {
       }
     }
 
+    /** Runs the detached stack of callbacks starting at `head` with the value `v`,
+     *  in the order in which they were added. Callbacks which share a `BatchingExecutor`
+     *  are submitted to it together, as one `CallbackBatch`, at the position of the first
+     *  one; every other callback is submitted as a task of its own.
+     */
+    private def dispatch(head: CallbackRunnable[T], v: Try[T]): Unit =
+      if (head.next eq null) head.executeWithValue(v)
+      else {
+        var rest: CallbackRunnable[T] = null
+        var cur = head
+        while (cur ne null) { // reverse the stack
+          val next = cur.next
+          cur.next = rest
+          rest = cur
+          cur = next
+        }
+        while (rest ne null) rest.executor match {
+          case executor: BatchingExecutor =>
+            val group = rest
+            var last = group
+            var others: CallbackRunnable[T] = null
+            var othersLast: CallbackRunnable[T] = null
+            cur = group.next
+            group.next = null
+            group.setValue(v)
+            while (cur ne null) {
+              val next = cur.next
+              cur.next = null
+              if (cur.executor eq executor) {
+                cur.setValue(v)
+                last.next = cur
+                last = cur
+              } else {
+                if (others eq null) others = cur else othersLast.next = cur
+                othersLast = cur
+              }
+              cur = next
+            }
+            try executor.execute(new CallbackBatch(executor, group)) catch { case NonFatal(t) => executor reportFailure t }
+            rest = others
+          case _ =>
+            val callback = rest
+            rest = callback.next
+            callback.next = null
+            callback.executeWithValue(v)
+        }
+      }
+
     def onComplete[U](func: Try[T] => U)(implicit executor: ExecutionContext): Unit = {
       val preparedEC = executor.prepare()
       val runnable = new CallbackRunnable[T](preparedEC, func)
@@ -279,7 +383,9 @@ private[concurrent] object Promise {
       getState match {
         case r: Try[_]          => runnable.executeWithValue(r.asInstanceOf[Try[T]])
         case _: DefaultPromise[_] => compressedRoot().dispatchOrAddCallback(runnable)
-        case listeners: List[_] => if (updateState(listeners, runnable :: listeners)) () else dispatchOrAddCallback(runnable)
+        case listeners =>
+          runnable.next = if (listeners eq Nil) null else listeners.asInstanceOf[CallbackRunnable[T]]
+          if (updateState(listeners, runnable)) () else dispatchOrAddCallback(runnable)
       }
     }
 
@@ -308,8 +414,15 @@ private[concurrent] object Promise {
           }
         case _: DefaultPromise[_] =>
           compressedRoot().link(target)
-        case listeners: List[_] => if (updateState(listeners, target)) {
-          if (!listeners.isEmpty) listeners.asInstanceOf[List[CallbackRunnable[T]]].foreach(target.dispatchOrAddCallback(_))
+        case listeners => if (updateState(listeners, target)) {
+          if (listeners ne Nil) {
+            var cur = listeners.asInstanceOf[CallbackRunnable[T]]
+            while (cur ne null) {
+              val next = cur.next // read before the callback is pushed onto the target's stack
+              target.dispatchOrAddCallback(cur)
+              cur = next
+            }
+          }
         } else link(target)
       }
     }
@@ -43,17 +43,65 @@ public final class BoxesRunTime
         return OTHER;
     }
 
+    /** Type codes used by `equals2` and `hashFromObject`. Unlike `typeCode`,
+     *  they tell apart the boxes of primitive types (CHAR to DOUBLE), other
+     *  numbers, other objects and null, so that both operands of an equality
+     *  are classified with a single lookup each.
+     */
+    private static final int OTHER_NUMBER = 8, NOT_NUMBER = 9, NULL = 10;
+
+    private static int eqTypeCode(Object a) {
+        if (a instanceof java.lang.Number) {
+            Class<?> c = a.getClass();
+            if (c == java.lang.Integer.class) return INT;
+            if (c == java.lang.Double.class) return DOUBLE;
+            if (c == java.lang.Long.class) return LONG;
+            if (c == java.lang.Float.class) return FLOAT;
+            if (c == java.lang.Byte.class || c == java.lang.Short.class) return INT;
+            return OTHER_NUMBER;
+        }
+        if (a instanceof java.lang.Character) return CHAR;
+        return a == null ? NULL : NOT_NUMBER;
+    }
+
     private static String boxDescription(Object a) {
       return "" + a.getClass().getSimpleName() + "(" + a + ")";
     }
 
 /* BOXING ... BOXING ... BOXING ... BOXING ... BOXING ... BOXING ... BOXING ... BOXING */
 
+    /** The largest value boxed from the box caches of `boxToInteger`, `boxToLong`
+     *  and `boxToCharacter`, set with the system property `scala.runtime.boxCacheHigh`
+     *  (at most 65535). Values outside of the range of the JVM's own caches (-128 to 127)
+     *  are boxed once, on first use. The default, 127, only uses the JVM's caches.
+     */
+    private static final int BOX_CACHE_HIGH = boxCacheHigh();
+
+    private static final java.lang.Integer[] INTEGER_CACHE = BOX_CACHE_HIGH > 127 ? new java.lang.Integer[BOX_CACHE_HIGH - 127] : null;
+    private static final java.lang.Long[] LONG_CACHE = BOX_CACHE_HIGH > 127 ? new java.lang.Long[BOX_CACHE_HIGH - 127] : null;
+    private static final java.lang.Character[] CHARACTER_CACHE = BOX_CACHE_HIGH > 127 ? new java.lang.Character[BOX_CACHE_HIGH - 127] : null;
+
+    private static int boxCacheHigh() {
+        try {
+            java.lang.Integer high = java.lang.Integer.getInteger("scala.runtime.boxCacheHigh");
+            if (high == null) return 127;
+            return Math.min(Math.max(high.intValue(), 127), 65535);
+        } catch (SecurityException e) {
+            return 127;
+        }
+    }
+
     public static java.lang.Boolean boxToBoolean(boolean b) {
         return java.lang.Boolean.valueOf(b);
     }
 
     public static java.lang.Character boxToCharacter(char c) {
+        if (c > 127 && c <= BOX_CACHE_HIGH) {
+            // boxes are immutable, so racing threads at worst allocate a box twice
+            java.lang.Character box = CHARACTER_CACHE[c - 128];
+            if (box == null) CHARACTER_CACHE[c - 128] = box = new java.lang.Character(c);
+            return box;
+        }
         return java.lang.Character.valueOf(c);
     }
 
@@ -66,10 +114,21 @@ public final class BoxesRunTime
     }
 
     public static java.lang.Integer boxToInteger(int i) {
+        if (i > 127 && i <= BOX_CACHE_HIGH) {
+            java.lang.Integer box = INTEGER_CACHE[i - 128];
+            if (box == null) INTEGER_CACHE[i - 128] = box = new java.lang.Integer(i);
+            return box;
+        }
         return java.lang.Integer.valueOf(i);
     }
 
     public static java.lang.Long boxToLong(long l) {
+        if (l > 127 && l <= BOX_CACHE_HIGH) {
+            int index = (int) l - 128;
+            java.lang.Long box = LONG_CACHE[index];
+            if (box == null) LONG_CACHE[index] = box = new java.lang.Long(l);
+            return box;
+        }
         return java.lang.Long.valueOf(l);
     }
 
@@ -127,15 +186,36 @@ public final class BoxesRunTime
 
     /** Since all applicable logic has to be present in the equals method of a ScalaNumber
      *  in any case, we dispatch to it as soon as we spot one on either side.
+     *
+     *  Both operands are classified once, boxes of primitive values are compared
+     *  in the widest of their two types. This is equivalent to dispatching through
+     *  `equalsNumObject` and `equalsCharObject`, without repeating the type tests.
      */
     public static boolean equals2(Object x, Object y) {
-        if (x instanceof java.lang.Number)
-            return equalsNumObject((java.lang.Number)x, y);
-        if (x instanceof java.lang.Character)
-            return equalsCharObject((java.lang.Character)x, y);
-        if (x == null)
+        int xcode = eqTypeCode(x);
+        if (xcode == NOT_NUMBER)
+            return x.equals(y);
+        if (xcode == NULL)
             return y == null;
 
+        int ycode = eqTypeCode(y);
+        if (xcode <= DOUBLE && ycode <= DOUBLE) {
+            switch (ycode > xcode ? ycode : xcode) {
+            case CHAR:
+                return ((java.lang.Character)x).charValue() == ((java.lang.Character)y).charValue();
+            case INT:
+                return unboxCharOrInt(x, xcode) == unboxCharOrInt(y, ycode);
+            case LONG:
+                return unboxCharOrLong(x, xcode) == unboxCharOrLong(y, ycode);
+            case FLOAT:
+                return unboxCharOrFloat(x, xcode) == unboxCharOrFloat(y, ycode);
+            default:
+                return unboxCharOrDouble(x, xcode) == unboxCharOrDouble(y, ycode);
+            }
+        }
+        // x or y is not a box of a primitive value
+        if (ycode == OTHER_NUMBER && (xcode == CHAR || ((y instanceof ScalaNumber) && !(x instanceof ScalaNumber))))
+            return y.equals(x);
         return x.equals(y);
     }
 
@@ -262,8 +342,12 @@ public final class BoxesRunTime
       else return n.hashCode();
     }
     public static int hashFromObject(Object a) {
-      if (a instanceof Number) return hashFromNumber((Number)a);
-      else return a.hashCode();
+      switch (eqTypeCode(a)) {
+        case LONG: return hashFromLong((java.lang.Long)a);
+        case DOUBLE: return hashFromDouble((java.lang.Double)a);
+        case FLOAT: return hashFromFloat((java.lang.Float)a);
+        default: return a.hashCode();
+      }
     }
 
     private static int unboxCharOrInt(Object arg1, int code) {
@@ -86,4 +86,192 @@ public final class Statics {
 
     return x.hashCode();
   }
+
+  /* Bulk hashing of arrays. Each method mixes the `##` of the elements from
+   * `from` (inclusive) to `until` (exclusive) into `seed`, like
+   * MurmurHash3.orderedHash over the boxed elements, and finalizes the hash
+   * with the number of elements. The loops process four elements per
+   * iteration, the order in which they are mixed is the same. */
+
+  public static int intArrayHash(int[] a, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      h = mix(h, a[i]);
+      h = mix(h, a[i + 1]);
+      h = mix(h, a[i + 2]);
+      h = mix(h, a[i + 3]);
+    }
+    for (; i < until; i++)
+      h = mix(h, a[i]);
+    return finalizeHash(h, until - from);
+  }
+
+  public static int longArrayHash(long[] a, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      h = mix(h, longHash(a[i]));
+      h = mix(h, longHash(a[i + 1]));
+      h = mix(h, longHash(a[i + 2]));
+      h = mix(h, longHash(a[i + 3]));
+    }
+    for (; i < until; i++)
+      h = mix(h, longHash(a[i]));
+    return finalizeHash(h, until - from);
+  }
+
+  public static int doubleArrayHash(double[] a, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      h = mix(h, boxedDoubleHash(a[i]));
+      h = mix(h, boxedDoubleHash(a[i + 1]));
+      h = mix(h, boxedDoubleHash(a[i + 2]));
+      h = mix(h, boxedDoubleHash(a[i + 3]));
+    }
+    for (; i < until; i++)
+      h = mix(h, boxedDoubleHash(a[i]));
+    return finalizeHash(h, until - from);
+  }
+
+  public static int floatArrayHash(float[] a, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      h = mix(h, floatHash(a[i]));
+      h = mix(h, floatHash(a[i + 1]));
+      h = mix(h, floatHash(a[i + 2]));
+      h = mix(h, floatHash(a[i + 3]));
+    }
+    for (; i < until; i++)
+      h = mix(h, floatHash(a[i]));
+    return finalizeHash(h, until - from);
+  }
+
+  public static int charArrayHash(char[] a, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      h = mix(h, a[i]);
+      h = mix(h, a[i + 1]);
+      h = mix(h, a[i + 2]);
+      h = mix(h, a[i + 3]);
+    }
+    for (; i < until; i++)
+      h = mix(h, a[i]);
+    return finalizeHash(h, until - from);
+  }
+
+  public static int shortArrayHash(short[] a, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      h = mix(h, a[i]);
+      h = mix(h, a[i + 1]);
+      h = mix(h, a[i + 2]);
+      h = mix(h, a[i + 3]);
+    }
+    for (; i < until; i++)
+      h = mix(h, a[i]);
+    return finalizeHash(h, until - from);
+  }
+
+  public static int byteArrayHash(byte[] a, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      h = mix(h, a[i]);
+      h = mix(h, a[i + 1]);
+      h = mix(h, a[i + 2]);
+      h = mix(h, a[i + 3]);
+    }
+    for (; i < until; i++)
+      h = mix(h, a[i]);
+    return finalizeHash(h, until - from);
+  }
+
+  public static int booleanArrayHash(boolean[] a, int from, int until, int seed) {
+    int h = seed;
+    for (int i = from; i < until; i++)
+      h = mix(h, a[i] ? 1231 : 1237);
+    return finalizeHash(h, until - from);
+  }
+
+  public static int objectArrayHash(Object[] a, int from, int until, int seed) {
+    int h = seed;
+    for (int i = from; i < until; i++)
+      h = mix(h, boxedHash(a[i]));
+    return finalizeHash(h, until - from);
+  }
+
+  /** The hash of bytes `from` (inclusive) to `until` (exclusive) of `data`,
+   *  the same as MurmurHash3.bytesHash for the whole array: four bytes are
+   *  mixed at once, in little-endian order.
+   */
+  public static int bytesHash(byte[] data, int from, int until, int seed) {
+    int h = seed;
+    int i = from;
+    for (; i + 3 < until; i += 4) {
+      int k = (data[i] & 0xFF)
+          | (data[i + 1] & 0xFF) << 8
+          | (data[i + 2] & 0xFF) << 16
+          | (data[i + 3] & 0xFF) << 24;
+      h = mix(h, k);
+    }
+    int len = until - i;
+    int k = 0;
+    if (len == 3) k ^= (data[i + 2] & 0xFF) << 16;
+    if (len >= 2) k ^= (data[i + 1] & 0xFF) << 8;
+    if (len >= 1) {
+      k ^= (data[i] & 0xFF);
+      h = mixLast(h, k);
+    }
+    return finalizeHash(h, until - from);
+  }
+
+  /** The hash of a product, the same as MurmurHash3.productHash. */
+  public static int productHash(scala.Product x, int seed) {
+    int arity = x.productArity();
+    // Case objects have the hashCode inlined directly into the
+    // synthetic hashCode method, but this method should still give
+    // a correct result if passed a case object.
+    if (arity == 0)
+      return x.productPrefix().hashCode();
+
+    int h = seed;
+    for (int i = 0; i < arity; i++)
+      h = mix(h, boxedHash(x.productElement(i)));
+    return finalizeHash(h, arity);
+  }
+
+  /** The `##` of a boxed value, as ScalaRunTime.hash(Any). */
+  private static int boxedHash(Object x) {
+    if (x == null)
+      return 0;
+
+    if (x instanceof java.lang.Number)
+      return BoxesRunTime.hashFromNumber((java.lang.Number)x);
+
+    return x.hashCode();
+  }
+
+  /** The `##` of a boxed Double, as BoxesRunTime.hashFromDouble. Unlike
+   *  doubleHash, whole numbers in the range of Long are hashed as Longs. */
+  private static int boxedDoubleHash(double dv) {
+    int iv = (int)dv;
+    if (iv == dv)
+      return iv;
+
+    long lv = (long)dv;
+    if (lv == dv)
+      return (int)(lv ^ (lv >>> 32));
+
+    float fv = (float)dv;
+    if (fv == dv)
+      return java.lang.Float.floatToIntBits(fv);
+
+    lv = Double.doubleToLongBits(dv);
+    return (int)(lv ^ (lv >>> 32));
+  }
 }
@@ -10,6 +10,7 @@ package scala
 package util.hashing
 
 import java.lang.Integer.{ rotateLeft => rotl }
+import scala.runtime.Statics
 
 private[hashing] class MurmurHash3 {
   /** Mix in a block of data into an intermediate hash value. */
@@ -49,24 +50,7 @@ private[hashing] class MurmurHash3 {
   }
 
   /** Compute the hash of a product */
-  final def productHash(x: Product, seed: Int): Int = {
-    val arr = x.productArity
-    // Case objects have the hashCode inlined directly into the
-    // synthetic hashCode method, but this method should still give
-    // a correct result if passed a case object.
-    if (arr == 0) {
-      x.productPrefix.hashCode
-    }
-    else {
-      var h = seed
-      var i = 0
-      while (i < arr) {
-        h = mix(h, x.productElement(i).##)
-        i += 1
-      }
-      finalizeHash(h, arr)
-    }
-  }
+  final def productHash(x: Product, seed: Int): Int = Statics.productHash(x, seed)
 
   /** Compute the hash of a string */
   final def stringHash(str: String, seed: Int): Int = {
@@ -114,50 +98,33 @@ private[hashing] class MurmurHash3 {
   }
 
   /** Compute the hash of an array.
+   *
+   *  Arrays of element types whose `##` is the same boxed and unboxed are hashed by the
+   *  bulk methods in `Statics`. For `Long` and `Float` elements, the `##` of the unboxed
+   *  value differs from the boxed one outside of the `Int` range, so they keep the loop.
    */
-  final def arrayHash[@specialized T](a: Array[T], seed: Int): Int = {
-    var h = seed
-    var i = 0
-    while (i < a.length) {
-      h = mix(h, a(i).##)
-      i += 1
-    }
-    finalizeHash(h, a.length)
+  final def arrayHash[@specialized T](a: Array[T], seed: Int): Int = (a: Any) match {
+    case a: Array[Int]     => Statics.intArrayHash(a, 0, a.length, seed)
+    case a: Array[Double]  => Statics.doubleArrayHash(a, 0, a.length, seed)
+    case a: Array[Char]    => Statics.charArrayHash(a, 0, a.length, seed)
+    case a: Array[Byte]    => Statics.byteArrayHash(a, 0, a.length, seed)
+    case a: Array[Short]   => Statics.shortArrayHash(a, 0, a.length, seed)
+    case a: Array[Boolean] => Statics.booleanArrayHash(a, 0, a.length, seed)
+    case a: Array[AnyRef]  => Statics.objectArrayHash(a, 0, a.length, seed)
+    case _ =>
+      var h = seed
+      var i = 0
+      while (i < a.length) {
+        h = mix(h, a(i).##)
+        i += 1
+      }
+      finalizeHash(h, a.length)
   }
 
   /** Compute the hash of a byte array. Faster than arrayHash, because
    *  it hashes 4 bytes at once.
    */
-  final def bytesHash(data: Array[Byte], seed: Int): Int = {
-    var len = data.length
-    var h = seed
-
-    // Body
-    var i = 0
-    while(len >= 4) {
-      var k = data(i + 0) & 0xFF
-      k |= (data(i + 1) & 0xFF) << 8
-      k |= (data(i + 2) & 0xFF) << 16
-      k |= (data(i + 3) & 0xFF) << 24
-
-      h = mix(h, k)
-
-      i += 4
-      len -= 4
-    }
-
-    // Tail
-    var k = 0
-    if(len == 3) k ^= (data(i + 2) & 0xFF) << 16
-    if(len >= 2) k ^= (data(i + 1) & 0xFF) << 8
-    if(len >= 1) {
-      k ^= (data(i + 0) & 0xFF)
-      h = mixLast(h, k)
-    }
-
-    // Finalization
-    finalizeHash(h, data.length)
-  }
+  final def bytesHash(data: Array[Byte], seed: Int): Int = Statics.bytesHash(data, 0, data.length, seed)
 
   final def listHash(xs: scala.collection.immutable.List[_], seed: Int): Int = {
     var n = 0
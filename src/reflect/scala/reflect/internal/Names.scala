@@ -13,7 +13,6 @@ import scala.language.implicitConversions
 
 trait Names extends api.Names {
   private final val HASH_SIZE  = 0x8000
-  private final val HASH_MASK  = 0x7FFF
   private final val NAME_SIZE  = 0x20000
 
   final val nameDebug = false
@@ -27,6 +26,9 @@ trait Names extends api.Names {
   // detect performance regressions.
   //
   // Discussion: https://groups.google.com/forum/#!search/biased$20scala-internals/scala-internals/0cYB7SkJ-nM/47MLhsgw8jwJ
+  //
+  // When names are synchronized, names that exist already are found without taking the
+  // lock, see `findPublished`. Only entering a new name takes it.
   protected def synchronizeNames: Boolean = false
   private val nameLock: Object = new Object
 
@@ -34,23 +36,33 @@ trait Names extends api.Names {
   var chrs: Array[Char] = new Array[Char](NAME_SIZE)
   private var nc = 0
 
+  /* The hashtables are open-addressed with linear probing, and double in size when they
+   * are half full. A name is stored in a table only after it's been fully constructed,
+   * and a grown table only replaces the old one once all names are in it, so the tables
+   * can be read without the lock.
+   */
+
   /** Hashtable for finding term names quickly. */
-  private val termHashtable = new Array[TermName](HASH_SIZE)
+  @volatile private var termHashtable = new Array[TermName](HASH_SIZE)
+  private var termCount = 0
 
   /** Hashtable for finding type names quickly. */
-  private val typeHashtable = new Array[TypeName](HASH_SIZE)
+  @volatile private var typeHashtable = new Array[TypeName](HASH_SIZE)
+  private var typeCount = 0
 
   /**
-   * The hashcode of a name depends on the first, the last and the middle character,
-   * and the length of the name.
+   * The hashcode of a name depends on all its characters. The bits are spread,
+   * for the hashtables keep only the lowest ones.
    */
-  private def hashValue(cs: Array[Char], offset: Int, len: Int): Int =
-    if (len > 0)
-      (len * (41 * 41 * 41) +
-       cs(offset) * (41 * 41) +
-       cs(offset + len - 1) * 41 +
-       cs(offset + (len >> 1)))
-    else 0
+  private def hashValue(cs: Array[Char], offset: Int, len: Int): Int = {
+    var h = len
+    var i = 0
+    while (i < len) {
+      h = 31 * h + cs(offset + i)
+      i += 1
+    }
+    h ^ (h >>> 16)
+  }
 
   /** Is (the ASCII representation of) name at given index equal to
    *  cs[offset..offset+len-1]?
@@ -78,6 +90,103 @@ trait Names extends api.Names {
     else nc = nc + len
   }
 
+  /** The slot of the term name with characters cs[offset..offset+len-1] in the
+   *  term hashtable, or the free slot where it is to be entered.
+   */
+  private def termSlot(table: Array[TermName], h: Int, cs: Array[Char], offset: Int, len: Int): Int = {
+    val mask = table.length - 1
+    var i = h & mask
+    var n = table(i)
+    while ((n ne null) && (n.length != len || !equals(n.start, cs, offset, len))) {
+      i = (i + 1) & mask
+      n = table(i)
+    }
+    i
+  }
+
+  /** The slot of the term name of the type name at `index` in the term hashtable.
+   *  The two share their characters.
+   */
+  private def termSlotAt(table: Array[TermName], h: Int, index: Int, len: Int): Int = {
+    val mask = table.length - 1
+    var i = h & mask
+    var n = table(i)
+    while ((n ne null) && (n.start != index || n.length != len)) {
+      i = (i + 1) & mask
+      n = table(i)
+    }
+    i
+  }
+
+  /** The slot of the type name of the term name at `index` in the type hashtable,
+   *  or the free slot where it is to be entered. The two share their characters.
+   */
+  private def typeSlot(table: Array[TypeName], h: Int, index: Int, len: Int): Int = {
+    val mask = table.length - 1
+    var i = h & mask
+    var n = table(i)
+    while ((n ne null) && (n.start != index || n.length != len)) {
+      i = (i + 1) & mask
+      n = table(i)
+    }
+    i
+  }
+
+  /** The term name with characters cs[offset..offset+len-1], found without
+   *  synchronization, or null.
+   *
+   *  The characters of a name are written once, before it is stored in the table.
+   *  Read without synchronization, they are either seen or read as zero. So a name
+   *  is only trusted if none of the characters compared with it is zero, else the
+   *  caller looks again under the lock.
+   */
+  private def findPublished(h: Int, cs: Array[Char], offset: Int, len: Int): TermName = {
+    val table = termHashtable
+    val chars = chrs
+    val mask  = table.length - 1
+    var i = h & mask
+    var n = table(i)
+    while (n ne null) {
+      if (n.length == len && n.start + len <= chars.length) {
+        var j = 0
+        while (j < len && chars(n.start + j) == cs(offset + j) && cs(offset + j) != 0)
+          j += 1
+        if (j == len) return n
+      }
+      i = (i + 1) & mask
+      n = table(i)
+    }
+    null
+  }
+
+  /* Doubles the size of the term hashtable and publishes it once all names are in it. */
+  private def growTermHashtable() {
+    val table    = termHashtable
+    val newTable = new Array[TermName](table.length * 2)
+    var i = 0
+    while (i < table.length) {
+      val n = table(i)
+      if (n ne null)
+        newTable(termSlot(newTable, hashValue(chrs, n.start, n.length), chrs, n.start, n.length)) = n
+      i += 1
+    }
+    termHashtable = newTable
+  }
+
+  /* Doubles the size of the type hashtable and publishes it once all names are in it. */
+  private def growTypeHashtable() {
+    val table    = typeHashtable
+    val newTable = new Array[TypeName](table.length * 2)
+    var i = 0
+    while (i < table.length) {
+      val n = table(i)
+      if (n ne null)
+        newTable(typeSlot(newTable, hashValue(chrs, n.start, n.length), n.start, n.length)) = n
+      i += 1
+    }
+    typeHashtable = newTable
+  }
+
   /** Create a term name from the characters in cs[offset..offset+len-1]. */
   final def newTermName(cs: Array[Char], offset: Int, len: Int): TermName =
     newTermName(cs, offset, len, cachedString = null)
@@ -94,13 +203,13 @@ trait Names extends api.Names {
    *  @param len0 the length of the name. Negative lengths result in empty names.
    */
   final def newTermName(cs: Array[Char], offset: Int, len0: Int, cachedString: String): TermName = {
+    require(offset >= 0, "offset must be non-negative, got " + offset)
+    val len = math.max(len0, 0)
+    val h = hashValue(cs, offset, len)
     def body = {
-      require(offset >= 0, "offset must be non-negative, got " + offset)
-      val len = math.max(len0, 0)
-      val h = hashValue(cs, offset, len) & HASH_MASK
-      var n = termHashtable(h)
-      while ((n ne null) && (n.length != len || !equals(n.start, cs, offset, len)))
-        n = n.next
+      var table = termHashtable
+      var i = termSlot(table, h, cs, offset, len)
+      val n = table(i)
 
       if (n ne null) n
       else {
@@ -115,16 +224,25 @@ trait Names extends api.Names {
           startIndex = nc
           enterChars(cs, offset, len)
         }
-        val next = termHashtable(h)
         val termName =
-          if (cachedString ne null) new TermName_S(startIndex, len, next, cachedString)
-          else new TermName_R(startIndex, len, next)
+          if (cachedString ne null) new TermName_S(startIndex, len, cachedString)
+          else new TermName_R(startIndex, len)
+        termCount += 1
+        if (termCount * 2 > table.length) {
+          growTermHashtable()
+          table = termHashtable
+          i = termSlot(table, h, cs, offset, len)
+        }
         // Add the new termName to the hashtable only after it's been fully constructed
-        termHashtable(h) = termName
+        table(i) = termName
         termName
       }
     }
-    if (synchronizeNames) nameLock.synchronized(body) else body
+    if (synchronizeNames) {
+      val n = findPublished(h, cs, offset, len)
+      if (n ne null) n else nameLock.synchronized(body)
+    }
+    else body
   }
 
   final def newTypeName(cs: Array[Char], offset: Int, len: Int, cachedString: String): TypeName =
@@ -165,11 +283,14 @@ trait Names extends api.Names {
    * can-multi-thread: names are added to the hash tables only after they are fully constructed.
    */
   final def lookupTypeName(cs: Array[Char]): TypeName = {
-    val hash = hashValue(cs, 0, cs.length) & HASH_MASK
-    var typeName = typeHashtable(hash)
+    val table = typeHashtable
+    val mask  = table.length - 1
+    var i = hashValue(cs, 0, cs.length) & mask
+    var typeName = table(i)
 
     while ((typeName ne null) && (typeName.length != cs.length || !equals(typeName.start, cs, 0, cs.length))) {
-      typeName = typeName.next
+      i = (i + 1) & mask
+      typeName = table(i)
     }
     assert(typeName != null, s"TypeName ${new String(cs)} not yet created.")
     typeName
@@ -193,9 +314,6 @@ trait Names extends api.Names {
     /** Index into name table */
     def start: Int = index
 
-    /** The next name in the same hash bucket. */
-    def next: Name with ThisNameType
-
     /** The length of this name. */
     final def length: Int = len
     final def isEmpty = length == 0
@@ -509,25 +627,25 @@ trait Names extends api.Names {
   /** TermName_S and TypeName_S have fields containing the string version of the name.
    *  TermName_R and TypeName_R recreate it each time toString is called.
    */
-  private final class TermName_S(index0: Int, len0: Int, next0: TermName, override val toString: String) extends TermName(index0, len0, next0) {
-    protected def createCompanionName(next: TypeName): TypeName = new TypeName_S(index, len, next, toString)
+  private final class TermName_S(index0: Int, len0: Int, override val toString: String) extends TermName(index0, len0) {
+    protected def createCompanionName(): TypeName = new TypeName_S(index, len, toString)
     override def newName(str: String): TermName = newTermNameCached(str)
   }
-  private final class TypeName_S(index0: Int, len0: Int, next0: TypeName, override val toString: String) extends TypeName(index0, len0, next0) {
+  private final class TypeName_S(index0: Int, len0: Int, override val toString: String) extends TypeName(index0, len0) {
     override def newName(str: String): TypeName = newTypeNameCached(str)
   }
 
-  private final class TermName_R(index0: Int, len0: Int, next0: TermName) extends TermName(index0, len0, next0) {
-    protected def createCompanionName(next: TypeName): TypeName = new TypeName_R(index, len, next)
+  private final class TermName_R(index0: Int, len0: Int) extends TermName(index0, len0) {
+    protected def createCompanionName(): TypeName = new TypeName_R(index, len)
     override def toString = new String(chrs, index, len)
   }
 
-  private final class TypeName_R(index0: Int, len0: Int, next0: TypeName) extends TypeName(index0, len0, next0) {
+  private final class TypeName_R(index0: Int, len0: Int) extends TypeName(index0, len0) {
     override def toString = new String(chrs, index, len)
   }
 
   // SYNCNOTE: caller to constructor must synchronize if `synchronizeNames` is enabled
-  sealed abstract class TermName(index0: Int, len0: Int, val next: TermName) extends Name(index0, len0) with TermNameApi {
+  sealed abstract class TermName(index0: Int, len0: Int) extends Name(index0, len0) with TermNameApi {
     type ThisNameType = TermName
     protected[this] def thisName: TermName = this
 
@@ -537,17 +655,22 @@ trait Names extends api.Names {
     def toTypeName: TypeName = {
       def body = {
         // Re-computing the hash saves a field for storing it in the TermName
-        val h = hashValue(chrs, index, len) & HASH_MASK
-        var n = typeHashtable(h)
-        while ((n ne null) && n.start != index)
-          n = n.next
+        val h = hashValue(chrs, index, len)
+        var table = typeHashtable
+        var i = typeSlot(table, h, index, len)
+        val n = table(i)
 
         if (n ne null) n
         else {
-          val next = typeHashtable(h)
-          val typeName = createCompanionName(next)
+          val typeName = createCompanionName()
+          typeCount += 1
+          if (typeCount * 2 > table.length) {
+            growTypeHashtable()
+            table = typeHashtable
+            i = typeSlot(table, h, index, len)
+          }
           // Add the new typeName to the hashtable only after it's been fully constructed
-          typeHashtable(h) = typeName
+          table(i) = typeName
           typeName
         }
       }
@@ -560,7 +683,7 @@ trait Names extends api.Names {
 
     def nameKind = "term"
     /** SYNCNOTE: caller must synchronize if `synchronizeNames` is enabled */
-    protected def createCompanionName(next: TypeName): TypeName
+    protected def createCompanionName(): TypeName
   }
 
   implicit val TermNameTag = ClassTag[TermName](classOf[TermName])
@@ -570,24 +693,27 @@ trait Names extends api.Names {
     def unapply(name: TermName): Option[String] = Some(name.toString)
   }
 
-  sealed abstract class TypeName(index0: Int, len0: Int, val next: TypeName) extends Name(index0, len0) with TypeNameApi {
+  sealed abstract class TypeName(index0: Int, len0: Int) extends Name(index0, len0) with TypeNameApi {
     type ThisNameType = TypeName
     protected[this] def thisName: TypeName = this
 
     def isTermName: Boolean = false
     def isTypeName: Boolean = true
     def toTermName: TermName = {
-      def body = {
+      def find() = {
         // Re-computing the hash saves a field for storing it in the TypeName
-        val h = hashValue(chrs, index, len) & HASH_MASK
-        var n = termHashtable(h)
-        while ((n ne null) && n.start != index)
-          n = n.next
-
-        assert (n ne null, s"TypeName $this is missing its correspondent")
-        n
+        val table = termHashtable
+        table(termSlotAt(table, hashValue(chrs, index, len), index, len))
       }
-      if (synchronizeNames) nameLock.synchronized(body) else body
+      // The term name is entered before its type name. Without the lock, it is
+      // only missed if the table or the characters were read too early.
+      val n = if (synchronizeNames) find() match {
+        case null => nameLock.synchronized(find())
+        case n    => n
+      } else find()
+
+      assert (n ne null, s"TypeName $this is missing its correspondent")
+      n
     }
     def toTypeName: TypeName = this
     def newName(str: String): TypeName = newTypeName(str)
@@ -20,7 +20,7 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
   case object LookupNotFound extends NameLookup { def symbol = NoSymbol }
 
   class ScopeEntry(val sym: Symbol, val owner: Scope) {
-    /** the next entry in the hash bucket
+    /** the next entry with the same name, once the scope is hashed
      */
     var tail: ScopeEntry = null
 
@@ -56,9 +56,16 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
      */
     private[Scopes] var nestinglevel = 0
 
-    /** the hash table
+    /** the hash table: the last entry entered with each name, chained to the
+     *  earlier ones through `tail`. It is open-addressed with linear probing,
+     *  the name of the chain in a slot is in `hashnames`.
      */
     private[Scopes] var hashtable: Array[ScopeEntry] = null
+    private[Scopes] var hashnames: Array[Name] = null
+
+    /** the number of names in the hash table
+     */
+    private[Scopes] var hashcount = 0
 
     /** a cache for all elements, to be used by symbol iterator.
      */
@@ -69,11 +76,9 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
       cachedSize = -1
     }
 
-    /** size and mask of hash tables
-     *  todo: make hashtables grow?
+    /** the smallest size of hash tables, which double when they are half full
      */
-    private val HASHSIZE = 0x80
-    private val HASHMASK = 0x7f
+    private val HASHSIZE = 0x10
 
     /** the threshold number of entries from which a hashtable is constructed.
      */
@@ -112,10 +117,92 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
         createHash()
     }
 
-    private def enterInHash(e: ScopeEntry): Unit = {
-      val i = e.sym.name.start & HASHMASK
+    private def enterInHash(e: ScopeEntry): Unit = enterInHashAs(e, e.sym.name)
+
+    private def enterInHashAs(e: ScopeEntry, name: Name): Unit = {
+      val i = hashSlot(name)
+      if (hashnames(i) eq null) {
+        hashnames(i) = name
+        hashcount += 1
+      }
       e.tail = hashtable(i)
       hashtable(i) = e
+      if (hashcount * 2 > hashtable.length)
+        growHash(hashtable.length * 2)
+    }
+
+    /* The home slot of a name in a hash table with `mask`. */
+    private def hashIndex(name: Name, mask: Int): Int = {
+      val h = name.start * 0x9E3779B9
+      (h ^ (h >>> 16)) & mask
+    }
+
+    /* The slot of the chain of `name` in the hash table, or the free slot where it is to be entered. */
+    private def hashSlot(name: Name): Int = {
+      val mask = hashtable.length - 1
+      var i = hashIndex(name, mask)
+      while ((hashnames(i) ne null) && hashnames(i) != name)
+        i = (i + 1) & mask
+      i
+    }
+
+    private def growHash(hashsize: Int) {
+      val oldtable = hashtable
+      val oldnames = hashnames
+      hashtable = new Array[ScopeEntry](hashsize)
+      hashnames = new Array[Name](hashsize)
+      var i = 0
+      while (i < oldtable.length) {
+        if (oldnames(i) ne null) {
+          val j = hashSlot(oldnames(i))
+          hashnames(j) = oldnames(i)
+          hashtable(j) = oldtable(i)
+        }
+        i += 1
+      }
+    }
+
+    /* Removes the chain in `slot`, moving back the chains after it that would
+     * no longer be found from their home slot.
+     */
+    private def deleteSlot(slot: Int) {
+      val mask = hashtable.length - 1
+      var i = slot
+      var j = (i + 1) & mask
+      while (hashnames(j) ne null) {
+        val k = hashIndex(hashnames(j), mask)
+        val stays = if (i <= j) i < k && k <= j else i < k || k <= j
+        if (!stays) {
+          hashnames(i) = hashnames(j)
+          hashtable(i) = hashtable(j)
+          i = j
+        }
+        j = (j + 1) & mask
+      }
+      hashnames(i) = null
+      hashtable(i) = null
+      hashcount -= 1
+    }
+
+    /* Removes the first entry satisfying `p` from the chain of `name`, returning it, or null if there is none. */
+    private def unlinkFromHash(name: Name)(p: ScopeEntry => Boolean): ScopeEntry = {
+      val i = hashSlot(name)
+      var e1 = hashtable(i)
+      var e: ScopeEntry = null
+      if (e1 != null) {
+        if (p(e1)) {
+          e = e1
+          if (e1.tail eq null) deleteSlot(i)
+          else hashtable(i) = e1.tail
+        } else {
+          while (e1.tail != null && !p(e1.tail)) e1 = e1.tail
+          if (e1.tail != null) {
+            e = e1.tail
+            e1.tail = e.tail
+          }
+        }
+      }
+      e
     }
 
     /** enter a symbol
@@ -139,7 +226,11 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
     }
 
     private def createHash() {
-      hashtable = new Array[ScopeEntry](HASHSIZE)
+      var hashsize = HASHSIZE
+      while (hashsize < size * 2) hashsize *= 2
+      hashtable = new Array[ScopeEntry](hashsize)
+      hashnames = new Array[Name](hashsize)
+      hashcount = 0
       enterAllInHash(elems)
     }
 
@@ -162,26 +253,9 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
 
     def rehash(sym: Symbol, newname: Name) {
       if (hashtable ne null) {
-        val index = sym.name.start & HASHMASK
-        var e1 = hashtable(index)
-        var e: ScopeEntry = null
-        if (e1 != null) {
-          if (e1.sym == sym) {
-            hashtable(index) = e1.tail
-            e = e1
-          } else {
-            while (e1.tail != null && e1.tail.sym != sym) e1 = e1.tail
-            if (e1.tail != null) {
-              e = e1.tail
-              e1.tail = e.tail
-            }
-          }
-        }
-        if (e != null) {
-          val newindex = newname.start & HASHMASK
-          e.tail = hashtable(newindex)
-          hashtable(newindex) = e
-        }
+        val e = unlinkFromHash(sym.name)(_.sym == sym)
+        if (e != null)
+          enterInHashAs(e, newname)
       }
     }
 
@@ -195,16 +269,8 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
         while (e1.next != e) e1 = e1.next
         e1.next = e.next
       }
-      if (hashtable ne null) {
-        val index = e.sym.name.start & HASHMASK
-        var e1 = hashtable(index)
-        if (e1 == e) {
-          hashtable(index) = e.tail
-        } else {
-          while (e1.tail != e) e1 = e1.tail
-          e1.tail = e.tail
-        }
-      }
+      if (hashtable ne null)
+        unlinkFromHash(e.sym.name)(_ eq e)
       flushElemsCache()
     }
 
@@ -290,7 +356,7 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
     def lookupEntry(name: Name): ScopeEntry = {
       var e: ScopeEntry = null
       if (hashtable ne null) {
-        e = hashtable(name.start & HASHMASK)
+        e = hashtable(hashSlot(name))
         while ((e ne null) && e.sym.name != name) {
           e = e.tail
         }
@@ -432,8 +498,11 @@ trait Scopes extends api.Scopes { self: SymbolTable =>
     val nested = newScope // not `new Scope`, we must allow the runtime reflection universe to mixin SynchronizedScopes!
     nested.elems = outer.elems
     nested.nestinglevel = outer.nestinglevel + 1
-    if (outer.hashtable ne null)
+    if (outer.hashtable ne null) {
       nested.hashtable = java.util.Arrays.copyOf(outer.hashtable, outer.hashtable.length)
+      nested.hashnames = java.util.Arrays.copyOf(outer.hashnames, outer.hashnames.length)
+      nested.hashcount = outer.hashcount
+    }
     nested
   }
 
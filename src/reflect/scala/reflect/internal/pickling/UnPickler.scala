@@ -25,6 +25,15 @@ abstract class UnPickler {
   val symbolTable: SymbolTable
   import symbolTable._
 
+  /** Should symbol annotations be read only when they are first inspected?
+   *
+   *  The types of symbols are always read lazily, with a `LazyTypeRef` that
+   *  is completed when the info of a symbol is forced. Their annotations are
+   *  read eagerly by default, for all members of the unpickled class, along
+   *  with the types and argument trees they refer to.
+   */
+  protected def lazySymbolAnnotations: Boolean = false
+
   /** Unpickle symbol table information descending from a class and/or module root
    *  from an array of bytes.
    *  @param bytes      bytearray from which we unpickle
@@ -497,7 +506,26 @@ abstract class UnPickler {
       expect(SYMANNOT, "symbol annotation expected")
       val end = readEnd()
       val target = readSymbolRef()
-      target.addAnnotation(readAnnotationInfo(end))
+      if (lazySymbolAnnotations) {
+        val start = readIndex
+        val p = phase
+        target.addAnnotation(AnnotationInfo lazily readAnnotationInfoAt(start, end, p))
+      }
+      else target.addAnnotation(readAnnotationInfo(end))
+    }
+
+    /* Reads the annotation info between `start` and `end`, entering phase `p` if it is defined. */
+    private def readAnnotationInfoAt(start: Int, end: Int, p: Phase): AnnotationInfo = {
+      val saved = readIndex
+      readIndex = start
+      try {
+        if (p ne null) slowButSafeEnteringPhase(p)(readAnnotationInfo(end))
+        else readAnnotationInfo(end)
+      }
+      catch {
+        case e: MissingRequirementError => throw toTypeError(e)
+      }
+      finally readIndex = saved
     }
 
     /** Read an annotation and return it. Used when unpickling
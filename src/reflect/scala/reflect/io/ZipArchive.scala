@@ -8,7 +8,7 @@ package reflect
 package io
 
 import java.net.URL
-import java.io.{ IOException, InputStream, ByteArrayInputStream, FilterInputStream }
+import java.io.{ IOException, InputStream, ByteArrayInputStream, FilterInputStream, FileNotFoundException }
 import java.io.{ File => JFile }
 import java.util.zip.{ ZipEntry, ZipFile, ZipInputStream }
 import java.util.jar.Manifest
@@ -155,6 +155,32 @@ final class FileZipArchive(file: JFile) extends ZipArchive(file) {
     finally dirs.clear()
   }
 
+  // guarded by this
+  private[this] var sharedZipFile: ZipFile = null
+
+  /* The archive read by the entries of `lazyEntry`, opened when the first of them is read.
+   * It is owned by this archive and, like the `ZipFile` behind the entries of `iterator`,
+   * stays open while they can be read: it is only closed when this archive is collected.
+   */
+  private def lazyZipFile = synchronized {
+    if (sharedZipFile eq null) sharedZipFile = new ZipFile(file)
+    sharedZipFile
+  }
+
+  /** An entry for the file at `entryPath` in this archive, as recorded by an index of it.
+   *  The archive is only opened once the entry is read, so the entries of an archive
+   *  can be listed without reading its central directory.
+   */
+  def lazyEntry(entryPath: String, entrySize: Int, entryTime: Long): Entry = new Entry(entryPath) {
+    override def getArchive   = lazyZipFile
+    override def lastModified = entryTime
+    override def input        = getArchive.getEntry(entryPath) match {
+      case null     => throw new FileNotFoundException(FileZipArchive.this.path + "(" + entryPath + ")")
+      case zipEntry => getArchive getInputStream zipEntry
+    }
+    override def sizeOption   = Some(entrySize)
+  }
+
   def name         = file.getName
   def path         = file.getPath
   def input        = File(file).inputStream()
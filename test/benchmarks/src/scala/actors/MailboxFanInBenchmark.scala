@@ -0,0 +1,51 @@
+package scala.actors
+
+import java.util.concurrent.CountDownLatch
+import scala.benchmarks.Rounds
+
+/** Measures the message throughput of one actor receiving from 1, 4 and 16
+ *  producer threads, from the first send until the actor has processed the
+ *  last message.
+ *
+ *  Usage: scala scala.actors.MailboxFanInBenchmark [messages per producer]
+ */
+@deprecated("Suppress warnings", since="2.11")
+object MailboxFanInBenchmark {
+  def main(args: Array[String]): Unit = {
+    val perProducer = if (args.nonEmpty) args(0).toInt else 1000000
+
+    def run(producers: Int): Long = {
+      val total = producers.toLong * perProducer
+      val done = new CountDownLatch(1)
+      val sink = Actor.actor {
+        var count = 0L
+        Actor.loopWhile(count < total) {
+          Actor.react {
+            case _ =>
+              count += 1
+              if (count == total) done.countDown()
+          }
+        }
+      }
+      val threads = for (_ <- 0 until producers) yield new Thread {
+        override def run(): Unit = {
+          var i = 0
+          while (i < perProducer) {
+            sink ! i
+            i += 1
+          }
+        }
+      }
+      val start = System.nanoTime
+      threads.foreach(_.start())
+      done.await()
+      System.nanoTime - start
+    }
+
+    Rounds.rounds(2)(List(1, 4, 16) map (producers => (producers, run(producers)))) { (_, results) =>
+      for ((producers, nanos) <- results)
+        printf("producers %2d: %12.0f sends/s%n", producers, producers.toLong * perProducer / (nanos / 1e9))
+    }
+    Scheduler.shutdown()
+  }
+}
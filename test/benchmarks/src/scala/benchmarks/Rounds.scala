@@ -0,0 +1,37 @@
+package scala.benchmarks
+
+/** The measuring loop shared by the benchmarks: a warm-up round followed by measured
+ *  rounds, and a sink for results, which keeps the JIT from eliminating the code that
+ *  computes them.
+ */
+object Rounds {
+  @volatile private[this] var sink: Any = null
+
+  /** Keeps `result` from being optimized away. */
+  def consume(result: Any): Unit = sink = result
+
+  /** The nanoseconds taken by `body`, whose result is consumed. */
+  def time(body: => Any): Long = {
+    val start = System.nanoTime
+    consume(body)
+    System.nanoTime - start
+  }
+
+  /** The nanoseconds taken by `body`, after running it once to warm up. */
+  def warmedUp(body: => Any): Long = {
+    consume(body)
+    time(body)
+  }
+
+  /** Runs `round` once to warm up and then `count` times, passing the number of each of
+   *  those rounds, from 1, and its result to `report`.
+   */
+  def rounds[T](count: Int)(round: => T)(report: (Int, T) => Unit): Unit = {
+    consume(round)
+    var i = 1
+    while (i <= count) {
+      report(i, round)
+      i += 1
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package scala.collection.concurrent
+
+import scala.benchmarks.Rounds
+
+/** Compares loading a `TrieMap` one binding at a time with loading it through `putAll`
+ *  in batches, and removing the bindings again with `remove` and `removeAll`.
+ *
+ *  Usage: scala scala.collection.concurrent.TrieMapBatchBenchmark [entries] [batch size] [rounds]
+ */
+object TrieMapBatchBenchmark {
+  def main(args: Array[String]): Unit = {
+    val entries = if (args.length > 0) args(0).toInt else 1000000
+    val batch   = if (args.length > 1) args(1).toInt else 10000
+    val rounds  = if (args.length > 2) args(2).toInt else 5
+
+    val kvs = Array.tabulate(entries)(i => (i * 7919, i))
+    val keys = kvs map (_._1)
+
+    def measure(label: String, filled: Boolean = false)(op: TrieMap[Int, Int] => Unit): Unit =
+      Rounds.rounds(rounds) {
+        val ct = new TrieMap[Int, Int]
+        if (filled) ct.putAll(kvs)
+        Rounds.time { op(ct); ct }
+      } { (round, time) =>
+        printf("%-18s round %d: %7.1f ns/entry%n", label, round, time.toDouble / entries)
+      }
+
+    measure("update") { ct => var i = 0; while (i < entries) { ct.update(kvs(i)._1, kvs(i)._2); i += 1 } }
+    measure("putAll") { ct => kvs.grouped(batch) foreach (ct.putAll(_)) }
+    measure("putAll (one batch)") { ct => ct.putAll(kvs) }
+    measure("builder") { ct => TrieMap(kvs: _*) }
+    measure("remove", filled = true) { ct => var i = 0; while (i < entries) { ct.remove(keys(i)); i += 1 } }
+    measure("removeAll", filled = true) { ct => keys.grouped(batch) foreach (ct.removeAll(_)) }
+  }
+}
@@ -0,0 +1,53 @@
+package scala.collection.concurrent
+
+import scala.benchmarks.Rounds
+
+/** Measures the heap used per entry by a `TrieMap`, excluding the keys and values, which
+ *  are shared with a reference array. A `java.util.concurrent.ConcurrentHashMap` is
+ *  measured for comparison.
+ *
+ *  Usage: scala scala.collection.concurrent.TrieMapFootprint [entries]
+ */
+object TrieMapFootprint {
+  def usedHeap(): Long = {
+    val rt = Runtime.getRuntime
+    for (_ <- 0 until 5) { System.gc(); Thread.sleep(50) }
+    rt.totalMemory - rt.freeMemory
+  }
+
+  def main(args: Array[String]): Unit = {
+    val maxEntries = if (args.length > 0) args(0).toInt else 10000000
+    val keys = Array.tabulate(maxEntries)(Int.box)
+
+    def measure(label: String, entries: Int)(build: => AnyRef): Unit = {
+      val before = usedHeap()
+      val map = build
+      val after = usedHeap()
+      printf("%-22s %9d entries: %6.1f bytes/entry%n", label, entries, (after - before).toDouble / entries)
+      Rounds.consume(map) // keeps the map reachable until the heap is measured
+    }
+
+    var entries = 1000
+    while (entries <= maxEntries) {
+      val n = entries
+      measure("TrieMap", n) {
+        val ct = new TrieMap[Integer, Integer]
+        var i = 0
+        while (i < n) { ct.update(keys(i), keys(i)); i += 1 }
+        ct
+      }
+      measure("TrieMap (putAll)", n) {
+        val ct = new TrieMap[Integer, Integer]
+        ct.putAll(keys.iterator.take(n).map(k => (k, k)))
+        ct
+      }
+      measure("ConcurrentHashMap", n) {
+        val chm = new java.util.concurrent.ConcurrentHashMap[Integer, Integer]
+        var i = 0
+        while (i < n) { chm.put(keys(i), keys(i)); i += 1 }
+        chm
+      }
+      entries *= 10
+    }
+  }
+}
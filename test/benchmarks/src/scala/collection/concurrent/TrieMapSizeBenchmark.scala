@@ -0,0 +1,53 @@
+package scala.collection.concurrent
+
+import scala.benchmarks.Rounds
+
+/** Measures `TrieMap.size` on a large map while writer threads keep updating it, with
+ *  and without a size counter, together with the throughput the writers achieve.
+ *
+ *  Usage: scala scala.collection.concurrent.TrieMapSizeBenchmark [entries] [writers] [rounds]
+ */
+object TrieMapSizeBenchmark {
+  def main(args: Array[String]): Unit = {
+    val entries = if (args.length > 0) args(0).toInt else 2000000
+    val writers = if (args.length > 1) args(1).toInt else 4
+    val rounds  = if (args.length > 2) args(2).toInt else 5
+
+    def measure(label: String, ct: TrieMap[Int, Int], size: TrieMap[Int, Int] => Int): Unit = {
+      for (i <- 0 until entries) ct.update(i, i)
+      @volatile var running = true
+      val written = new java.util.concurrent.atomic.AtomicLong
+      val threads = for (t <- 0 until writers) yield new Thread {
+        override def run(): Unit = {
+          val rnd = new java.util.Random(t)
+          var n = 0L
+          while (running) {
+            val k = rnd.nextInt(entries * 2)
+            if ((n & 1) == 0) ct.update(k, k) else ct.remove(k)
+            n += 1
+          }
+          written.addAndGet(n)
+        }
+      }
+      threads.foreach(_.start())
+      Rounds.rounds(rounds) {
+        val start = System.nanoTime
+        var sizes = 0L
+        var calls = 0
+        while (System.nanoTime - start < 1000000000L) { sizes += size(ct); calls += 1 }
+        Rounds.consume(sizes)
+        (System.nanoTime - start, calls)
+      } { case (round, (time, calls)) =>
+        printf("%-14s round %d: %12.0f ns/size call%n", label, round, time.toDouble / calls)
+      }
+      running = false
+      threads.foreach(_.join())
+      printf("%-14s writers: %8.2f M updates/s%n", label, written.get / 1e6 / (rounds + 1))
+      printf("%-14s final size %d, exact %d%n", label, size(ct), ct.exactSize)
+    }
+
+    measure("exact", new TrieMap[Int, Int], _.size)
+    measure("counted", TrieMap.withSizeCounter[Int, Int], _.size)
+    measure("counted/exact", TrieMap.withSizeCounter[Int, Int], _.exactSize)
+  }
+}
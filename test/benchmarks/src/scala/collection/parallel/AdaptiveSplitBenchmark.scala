@@ -0,0 +1,44 @@
+package scala.collection.parallel
+
+import scala.concurrent.forkjoin.ForkJoinPool
+import scala.benchmarks.Rounds
+import benchmarks.parallel_array.{ Cont, CountHeavy }
+
+/** Compares `AdaptiveForkJoinTaskSupport` to `ForkJoinTaskSupport` on workloads of the
+ *  `parallel_array` benchmarks - a cheap reduce, count and map over a large array, and
+ *  the costly count of `count-heavy` over a small one - reporting the speedup of the
+ *  adaptive task support at each number of threads.
+ *
+ *  Usage: scala scala.collection.parallel.AdaptiveSplitBenchmark [threads...]
+ */
+object AdaptiveSplitBenchmark {
+  def main(args: Array[String]): Unit = {
+    val threads = if (args.nonEmpty) args.toList.map(_.toInt) else List(1, 2, 4, 8, 16, 32)
+    val large = mutable.ParArray.tabulate(1000000)(new Cont(_))
+    val small = mutable.ParArray.tabulate(CountHeavy.defaultSize * 8)(new Cont(_))
+
+    val workloads = List[(String, mutable.ParArray[Cont], mutable.ParArray[Cont] => Any, Int)](
+      ("reduce-light", large, _.reduce(Cont.op), 200),
+      ("count-light",  large, _.count(Cont.pred), 200),
+      ("map-light",    large, _.map(c => c.in * 2), 50),
+      ("count-heavy",  small, _.count(CountHeavy.pred), 20)
+    )
+
+    def time(pa: mutable.ParArray[Cont], op: mutable.ParArray[Cont] => Any, reps: Int, ts: TaskSupport): Long = {
+      pa.tasksupport = ts
+      // the warm-up also lets the adaptive task support settle
+      Rounds.warmedUp(for (_ <- 0 until reps) Rounds.consume(op(pa)))
+    }
+
+    for (p <- threads) {
+      val pool = new ForkJoinPool(p)
+      for ((name, pa, op, reps) <- workloads) {
+        val fixed = time(pa, op, reps, new ForkJoinTaskSupport(pool))
+        val adaptive = time(pa, op, reps, new AdaptiveForkJoinTaskSupport(pool))
+        printf("%-13s threads %2d: fork-join %8.3f ms, adaptive %8.3f ms, speedup %5.2f%n",
+          name, p, fixed / 1e6 / reps, adaptive / 1e6 / reps, fixed.toDouble / adaptive)
+      }
+      pool.shutdown()
+    }
+  }
+}
@@ -0,0 +1,51 @@
+package scala.collection.parallel
+
+import scala.concurrent.forkjoin.ForkJoinPool
+import scala.benchmarks.Rounds
+import mutable.{ ParArray, ParIntArray }
+
+/** Compares a `ParArray[Int]`, which boxes its elements, to a `ParIntArray` on a
+ *  `map` followed by a `sum`, a `filter` and a `count`, reporting the time and the
+ *  bytes allocated per operation at each number of threads.
+ *
+ *  Usage: scala scala.collection.parallel.PrimitiveArrayBenchmark [size] [threads...]
+ */
+object PrimitiveArrayBenchmark {
+  def main(args: Array[String]): Unit = {
+    val size = if (args.nonEmpty) args(0).toInt else 10000000
+    val threads = if (args.length > 1) args.toList.tail.map(_.toInt) else List(1, 2, 4, 8)
+    val boxed = ParArray.tabulate(size)(i => i)
+    val unboxed = ParIntArray.handoff(Array.tabulate(size)(i => i))
+
+    val mxbean = java.lang.management.ManagementFactory.getThreadMXBean match {
+      case b: com.sun.management.ThreadMXBean => b
+      case _ => null
+    }
+    // allocations of the pool threads are not visible per thread, so sum over all threads
+    def allocated(): Long =
+      if (mxbean eq null) 0L
+      else mxbean.getThreadAllocatedBytes(mxbean.getAllThreadIds).filter(_ > 0).sum
+
+    def measure(name: String, p: Int, reps: Int)(op: => Any): Unit =
+      Rounds.rounds(1) {
+        val bytes = allocated()
+        val nanos = Rounds.time(for (_ <- 0 until reps) Rounds.consume(op))
+        (nanos, allocated() - bytes)
+      } { case (_, (nanos, bytes)) =>
+        printf("%-22s threads %2d: %9.3f ms, %12d bytes%n", name, p, nanos / 1e6 / reps, bytes / reps)
+      }
+
+    for (p <- threads) {
+      val pool = new ForkJoinPool(p)
+      boxed.tasksupport = new ForkJoinTaskSupport(pool)
+      unboxed.tasksupport = new ForkJoinTaskSupport(pool)
+      measure("ParArray map/sum", p, 10)(boxed.map(_ * 2).sum)
+      measure("ParIntArray map/sum", p, 10)(unboxed.map(_ * 2).sum)
+      measure("ParArray filter", p, 10)(boxed.filter(_ % 3 == 0))
+      measure("ParIntArray filter", p, 10)(unboxed.filter(_ % 3 == 0))
+      measure("ParArray count", p, 10)(boxed.count(_ % 3 == 0))
+      measure("ParIntArray count", p, 10)(unboxed.count(_ % 3 == 0))
+      pool.shutdown()
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package scala.concurrent
+
+import java.lang.management.ManagementFactory
+import scala.benchmarks.Rounds
+import scala.concurrent.duration.Duration
+
+/** Measures the latency and the process CPU time of deep `map`/`flatMap` pipelines of
+ *  trivial steps, on the global ExecutionContext and on a batching one over it.
+ *
+ *  Usage: scala scala.concurrent.FuturePipelineBenchmark [depth] [pipelines] [rounds]
+ */
+object FuturePipelineBenchmark {
+  def main(args: Array[String]): Unit = {
+    val depth     = if (args.length > 0) args(0).toInt else 1000
+    val pipelines = if (args.length > 1) args(1).toInt else 2000
+    val rounds    = if (args.length > 2) args(2).toInt else 5
+
+    def cpuTime: Long = ManagementFactory.getOperatingSystemMXBean match {
+      case os: com.sun.management.OperatingSystemMXBean => os.getProcessCpuTime
+      case _                                            => 0L
+    }
+
+    def pipeline(start: Future[Int])(implicit ec: ExecutionContext): Future[Int] = {
+      var f = start
+      var i = 0
+      while (i < depth) {
+        f = if ((i & 1) == 0) f.map(_ + 1) else f.flatMap(x => Future.successful(x + 1))
+        i += 1
+      }
+      f
+    }
+
+    def measure(label: String, ec: ExecutionContext): Unit =
+      Rounds.rounds(rounds) {
+        val cpu = cpuTime
+        var steps = 0
+        val time = Rounds.time {
+          for (_ <- 0 until pipelines) {
+            val p = Promise[Int]()
+            val f = pipeline(p.future)(ec)
+            p.success(0)
+            steps += Await.result(f, Duration.Inf)
+          }
+        }
+        if (steps != pipelines * depth) throw new AssertionError(steps)
+        (time, cpuTime - cpu)
+      } { case (round, (time, cpu)) =>
+        printf("%-9s round %d: %8.1f us/pipeline, %8.1f us cpu/pipeline%n", label, round,
+          time / 1e3 / pipelines, cpu / 1e3 / pipelines)
+      }
+
+    measure("global", ExecutionContext.global)
+    measure("batching", ExecutionContext.batching(ExecutionContext.global))
+  }
+}
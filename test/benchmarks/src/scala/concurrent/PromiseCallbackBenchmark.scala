@@ -0,0 +1,42 @@
+package scala.concurrent
+
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.atomic.AtomicLong
+import scala.benchmarks.Rounds
+
+/** Measures the fan-out of completing promises which have many `onComplete` listeners,
+ *  together with the number of tasks a batching ExecutionContext hands to the global one
+ *  per promise.
+ *
+ *  Usage: scala scala.concurrent.PromiseCallbackBenchmark [listeners] [promises] [rounds]
+ */
+object PromiseCallbackBenchmark {
+  def main(args: Array[String]): Unit = {
+    val listeners = if (args.length > 0) args(0).toInt else 64
+    val promises  = if (args.length > 1) args(1).toInt else 20000
+    val rounds    = if (args.length > 2) args(2).toInt else 5
+
+    val submitted = new AtomicLong
+    implicit val ec: ExecutionContext = new ExecutionContext with BatchingExecutor {
+      protected def unbatchedExecute(r: Runnable): Unit = { submitted.incrementAndGet(); ExecutionContext.global.execute(r) }
+      def reportFailure(t: Throwable): Unit = ExecutionContext.global.reportFailure(t)
+    }
+
+    Rounds.rounds(rounds) {
+      submitted.set(0)
+      val done = new CountDownLatch(promises)
+      Rounds.time {
+        for (_ <- 0 until promises) {
+          val p = Promise[Int]()
+          val left = new java.util.concurrent.atomic.AtomicInteger(listeners)
+          for (_ <- 0 until listeners) p.future.onComplete(_ => if (left.decrementAndGet() == 0) done.countDown())
+          p.success(1)
+        }
+        done.await()
+      }
+    } { (round, time) =>
+      printf("round %d: %10.1f ns/callback, %6.2f tasks/promise%n", round,
+        time.toDouble / (promises.toLong * listeners), submitted.get.toDouble / promises)
+    }
+  }
+}
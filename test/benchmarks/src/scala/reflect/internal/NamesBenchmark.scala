@@ -0,0 +1,73 @@
+package scala.reflect.internal
+
+import java.io.File
+import java.util.concurrent.CountDownLatch
+import scala.benchmarks.Rounds
+import scala.io.Source
+
+/** Measures interning the identifiers of the standard library into a synchronized names
+ *  table, as runtime reflection uses, from 1, 4 and 16 threads. Every thread interns all
+ *  identifiers, each starting at a different one. The table is new when the names are
+ *  first entered, and the second pass only finds them.
+ *
+ *  Usage: scala scala.reflect.internal.NamesBenchmark [library source directory]
+ */
+object NamesBenchmark {
+  def main(args: Array[String]): Unit = {
+    val root = new File(if (args.nonEmpty) args(0) else "src/library")
+
+    def sources(f: File): Seq[File] =
+      if (f.isDirectory) f.listFiles.toSeq flatMap sources
+      else if (f.getName endsWith ".scala") Seq(f)
+      else Nil
+
+    val Ident = """[A-Za-z_$][A-Za-z0-9_$]*""".r
+    val identifiers = (sources(root) flatMap { f =>
+      val source = Source.fromFile(f, "UTF-8")
+      try Ident.findAllIn(source.mkString).toList finally source.close()
+    }).map(_.toCharArray).toArray
+    if (identifiers.isEmpty) sys.error("no sources in " + root)
+    printf("%d identifiers, %d distinct%n", identifiers.length, identifiers.map(new String(_)).distinct.length)
+
+    def newTable = new Names {
+      override protected def synchronizeNames = true
+    }
+
+    // the nanoseconds for all threads to intern all identifiers
+    def intern(names: Names, threads: Int): Long = {
+      val go = new CountDownLatch(1)
+      val workers = for (t <- 0 until threads) yield new Thread {
+        override def run(): Unit = {
+          go.await()
+          val n = identifiers.length
+          val first = t * n / threads
+          var i = 0
+          while (i < n) {
+            val cs = identifiers((first + i) % n)
+            names.newTermName(cs, 0, cs.length)
+            i += 1
+          }
+        }
+      }
+      workers foreach (_.start())
+      val start = System.nanoTime
+      go.countDown()
+      workers foreach (_.join())
+      System.nanoTime - start
+    }
+
+    Rounds.rounds(3) {
+      for (threads <- List(1, 4, 16)) yield {
+        val names = newTable
+        val enter = intern(names, threads)
+        val find  = intern(names, threads)
+        (threads, enter, find)
+      }
+    } { (_, results) =>
+      for ((threads, enter, find) <- results) {
+        val total = threads.toLong * identifiers.length
+        printf("threads %2d: enter %6.1f ns/name, find %6.1f ns/name%n", threads, enter.toDouble / total, find.toDouble / total)
+      }
+    }
+  }
+}
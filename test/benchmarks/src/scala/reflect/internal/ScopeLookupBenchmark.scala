@@ -0,0 +1,52 @@
+package scala.reflect.internal
+
+import scala.benchmarks.Rounds
+import scala.tools.nsc.{ Global, Settings }
+
+/** Measures looking up every member of large package scopes of the compiler, and of
+ *  synthetic scopes of growing size, which shows whether lookups depend on the size
+ *  of the scope.
+ *
+ *  Usage: scala scala.reflect.internal.ScopeLookupBenchmark [package ...]
+ */
+object ScopeLookupBenchmark {
+  def main(args: Array[String]): Unit = {
+    val packages = if (args.nonEmpty) args.toList else List("java.lang", "java.util", "scala", "scala.collection", "scala.collection.immutable")
+    val settings = new Settings()
+    settings.usejavacp.value = true
+    val global = new Global(settings)
+    import global._
+    new Run
+
+    def measure(label: String, scope: Scope): Unit = {
+      val names = scope.toList.map(_.name).toArray
+      val iterations = math.max(1, 10000000 / names.length)
+      Rounds.rounds(3) {
+        var found = 0
+        val time = Rounds.time {
+          var n, i = 0
+          while (i < iterations) {
+            var j = 0
+            while (j < names.length) {
+              if (scope.lookupEntry(names(j)) ne null) n += 1
+              j += 1
+            }
+            i += 1
+          }
+          found = n
+        }
+        time.toDouble / found
+      } { (round, perLookup) =>
+        printf("%-28s %6d members, round %d: %6.1f ns/lookup%n", label, names.length, round, perLookup)
+      }
+    }
+
+    for (p <- packages)
+      measure(p, rootMirror.staticPackage(p).moduleClass.info.decls)
+
+    for (size <- List(10, 100, 1000, 10000)) {
+      val scope = newScopeWith(List.tabulate(size)(i => NoSymbol.newValue(TermName("member" + i))): _*)
+      measure("synthetic", scope)
+    }
+  }
+}
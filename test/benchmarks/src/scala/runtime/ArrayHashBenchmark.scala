@@ -0,0 +1,41 @@
+package scala.runtime
+
+import scala.benchmarks.Rounds
+import scala.collection.mutable.WrappedArray
+
+/** Measures hashing of arrays with the bulk methods in `Statics`, compared with hashing the
+ *  same elements through the generic `MurmurHash3.orderedHash`, which is what
+ *  `WrappedArray.hashCode` used to do.
+ *
+ *  Usage: scala scala.runtime.ArrayHashBenchmark [length] [rounds]
+ */
+object ArrayHashBenchmark {
+  def main(args: Array[String]): Unit = {
+    val length = if (args.length > 0) args(0).toInt else 1000
+    val rounds = if (args.length > 1) args(1).toInt else 5
+    val iterations = 10000000 / length
+
+    val ints: WrappedArray[Int]     = Array.tabulate(length)(i => i * 31)
+    val longs: WrappedArray[Long]   = Array.tabulate(length)(i => i.toLong << 20)
+    val bytes: Array[Byte]          = Array.tabulate(length)(_.toByte)
+
+    def measure(label: String)(hash: => Int): Unit =
+      Rounds.rounds(rounds) {
+        Rounds.time {
+          var h, i = 0
+          while (i < iterations) { h += hash; i += 1 }
+          h
+        }
+      } { (round, time) =>
+        printf("%-28s round %d: %6.2f ns/element%n", label, round, time.toDouble / iterations / length)
+      }
+
+    import scala.util.hashing.MurmurHash3
+    measure("WrappedArray[Int]")(ints.hashCode)
+    measure("orderedHash(Int)")(MurmurHash3.orderedHash(ints, MurmurHash3.seqSeed))
+    measure("WrappedArray[Long]")(longs.hashCode)
+    measure("orderedHash(Long)")(MurmurHash3.orderedHash(longs, MurmurHash3.seqSeed))
+    measure("MurmurHash3.bytesHash")(MurmurHash3.bytesHash(bytes))
+    measure("MurmurHash3.arrayHash(Byte)")(MurmurHash3.arrayHash(bytes))
+  }
+}
@@ -0,0 +1,61 @@
+package scala.runtime
+
+import scala.benchmarks.Rounds
+
+/** Measures the entry points of `BoxesRunTime` used for `==` and `##` on `Any`, and for boxing.
+ *  Run with `-Dscala.runtime.boxCacheHigh=N` to compare the boxing numbers with a wider box cache.
+ *
+ *  Usage: scala scala.runtime.BoxesRunTimeBenchmark [size] [rounds]
+ */
+object BoxesRunTimeBenchmark {
+  def measure(label: String, size: Int, rounds: Int)(body: => Int): Unit =
+    Rounds.rounds(rounds)(Rounds.time(body)) { (round, time) =>
+      printf("%-22s round %d: %6.2f ns/op%n", label, round, time.toDouble / size)
+    }
+
+  def main(args: Array[String]): Unit = {
+    val size   = if (args.length > 0) args(0).toInt else 1000000
+    val rounds = if (args.length > 1) args(1).toInt else 5
+
+    val random = new java.util.Random(42)
+    val ints: Array[AnyRef]  = Array.fill(size)(Int.box(random.nextInt(1000)))
+    val mixed: Array[AnyRef] = Array.tabulate(size)(i => (i % 5) match {
+      case 0 => Int.box(i % 1000)
+      case 1 => Long.box(i % 1000)
+      case 2 => Double.box(i % 1000)
+      case 3 => Char.box((i % 1000).toChar)
+      case _ => (i % 1000).toString
+    })
+
+    def equalities(xs: Array[AnyRef]) = {
+      var i, n = 0
+      while (i < size - 1) { if (BoxesRunTime.equals(xs(i), xs(i + 1))) n += 1; i += 1 }
+      n
+    }
+    def hashes(xs: Array[AnyRef]) = {
+      var i, h = 0
+      while (i < size) { h += BoxesRunTime.hashFromObject(xs(i)); i += 1 }
+      h
+    }
+
+    measure("equals (Int, Int)", size, rounds)(equalities(ints))
+    measure("equals (mixed)", size, rounds)(equalities(mixed))
+    measure("hashFromObject (Int)", size, rounds)(hashes(ints))
+    measure("hashFromObject (mixed)", size, rounds)(hashes(mixed))
+    measure("boxToInteger", size, rounds) {
+      var i, n = 0
+      while (i < size) { n += BoxesRunTime.boxToInteger(i & 0x3ff).hashCode; i += 1 }
+      n
+    }
+    measure("boxToLong", size, rounds) {
+      var i, n = 0
+      while (i < size) { n += BoxesRunTime.boxToLong(i & 0x3ff).hashCode; i += 1 }
+      n
+    }
+    measure("boxToCharacter", size, rounds) {
+      var i, n = 0
+      while (i < size) { n += BoxesRunTime.boxToCharacter((i & 0x3ff).toChar).hashCode; i += 1 }
+      n
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package scala.tools.asm
+
+import java.lang.management.ManagementFactory
+import java.util.zip.ZipFile
+import scala.benchmarks.Rounds
+import scala.collection.JavaConverters._
+
+/** Measures the bytes allocated per class when re-emitting the classfiles of a jar,
+ *  with a fresh `ClassWriter` per class and with a single writer that is `reset()` between classes.
+ *
+ *  Usage: scala scala.tools.asm.ClassWriterAllocation <jar> [rounds]
+ */
+object ClassWriterAllocation {
+  private val threadBean = ManagementFactory.getThreadMXBean.asInstanceOf[com.sun.management.ThreadMXBean]
+
+  private def allocatedBytes = threadBean.getThreadAllocatedBytes(Thread.currentThread.getId)
+
+  def readClasses(jar: String): Array[Array[Byte]] = {
+    val zip = new ZipFile(jar)
+    try {
+      val entries = zip.entries.asScala.filter(_.getName.endsWith(".class")).toArray
+      entries map { e =>
+        val in = zip.getInputStream(e)
+        try {
+          val bytes = new Array[Byte](e.getSize.toInt)
+          var read = 0
+          while (read < bytes.length) read += in.read(bytes, read, bytes.length - read)
+          bytes
+        } finally in.close()
+      }
+    } finally zip.close()
+  }
+
+  def measure(label: String, classes: Array[ClassNodeSource], rounds: Int)(emit: tree.ClassNode => Int): Unit =
+    Rounds.rounds(rounds) {
+      val before = allocatedBytes
+      val time   = Rounds.time {
+        var written, i = 0
+        while (i < classes.length) { written += emit(classes(i).node); i += 1 }
+        written
+      }
+      (allocatedBytes - before, time)
+    } { case (round, (bytes, time)) =>
+      printf("%-10s round %d: %8d bytes/class, %6d ns/class%n", label, round, bytes / classes.length, time / classes.length)
+    }
+
+  final class ClassNodeSource(bytes: Array[Byte]) {
+    val node = new tree.ClassNode()
+    new ClassReader(bytes).accept(node, 0)
+  }
+
+  def main(args: Array[String]): Unit = {
+    val classes = readClasses(args(0)) map (new ClassNodeSource(_))
+    val rounds  = if (args.length > 1) args(1).toInt else 5
+    println(s"${classes.length} classes")
+
+    measure("fresh", classes, rounds) { node =>
+      val cw = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+      node.accept(cw)
+      cw.toByteArray.length
+    }
+
+    val reused = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+    val out    = new ByteVector(1 << 16)
+    measure("reused", classes, rounds) { node =>
+      reused.reset()
+      node.accept(reused)
+      reused.toByteVector(out)
+      out.getLength
+    }
+  }
+}
@@ -0,0 +1,68 @@
+package scala.tools.asm
+package tree
+
+import scala.benchmarks.Rounds
+
+/** Reproduces the quadratic behavior of optimizer loops that remove instructions and compare
+ *  instruction positions with `indexOf` (every removal invalidates the index cache, so the next
+ *  `indexOf` rebuilds it in linear time), and compares it with `isBefore` on an order indexed list.
+ *
+ *  The loop mimics `removeUnusedLocalVariableNodes`: for every instruction, check whether it
+ *  is within the range of some local variable, and remove it if not.
+ *
+ *  Usage: scala scala.tools.asm.tree.InsnListOrder [size] [rounds]
+ */
+object InsnListOrder {
+  def newList(size: Int): (InsnList, Array[(LabelNode, LabelNode)]) = {
+    val insns  = new InsnList
+    val ranges = Array.newBuilder[(LabelNode, LabelNode)]
+    var i = 0
+    while (i < size) {
+      val start, end = new LabelNode
+      insns.add(start)
+      insns.add(new VarInsnNode(Opcodes.ILOAD, i % 16))
+      insns.add(new InsnNode(Opcodes.NOP))
+      insns.add(end)
+      if (i % 4 == 0) ranges += ((start, end))
+      i += 4
+    }
+    (insns, ranges.result())
+  }
+
+  /** Removes the NOPs that are not covered by one of the first ranges, returns the number of removed NOPs. */
+  def removeUncovered(insns: InsnList, ranges: Array[(LabelNode, LabelNode)]): Int = {
+    var removed = 0
+    val it = insns.iterator
+    while (it.hasNext) {
+      val insn = it.next()
+      if (insn.getOpcode == Opcodes.NOP) {
+        var covered = false
+        var r = 0
+        while (!covered && r < 4 && r < ranges.length) {
+          val (start, end) = ranges(r)
+          covered = insns.isBefore(start, insn) && insns.isBefore(insn, end)
+          r += 1
+        }
+        if (!covered) { it.remove(); removed += 1 }
+      }
+    }
+    removed
+  }
+
+  def main(args: Array[String]): Unit = {
+    val size   = if (args.length > 0) args(0).toInt else 20000
+    val rounds = if (args.length > 1) args(1).toInt else 5
+    Rounds.rounds(rounds) {
+      for (ordered <- List(false, true)) yield {
+        val (insns, ranges) = newList(size)
+        insns.setOrderIndexed(ordered)
+        var removed = 0
+        val time = Rounds.time { removed = removeUncovered(insns, ranges) }
+        (ordered, removed, time)
+      }
+    } { (round, results) =>
+      for ((ordered, removed, time) <- results)
+        printf("%-12s round %d: %6d removed, %8d us%n", if (ordered) "isBefore" else "indexOf", round, removed, time / 1000)
+    }
+  }
+}
@@ -0,0 +1,47 @@
+package scala.tools.asm
+package tree.analysis
+
+import scala.benchmarks.Rounds
+import scala.collection.JavaConverters._
+
+/** Compares the time needed by `Analyzer` and `BasicBlockAnalyzer` (with a `BasicInterpreter`)
+ *  to analyze the largest methods of a jar. `BasicBlockAnalyzer` is measured both for a
+ *  reachability query and for materializing all frames with `getFrames`.
+ *
+ *  Usage: scala scala.tools.asm.tree.analysis.AnalyzerBenchmark <jar> [methods] [rounds]
+ */
+object AnalyzerBenchmark {
+  def main(args: Array[String]): Unit = {
+    val count  = if (args.length > 1) args(1).toInt else 200
+    val rounds = if (args.length > 2) args(2).toInt else 10
+
+    val methods = for {
+      bytes <- ClassWriterAllocation.readClasses(args(0))
+      node  =  { val n = new ClassNode(); new ClassReader(bytes).accept(n, 0); n }
+      m     <- node.methods.asScala
+      if m.instructions.size > 0
+    } yield (node.name, m)
+    val largest = methods.sortBy(-_._2.instructions.size).take(count)
+    println(s"${largest.length} methods, ${largest.map(_._2.instructions.size).sum} instructions")
+
+    def measure(label: String)(analyze: (String, MethodNode) => Int): Unit =
+      Rounds.rounds(rounds)(Rounds.time(largest map { case (owner, m) => analyze(owner, m) })) { (round, time) =>
+        printf("%-20s round %2d: %8d us%n", label, round, time / 1000)
+      }
+
+    measure("Analyzer") { (owner, m) =>
+      val frames = new Analyzer(new BasicInterpreter).analyze(owner, m)
+      if (frames(frames.length - 1) == null) 0 else 1
+    }
+    measure("BasicBlockAnalyzer") { (owner, m) =>
+      val a = new BasicBlockAnalyzer(new BasicInterpreter)
+      a.analyze(owner, m)
+      if (a.isReachable(m.instructions.size - 1)) 1 else 0
+    }
+    measure("  + getFrames") { (owner, m) =>
+      val a = new BasicBlockAnalyzer(new BasicInterpreter)
+      a.analyze(owner, m)
+      a.getFrames.length
+    }
+  }
+}
@@ -0,0 +1,72 @@
+/* Many producers sending to one actor: no message may be lost while the actor
+ * alternates between draining its send buffer and waiting, and the messages of
+ * each producer must arrive in the order they were sent.
+ */
+@deprecated("Suppress warnings", since="2.11")
+object Test {
+  import scala.actors.{Actor, Reactor}
+  import scala.actors.Actor._
+
+  val Producers = 16
+  val PerProducer = 20000
+
+  class Checker(label: String) {
+    val next = new Array[Int](Producers)
+    var failed = false
+    def check(p: Int, i: Int) {
+      if (next(p) != i) failed = true
+      next(p) = i + 1
+    }
+    def report() {
+      val complete = next.forall(_ == PerProducer)
+      println(label + ": " + (if (complete && !failed) "OK" else "FAILED " + next.toList))
+    }
+  }
+
+  def produce(target: scala.actors.OutputChannel[Any]) {
+    val threads = for (p <- 0 until Producers) yield new Thread {
+      override def run() {
+        for (i <- 0 until PerProducer) target ! ((p, i))
+      }
+    }
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+  }
+
+  def main(args: Array[String]) {
+    import java.util.concurrent.{CountDownLatch, TimeUnit}
+    val reacted, received = new CountDownLatch(1)
+
+    // waits in `react`, so senders schedule its continuation
+    val reacting = actor {
+      val checker = new Checker("react")
+      var count = 0
+      loopWhile (count < Producers * PerProducer) {
+        react {
+          case (p: Int, i: Int) =>
+            checker.check(p, i)
+            count += 1
+            if (count == Producers * PerProducer) {
+              checker.report()
+              reacted.countDown()
+            }
+        }
+      }
+    }
+
+    // blocks its thread in `receive`, so senders resume it
+    val receiving = actor {
+      val checker = new Checker("receive")
+      for (_ <- 0 until Producers * PerProducer) receive {
+        case (p: Int, i: Int) => checker.check(p, i)
+      }
+      checker.report()
+      received.countDown()
+    }
+
+    produce(reacting)
+    if (!reacted.await(60, TimeUnit.SECONDS)) println("react: timed out")
+    produce(receiving)
+    if (!received.await(60, TimeUnit.SECONDS)) println("receive: timed out")
+  }
+}
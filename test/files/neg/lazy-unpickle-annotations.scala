@@ -0,0 +1,5 @@
+// the deprecations of library members are found in annotations unpickled lazily
+object Test {
+  def cm: ClassManifest[Int] = null
+  def line = Console.readLine()
+}
@@ -0,0 +1,48 @@
+import java.lang.management.ManagementFactory
+import java.util.concurrent.CountDownLatch
+import javax.management.ObjectName
+import scala.concurrent.ExecutionContext
+import scala.concurrent.forkjoin.ForkJoinPool
+
+// the statistics which are only recorded with -Dscala.concurrent.forkjoin.instrument=true
+object Test extends App {
+  println(s"instrumented: ${ForkJoinPool.isInstrumented}")
+
+  val pool = new ForkJoinPool(1)
+  try {
+    // the worker parks when it runs out of tasks, and is unparked by the next one
+    for (_ <- 1 to 3) {
+      val done = new CountDownLatch(1)
+      pool.execute(new Runnable { def run(): Unit = done.countDown() })
+      done.await()
+      Thread.sleep(100)
+    }
+
+    // the only worker blocks until a task behind it has run, so the pool has to compensate
+    val released = new CountDownLatch(1)
+    val done = new CountDownLatch(1)
+    pool.execute(new Runnable {
+      def run(): Unit = {
+        pool.execute(new Runnable { def run(): Unit = released.countDown() })
+        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker {
+          def block(): Boolean = { released.await(); true }
+          def isReleasable = released.getCount == 0
+        })
+        done.countDown()
+      }
+    })
+    done.await()
+
+    val stats = pool.getStatistics
+    println(s"parks: ${stats.getParkCount > 0}")
+    println(s"unparks: ${stats.getUnparkCount > 0}")
+    println(s"compensations: ${stats.getCompensationCount + stats.getCompensationThreadCount > 0}")
+    println(s"task times: ${stats.getTaskTimeHistogram.sum > 0}")
+  } finally pool.shutdownNow()
+
+  // only the pool behind the global context registers itself
+  ExecutionContext.global
+  ExecutionContext.fromExecutor(null)
+  val server = ManagementFactory.getPlatformMBeanServer
+  println(s"registered pools: ${server.queryNames(new ObjectName("scala.concurrent.forkjoin:type=ForkJoinPool,*"), null).size}")
+}
@@ -0,0 +1,136 @@
+package scala.collection.concurrent
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import scala.util.hashing.Hashing
+
+@RunWith(classOf[JUnit4])
+class TrieMapBatchTest {
+  // hashes that share their low bits, so that batches go deep into the trie and into l-nodes
+  def clustered = new TrieMap[Int, Int](Hashing.fromFunction(k => (k % 37) << 20), Equiv.universal, countSize = true)
+
+  def maps = List(TrieMap.withSizeCounter[Int, Int], new TrieMap[Int, Int], clustered)
+
+  def check(expected: collection.Map[Int, Int], ct: TrieMap[Int, Int]): Unit = {
+    assertEquals(expected, ct.readOnlySnapshot())
+    for ((k, v) <- expected) assertEquals(Some(v), ct.get(k))
+    assertEquals(expected.size, ct.size)
+    assertEquals(expected.size, ct.exactSize)
+  }
+
+  @Test
+  def putAllAgreesWithUpdates(): Unit = for (ct <- maps) {
+    val rnd = new scala.util.Random(42)
+    val expected = collection.mutable.Map[Int, Int]()
+    for (round <- 0 until 20) {
+      val batch = Seq.fill(500)((rnd.nextInt(2000), rnd.nextInt()))
+      expected ++= batch
+      ct.putAll(batch)
+      check(expected, ct)
+    }
+  }
+
+  @Test
+  def laterBindingsWin(): Unit = for (ct <- maps) {
+    ct.putAll(List(1 -> 1, 2 -> 2, 1 -> 3, 38 -> 4, 1 -> 5))
+    check(Map(1 -> 5, 2 -> 2, 38 -> 4), ct)
+  }
+
+  @Test
+  def removeAllAgreesWithRemovals(): Unit = for (ct <- maps) {
+    val rnd = new scala.util.Random(7)
+    val expected = collection.mutable.Map[Int, Int]()
+    for (round <- 0 until 20) {
+      val batch = Seq.fill(300)((rnd.nextInt(1000), round))
+      expected ++= batch
+      ct.putAll(batch)
+      val removed = Seq.fill(300)(rnd.nextInt(1000))
+      expected --= removed
+      ct.removeAll(removed)
+      check(expected, ct)
+    }
+    ct --= (0 until 1000)
+    check(Map(), ct)
+    ct ++= List(5 -> 5)
+    check(Map(5 -> 5), ct)
+  }
+
+  @Test
+  def concurrentBatches(): Unit = for (ct <- maps) {
+    val threads = for (t <- 0 until 4) yield new Thread {
+      override def run(): Unit = for (round <- 0 until 50) {
+        ct.putAll(for (i <- 0 until 200) yield (i * 4 + t, round))
+        ct.removeAll(for (i <- 0 until 200 by 2) yield i * 4 + t)
+      }
+    }
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+    check((for (i <- 0 until 800; if (i / 4) % 2 == 1) yield (i, 49)).toMap, ct)
+  }
+
+  @Test
+  def batchesDuringSnapshots(): Unit = for (ct <- maps) {
+    @volatile var done = false
+    // every snapshot renews the generation, so batches keep meeting i-nodes of older ones
+    val snapshots = new Thread {
+      override def run(): Unit = while (!done) {
+        ct.readOnlySnapshot()
+        ct.snapshot()
+      }
+    }
+    val writers = for (t <- 0 until 2) yield new Thread {
+      override def run(): Unit = for (round <- 0 until 200) {
+        ct.putAll(for (i <- 0 until 200) yield (i * 2 + t, round))
+        ct.removeAll(for (i <- 0 until 200 by 2) yield i * 2 + t)
+      }
+    }
+    snapshots.start()
+    writers.foreach(_.start())
+    writers.foreach(_.join(60000))
+    done = true
+    snapshots.join()
+    for (w <- writers) assertFalse("batch did not terminate", w.isAlive)
+    check((for (i <- 0 until 400; if (i / 2) % 2 == 1) yield (i, 199)).toMap, ct)
+  }
+
+  @Test
+  def compute(): Unit = {
+    val ct = TrieMap.withSizeCounter[String, Int]
+    assertEquals(Some(1), ct.compute("a")(v => Some(v.getOrElse(0) + 1)))
+    assertEquals(Some(2), ct.compute("a")(v => Some(v.getOrElse(0) + 1)))
+    assertEquals(None, ct.compute("b")(_ => None))
+    assertEquals(None, ct.compute("a")(_ => None))
+    assertEquals(0, ct.size)
+
+    val counter = TrieMap[String, Int]()
+    val threads = for (t <- 0 until 4) yield new Thread {
+      override def run(): Unit = for (i <- 0 until 1000) counter.compute("n")(v => Some(v.getOrElse(0) + 1))
+    }
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+    assertEquals(Some(4000), counter.get("n"))
+  }
+
+  @Test(timeout = 10000L)
+  def computeOverNullBindings(): Unit = {
+    // every key collides, so the second map keeps its bindings in an LNode
+    for (ct <- List(TrieMap.withSizeCounter[String, String], new TrieMap[String, String](Hashing.fromFunction(_ => 7), Equiv.universal, countSize = true))) {
+      ct.put("a", null)
+      ct.put("b", null)
+      assertEquals(None, ct.compute("a")(_ => None))
+      assertEquals(Some("x"), ct.compute("a")(v => Some(v.getOrElse("") + "x")))
+      assertEquals(Some("x"), ct.get("a"))
+      assertEquals(Some("y"), ct.compute("b")(v => Some(v.getOrElse("") + "y")))
+      assertEquals(2, ct.size)
+    }
+  }
+
+  @Test
+  def builder(): Unit = {
+    val ct = TrieMap((0 until 5000).map(i => (i, -i)): _*)
+    check((0 until 5000).map(i => (i, -i)).toMap, ct)
+  }
+}
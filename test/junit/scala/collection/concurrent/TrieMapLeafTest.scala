@@ -0,0 +1,80 @@
+package scala.collection.concurrent
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import scala.util.hashing.Hashing
+
+@RunWith(classOf[JUnit4])
+class TrieMapLeafTest {
+  // keys share their slot in the root, and differ above the first level
+  def shared = new TrieMap[Int, Int](Hashing.fromFunction(k => k << 5), Equiv.universal)
+
+  def below(ct: TrieMap[Int, Int]): MainNode[Int, Int] = {
+    val root = ct.readRoot().gcasRead(ct).asInstanceOf[CNode[Int, Int]]
+    root.array(0).asInstanceOf[INode[Int, Int]].gcasRead(ct)
+  }
+
+  @Test
+  def smallGroupsShareAnLNode(): Unit = {
+    val ct = shared
+    for (i <- 0 until LNode.Capacity) ct.update(i, i)
+    below(ct) match {
+      case ln: LNode[Int, Int] => assertEquals(LNode.Capacity, ln.size)
+      case n => fail(n.toString)
+    }
+    ct.update(3, 33)
+    assertEquals(Some(33), ct.get(3))
+    assertEquals(LNode.Capacity, ct.size)
+  }
+
+  @Test
+  def overflowingLNodeIsSplit(): Unit = {
+    val ct = shared
+    for (i <- 0 to LNode.Capacity) ct.update(i, i)
+    assertTrue(below(ct).isInstanceOf[CNode[_, _]])
+    assertEquals((0 to LNode.Capacity).map(i => (i, i)).toMap, ct.readOnlySnapshot())
+  }
+
+  @Test
+  def lNodeContractsOnRemoval(): Unit = {
+    val ct = shared
+    ct.update(1, 1)
+    ct.update(2, 2)
+    assertEquals(Some(1), ct.remove(1))
+    assertEquals(None, ct.remove(1))
+    assertEquals(Some(2), ct.get(2))
+    assertEquals(1, ct.size)
+    // the tombed remainder has been compressed into the root
+    assertTrue(ct.readRoot().gcasRead(ct).asInstanceOf[CNode[Int, Int]].array(0).isInstanceOf[SNode[_, _]])
+  }
+
+  @Test
+  def collisionsBeyondCapacity(): Unit = {
+    // ten keys per hash, so that l-nodes of complete collisions exceed the capacity
+    val ct = new TrieMap[Int, Int](Hashing.fromFunction(k => k / 10), Equiv.universal)
+    val expected = (0 until 500).map(i => (i, -i)).toMap
+    for ((k, v) <- expected) ct.put(k, v)
+    assertEquals(expected, ct.readOnlySnapshot())
+    assertEquals(expected, ct.iterator.toMap)
+    for (k <- 0 until 500 by 3) assertEquals(Some(-k), ct.remove(k))
+    assertEquals(expected.filterKeys(_ % 3 != 0), ct.readOnlySnapshot())
+    for (k <- 0 until 500) assertEquals(k % 3 != 0, ct.replace(k, -k, k))
+    assertEquals(expected.collect { case (k, v) if k % 3 != 0 => (k, k) }, ct.readOnlySnapshot())
+  }
+
+  @Test
+  def snapshotsShareLNodes(): Unit = {
+    val ct = shared
+    for (i <- 0 until 5) ct.update(i, i)
+    val snap = ct.snapshot()
+    ct.update(0, 100)
+    snap.remove(1)
+    assertEquals(Some(100), ct.get(0))
+    assertEquals(Some(1), ct.get(1))
+    assertEquals(Some(0), snap.get(0))
+    assertEquals(None, snap.get(1))
+  }
+}
@@ -0,0 +1,115 @@
+package scala.collection.concurrent
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import scala.util.hashing.Hashing
+
+@RunWith(classOf[JUnit4])
+class TrieMapSizeTest {
+  def counted[K]: TrieMap[K, Int] = TrieMap.withSizeCounter[K, Int]
+
+  // every key collides, so all bindings end up in an LNode
+  def colliding: TrieMap[Int, Int] = new TrieMap[Int, Int](Hashing.fromFunction(_ => 7), Equiv.universal, countSize = true)
+
+  def exercise(ct: TrieMap[Int, Int]): Unit = {
+    for (i <- 0 until 200) ct.update(i, i)
+    assertEquals(200, ct.size)
+    for (i <- 0 until 200) ct.put(i, -i)
+    assertEquals(200, ct.size)
+    for (i <- 150 until 250) ct.putIfAbsent(i, i)
+    assertEquals(250, ct.size)
+    for (i <- 0 until 50) ct.replace(i, i + 1)
+    for (i <- 300 until 310) ct.replace(i, i + 1)
+    assertEquals(250, ct.size)
+    for (i <- 0 until 100) ct.remove(i)
+    for (i <- 0 until 100) ct.remove(i)
+    assertEquals(150, ct.size)
+    for (i <- 100 until 200) ct.remove(i, 12345)
+    assertEquals(150, ct.size)
+    for (i <- 100 until 150) ct.remove(i, -i)
+    assertEquals(100, ct.size)
+    assertEquals(ct.exactSize, ct.size)
+  }
+
+  @Test
+  def countsUpdatesAndRemovals(): Unit = exercise(counted[Int])
+
+  @Test
+  def countsCollidingKeys(): Unit = exercise(colliding)
+
+  @Test
+  def notCountedByDefault(): Unit = {
+    val ct = TrieMap[Int, Int](1 -> 1, 2 -> 2)
+    assertFalse(ct.isSizeCounted)
+    assertEquals(2, ct.size)
+  }
+
+  @Test
+  def concurrentWritersAgreeWithExactSize(): Unit = {
+    val ct = counted[Int]
+    val threads = for (t <- 0 until 4) yield new Thread {
+      override def run(): Unit = {
+        for (i <- 0 until 20000) ct.update(i * 4 + t, i)
+        for (i <- 0 until 20000 by 2) ct.remove(i * 4 + t)
+        for (i <- 0 until 20000 by 3) ct.putIfAbsent(i * 4 + t, i)
+      }
+    }
+    threads.foreach(_.start())
+    threads.foreach(_.join())
+    assertEquals(ct.exactSize, ct.size)
+  }
+
+  @Test
+  def snapshotsAndClear(): Unit = {
+    val ct = counted[Int]
+    for (i <- 0 until 1000) ct.update(i, i)
+    val snap = ct.snapshot()
+    assertTrue(snap.isSizeCounted)
+    for (i <- 0 until 500) snap.remove(i)
+    assertEquals(500, snap.size)
+    assertEquals(1000, ct.size)
+    assertEquals(1000, ct.readOnlySnapshot().size)
+    ct.clear()
+    assertEquals(0, ct.size)
+    ct.update(1, 1)
+    assertEquals(1, ct.size)
+  }
+
+  @Test
+  def snapshotsDuringUpdatesStartFromTheirExactSize(): Unit = {
+    val ct = counted[Int]
+    val writer = new Thread {
+      override def run(): Unit = for (i <- 0 until 100000) {
+        ct.update(i % 5000, i)
+        if (i % 3 == 0) ct.remove((i * 7) % 5000)
+      }
+    }
+    writer.start()
+    val snaps = for (_ <- 0 until 50) yield { Thread.`yield`(); ct.snapshot() }
+    writer.join()
+    for (snap <- snaps) {
+      for (i <- 0 until 100) snap.update(-i - 1, i)
+      assertEquals(snap.exactSize, snap.size)
+    }
+    assertEquals(ct.exactSize, ct.size)
+  }
+
+  @Test
+  def serializationKeepsCounter(): Unit = {
+    val ct = counted[String]
+    for (i <- 0 until 100) ct.update(i.toString, i)
+    val buffer = new java.io.ByteArrayOutputStream
+    val out = new java.io.ObjectOutputStream(buffer)
+    out.writeObject(ct)
+    out.close()
+    val in = new java.io.ObjectInputStream(new java.io.ByteArrayInputStream(buffer.toByteArray))
+    val copy = in.readObject().asInstanceOf[TrieMap[String, Int]]
+    assertTrue(copy.isSizeCounted)
+    assertEquals(100, copy.size)
+    copy.remove("0")
+    assertEquals(99, copy.size)
+  }
+}
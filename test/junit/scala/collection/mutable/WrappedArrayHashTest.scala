@@ -0,0 +1,43 @@
+package scala.collection.mutable
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import scala.util.hashing.MurmurHash3
+
+@RunWith(classOf[JUnit4])
+class WrappedArrayHashTest {
+  val longs = List(0L, 1L, -1L, 1000L, Int.MaxValue + 1L, (1L << 40) + (1L << 31), Long.MinValue)
+
+  /** The hash of WrappedArray must not depend on whether the elements are stored in a primitive array. */
+  def check[T](xs: Array[T]): Unit = {
+    val wrapped: WrappedArray[T] = xs
+    assertEquals(xs.mkString(","), xs.toList.hashCode, wrapped.hashCode)
+  }
+
+  @Test
+  def sameHashAsList(): Unit = {
+    for (n <- 0 to 9) {
+      val ls = Iterator.continually(longs).flatten.take(n).toArray
+      check(ls)
+      check(ls.map(_.toInt))
+      check(ls.map(_.toDouble))
+      check(ls.map(_.toDouble / 3))
+      check(ls.map(_.toFloat))
+      check(ls.map(_.toChar))
+      check(ls.map(_.toByte))
+      check(ls.map(_.toShort))
+      check(ls.map(_ % 2 == 0))
+      check(ls.map(l => if (l % 3 == 0) null else l.toString))
+      check(ls.map(l => l: Any))
+    }
+  }
+
+  @Test
+  def bytesHashOfSlices(): Unit = {
+    val bytes = Array.tabulate[Byte](11)(i => (i * 37).toByte)
+    for (from <- 0 to bytes.length; until <- from to bytes.length)
+      assertEquals(s"$from-$until", MurmurHash3.bytesHash(bytes.slice(from, until), 42), scala.runtime.Statics.bytesHash(bytes, from, until, 42))
+  }
+}
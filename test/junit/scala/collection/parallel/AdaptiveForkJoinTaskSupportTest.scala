@@ -0,0 +1,75 @@
+package scala.collection.parallel
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import java.util.concurrent.atomic.AtomicReference
+import scala.concurrent.forkjoin.ForkJoinPool
+
+@RunWith(classOf[JUnit4])
+class AdaptiveForkJoinTaskSupportTest {
+  private def withTaskSupport(targetLeafNanos: Long)(f: AdaptiveForkJoinTaskSupport => Unit): Unit = {
+    val pool = new ForkJoinPool(4)
+    try f(new AdaptiveForkJoinTaskSupport(pool, targetLeafNanos)) finally pool.shutdown()
+  }
+
+  /** A task support like `ts`, and a reference to the last task whose split it decided,
+   *  which for the operations below is a task of the operation itself.
+   */
+  private def probing(ts: AdaptiveForkJoinTaskSupport): (AdaptiveForkJoinTaskSupport, AtomicReference[Task[_, _]]) = {
+    val task = new AtomicReference[Task[_, _]]
+    val probe = new AdaptiveForkJoinTaskSupport(ts.environment, ts.targetLeafNanos) {
+      override private[parallel] def shouldSplitFurther(t: Task[_, _], howmany: Int, size: Int) = {
+        task.set(t)
+        super.shouldSplitFurther(t, howmany, size)
+      }
+    }
+    (probe, task)
+  }
+
+  private def spin(n: Int): Int = {
+    var i = 0
+    var x = n
+    while (i < 20000) { x = x * 31 + i; i += 1 }
+    x
+  }
+
+  @Test
+  def resultsAreUnchanged(): Unit = withTaskSupport(100000L) { ts =>
+    val pa = mutable.ParArray.range(0, 100000)
+    pa.tasksupport = ts
+    val pr = (0 until 100000).par
+    pr.tasksupport = ts
+    for (_ <- 1 to 20) {
+      assertEquals((0 until 100000).map(_ * 2L).sum, pa.map(_ * 2L).sum)
+      assertEquals((0 until 100000).count(_ % 3 == 0), pr.count(_ % 3 == 0))
+      assertEquals((0 until 100000).filter(_ % 7 == 0).toList, pa.filter(_ % 7 == 0).toList)
+    }
+  }
+
+  @Test
+  def cheapOperationsGetLargerLeaves(): Unit = withTaskSupport(1000000000L) { ts =>
+    val (probe, task) = probing(ts)
+    val pa = mutable.ParArray.range(0, 100000)
+    pa.tasksupport = probe
+    pa.count(_ > 0)
+    val initial = probe.threshold(task.get, pa.size)
+    for (_ <- 1 to 10) pa.count(_ > 0)
+    assertTrue(probe.threshold(task.get, pa.size) > initial)
+    assertTrue(probe.threshold(task.get, pa.size) <= pa.size / probe.parallelismLevel)
+  }
+
+  @Test
+  def costlyOperationsGetSmallerLeaves(): Unit = withTaskSupport(1000L) { ts =>
+    val (probe, task) = probing(ts)
+    val pa = mutable.ParArray.range(0, 1000)
+    pa.tasksupport = probe
+    val expected = (0 until 1000).map(spin)
+    assertEquals(expected, pa.map(spin).seq)
+    val initial = probe.threshold(task.get, pa.size)
+    for (_ <- 1 to 10) assertEquals(expected, pa.map(spin).seq)
+    assertTrue(probe.threshold(task.get, pa.size) < initial)
+    assertTrue(probe.threshold(task.get, pa.size) >= 1)
+  }
+}
@@ -0,0 +1,76 @@
+package scala.collection.parallel.mutable
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import scala.collection.parallel.ForkJoinTaskSupport
+import scala.concurrent.forkjoin.ForkJoinPool
+
+@RunWith(classOf[JUnit4])
+class ParPrimitiveArrayTest {
+  private val n = 100000
+
+  @Test
+  def transformationsKeepPrimitiveArrays(): Unit = {
+    val pa = ParIntArray.handoff(Array.tabulate(n)(i => i))
+    val mapped: ParIntArray = pa.map(_ * 2)
+    val filtered: ParIntArray = pa.filter(_ % 3 == 0)
+    assertEquals((0 until n).map(_ * 2).toList, mapped.array.toList)
+    assertEquals((0 until n).filter(_ % 3 == 0).toList, filtered.array.toList)
+    assertEquals((0 until n).filterNot(_ % 3 == 0).toList, pa.filterNot(_ % 3 == 0).seq.toList)
+  }
+
+  @Test
+  def accessorsAgreeWithSequential(): Unit = {
+    val xs = Array.tabulate(n)(i => i * 7L)
+    val pa = ParLongArray.handoff(xs)
+    assertEquals(xs.sum, pa.sum)
+    assertEquals(xs.count(_ % 3 == 0), pa.count(_ % 3 == 0))
+    assertEquals(BigInt(xs.sum), pa.map(BigInt(_)).sum)
+    var total = 0L
+    pa.seq.foreach(total += _)
+    assertEquals(xs.sum, total)
+  }
+
+  @Test
+  def otherResultTypesFallBack(): Unit = {
+    val pa = ParDoubleArray(1.0, 2.0, 3.0)
+    assertEquals(List("1.0", "2.0", "3.0"), pa.map(_.toString).seq.toList)
+    assertEquals(6.0, pa.sum, 0.0)
+    assertEquals(6.0, pa.product, 0.0)
+  }
+
+  @Test
+  def combinersConcatenateChunks(): Unit = {
+    val a = new IntArrayCombiner
+    val b = new IntArrayCombiner
+    for (i <- 0 until 1000) a += i
+    b.addAll(Array.tabulate(5000)(i => 1000 + i), 0, 5000)
+    val c = a.combine(b)
+    assertEquals(6000, c.size)
+    assertEquals((0 until 6000).toList, c.result().array.toList)
+
+    val single = new IntArrayCombiner
+    for (i <- 0 until 16) single += i
+    assertEquals((0 until 16).toList, single.result().array.toList)
+    single.clear()
+    assertEquals(0, single.result().length)
+  }
+
+  @Test
+  def resultCopiesChunksInParallel(): Unit = {
+    val pool = new ForkJoinPool(4)
+    try {
+      val parts = for (k <- 0 until 64) yield {
+        val cb = new LongArrayCombiner
+        for (i <- 0 until k * 1000) cb += k * 100000L + i
+        cb
+      }
+      val combined = parts.reduceLeft[scala.collection.parallel.Combiner[Long, ParLongArray]](_ combine _)
+      combined.combinerTaskSupport = new ForkJoinTaskSupport(pool)
+      val expected = for (k <- 0 until 64; i <- 0 until k * 1000) yield k * 100000L + i
+      assertEquals(expected.toList, combined.result().array.toList)
+    } finally pool.shutdown()
+  }
+}
@@ -0,0 +1,28 @@
+package scala.collection.parallel.mutable
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import scala.collection.parallel.{ Combiner, ForkJoinTaskSupport }
+import scala.concurrent.forkjoin.ForkJoinPool
+
+@RunWith(classOf[JUnit4])
+class ResizableParArrayCombinerTest {
+  @Test
+  def resultSkipsEmptyBuffersOfTheChain(): Unit = {
+    val pool = new ForkJoinPool(4)
+    try {
+      // every third combiner is empty, so the chain contains empty buffers
+      val parts = for (k <- 0 until 48) yield {
+        val cb = ResizableParArrayCombiner[Int]()
+        if (k % 3 != 0) for (i <- 0 until 2000) cb += k * 10000 + i
+        cb
+      }
+      val combined = parts.reduceLeft[Combiner[Int, ParArray[Int]]](_ combine _)
+      combined.combinerTaskSupport = new ForkJoinTaskSupport(pool)
+      val expected = for (k <- 0 until 48 if k % 3 != 0; i <- 0 until 2000) yield k * 10000 + i
+      assertEquals(expected.toList, combined.result.toList)
+    } finally pool.shutdown()
+  }
+}
@@ -0,0 +1,80 @@
+package scala.concurrent
+
+import java.util.concurrent.{ CountDownLatch, Executors, TimeUnit }
+import java.util.concurrent.atomic.AtomicInteger
+import org.junit.Assert._
+import org.junit.{ After, Test }
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import scala.concurrent.duration._
+
+@RunWith(classOf[JUnit4])
+class BatchingExecutionContextTest {
+  private val pool = Executors.newFixedThreadPool(2)
+  private val submitted = new AtomicInteger
+  private val underlying = new ExecutionContext {
+    def execute(r: Runnable): Unit = { submitted.incrementAndGet(); pool.execute(r) }
+    def reportFailure(t: Throwable): Unit = t.printStackTrace()
+  }
+  implicit val ec: ExecutionContext = ExecutionContext.batching(underlying)
+
+  @After
+  def shutdown(): Unit = pool.shutdownNow()
+
+  @Test
+  def pipelineRunsInOneBatch(): Unit = {
+    val start = Promise[Int]()
+    val end = (1 to 100).foldLeft(start.future)((f, _) => f.map(_ + 1))
+    ec.execute(new Runnable with OnCompleteRunnable { def run() = start.success(0) })
+    assertEquals(100, Await.result(end, 10.seconds))
+    assertEquals(1, submitted.get)
+  }
+
+  @Test
+  def futureBodiesAreNotBatched(): Unit = {
+    val fs = for (i <- 1 to 10) yield Future(i)
+    assertEquals(55, Await.result(Future.sequence(fs), 10.seconds).sum)
+    assertTrue(submitted.get >= 10)
+  }
+
+  @Test
+  def blockingHandsOffQueuedCallbacks(): Unit = {
+    val release = new CountDownLatch(1)
+    val ran = new CountDownLatch(1)
+    val p = Promise[Unit]()
+    // the second callback is queued behind the first in the same batch and can
+    // only run once the blocked callback has handed it back to the pool
+    ec.execute(new Runnable with OnCompleteRunnable {
+      def run(): Unit = {
+        p.future.foreach(_ => ran.countDown())
+        p.success(())
+        blocking(release.await(10, TimeUnit.SECONDS))
+      }
+    })
+    try assertTrue(ran.await(10, TimeUnit.SECONDS))
+    finally release.countDown()
+  }
+
+  @Test
+  def prepareDelegatesToUnderlying(): Unit = {
+    assertSame(ec, ec.prepare())
+
+    val preparedSubmitted = new AtomicInteger
+    val prepared = new ExecutionContext {
+      def execute(r: Runnable): Unit = { preparedSubmitted.incrementAndGet(); pool.execute(r) }
+      def reportFailure(t: Throwable): Unit = t.printStackTrace()
+    }
+    val unprepared = new AtomicInteger
+    val preparing = ExecutionContext.batching(new ExecutionContext {
+      def execute(r: Runnable): Unit = { unprepared.incrementAndGet(); pool.execute(r) }
+      def reportFailure(t: Throwable): Unit = t.printStackTrace()
+      override def prepare(): ExecutionContext = prepared
+    })
+    val start = Promise[Int]()
+    val end = start.future.map(_ + 1)(preparing).map(_ + 1)(preparing)
+    start.success(0)
+    assertEquals(2, Await.result(end, 10.seconds))
+    assertEquals(0, unprepared.get)
+    assertTrue(preparedSubmitted.get > 0)
+  }
+}
@@ -0,0 +1,60 @@
+package scala.concurrent.forkjoin
+
+import java.lang.management.ManagementFactory
+import java.util.concurrent.CountDownLatch
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(classOf[JUnit4])
+class ForkJoinPoolStatisticsTest {
+  private def withPool(f: ForkJoinPool => Unit): Unit = {
+    val pool = new ForkJoinPool(2)
+    try f(pool) finally pool.shutdownNow()
+  }
+
+  @Test
+  def snapshotReportsQueueDepths(): Unit = withPool { pool =>
+    val started = new CountDownLatch(2)
+    val release = new CountDownLatch(1)
+    val blocker = new Runnable { def run(): Unit = { started.countDown(); release.await() } }
+    pool.execute(blocker)
+    pool.execute(blocker)
+    started.await()
+    for (_ <- 1 to 10) pool.execute(new Runnable { def run(): Unit = () })
+    val stats = pool.getStatistics
+    release.countDown()
+    assertEquals(2, stats.getParallelism)
+    assertEquals(10L, stats.getQueuedSubmissionCount)
+    assertEquals(10, stats.getWorkQueueDepths.sum)
+    assertEquals(stats.getWorkQueueIndices.length, stats.getWorkQueueDepths.length)
+    assertEquals(stats.getWorkQueueIndices.length, stats.getWorkQueueStealCounts.length)
+    assertEquals(ForkJoinPoolStatistics.TASK_TIME_BUCKETS, stats.getTaskTimeHistogram.length)
+  }
+
+  // the instrumented counts are tested by test/files/run/forkjoin-instrumented
+  @Test
+  def nothingIsRecordedByDefault(): Unit = withPool { pool =>
+    assertFalse(ForkJoinPool.isInstrumented)
+    val done = new CountDownLatch(100)
+    for (_ <- 1 to 100) pool.execute(new Runnable { def run(): Unit = done.countDown() })
+    done.await()
+    val stats = pool.getStatistics
+    assertFalse(stats.isInstrumented)
+    assertEquals(0L, stats.getTaskTimeHistogram.sum)
+    assertEquals(0L, stats.getParkCount)
+    assertEquals(0L, stats.getUnparkCount)
+    assertEquals(0L, stats.getWorkQueueStealCounts.sum)
+  }
+
+  @Test
+  def mxBeanIsRegistered(): Unit = withPool { pool =>
+    val name = pool.registerMXBean()
+    val server = ManagementFactory.getPlatformMBeanServer
+    try {
+      assertTrue(name.toString startsWith "scala.concurrent.forkjoin:type=ForkJoinPool,name=ForkJoinPool-")
+      assertEquals(Integer.valueOf(2), server.getAttribute(name, "Parallelism"))
+    } finally server.unregisterMBean(name)
+  }
+}
@@ -7,7 +7,7 @@ import org.junit.{ After, Before, Test }
 import org.junit.runner.RunWith
 import org.junit.runners.JUnit4
 import scala.annotation.tailrec
-import scala.concurrent.ExecutionContext
+import scala.concurrent.{ BatchingExecutor, ExecutionContext }
 import scala.concurrent.impl.Promise.DefaultPromise
 import scala.util.{ Failure, Success, Try }
 import scala.util.control.NonFatal
@@ -341,4 +341,105 @@ class DefaultPromiseTest {
     }
   }
 
+  /** An ExecutionContext which counts the tasks submitted to it and runs them on
+   *  the global ExecutionContext */
+  class CountingExecutionContext extends ExecutionContext {
+    val submitted = new java.util.concurrent.atomic.AtomicInteger
+    def execute(r: Runnable) {
+      submitted.incrementAndGet()
+      ExecutionContext.global.execute(r)
+    }
+    def reportFailure(t: Throwable) = ExecutionContext.global.reportFailure(t)
+  }
+
+  /** A batching ExecutionContext which counts the tasks it submits to the global ExecutionContext */
+  class CountingBatchingExecutionContext extends ExecutionContext with BatchingExecutor {
+    val submitted = new java.util.concurrent.atomic.AtomicInteger
+    protected def unbatchedExecute(r: Runnable) {
+      submitted.incrementAndGet()
+      ExecutionContext.global.execute(r)
+    }
+    def reportFailure(t: Throwable) = ExecutionContext.global.reportFailure(t)
+  }
+
+  /** Callbacks sharing a batching ExecutionContext are submitted to it as one task */
+  @Test
+  def testBatchedCallbacks {
+    val ec = new CountingBatchingExecutionContext
+    val other = new CountingBatchingExecutionContext
+    val p = new DefaultPromise[Int]()
+    val count = 10
+    val done = new CountDownLatch(count + 1)
+    val results = new ConcurrentLinkedQueue[Int]()
+    for (i <- 0 until count) p.onComplete { r => results.add(r.get + i); done.countDown() }(ec)
+    p.onComplete { _ => done.countDown() }(other)
+    p.success(100)
+    done.await()
+    assertEquals(1, ec.submitted.get)
+    assertEquals(1, other.submitted.get)
+    assertEquals((100 until 100 + count).toSet, results.toArray.toSet)
+  }
+
+  /** Other ExecutionContexts get one task per callback */
+  @Test
+  def testUnbatchedCallbacks {
+    val ec = new CountingExecutionContext
+    val p = new DefaultPromise[Int]()
+    val count = 100
+    val done = new CountDownLatch(count)
+    for (_ <- 0 until count) p.onComplete(_ => done.countDown())(ec)
+    p.success(1)
+    done.await()
+    assertEquals(count, ec.submitted.get)
+  }
+
+  /** A callback may wait for a sibling callback without deadlocking */
+  @Test(timeout = 10000L)
+  def testCallbackAwaitingSibling {
+    val pool = java.util.concurrent.Executors.newFixedThreadPool(2)
+    val ec = ExecutionContext.fromExecutorService(pool)
+    try {
+      val p = new DefaultPromise[Int]()
+      val sibling = new CountDownLatch(1)
+      val done = new CountDownLatch(2)
+      p.onComplete { _ => sibling.await(); done.countDown() }(ec)
+      p.onComplete { _ => sibling.countDown(); done.countDown() }(ec)
+      p.success(1)
+      done.await()
+    } finally pool.shutdownNow()
+  }
+
+  /** A callback which blocks hands the rest of its batch back to the ExecutionContext */
+  @Test
+  def testBlockingCallbackHandsOffBatch {
+    val ec = new CountingBatchingExecutionContext
+    val p = new DefaultPromise[Int]()
+    val release = new CountDownLatch(1)
+    val others = new CountDownLatch(2)
+    // a batch runs its callbacks in the order they were added
+    p.onComplete(_ => scala.concurrent.blocking(release.await()))(ec)
+    p.onComplete(_ => others.countDown())(ec)
+    p.onComplete(_ => others.countDown())(ec)
+    p.success(1)
+    try assertTrue(others.await(10, java.util.concurrent.TimeUnit.SECONDS))
+    finally release.countDown()
+    assertEquals(2, ec.submitted.get)
+  }
+
+  /** Callbacks moved to the root promise by linking are all called */
+  @Test
+  def testLinkTransfersCallbackStack {
+    val a = new DefaultPromise[Int]()
+    val b = new DefaultPromise[Int]()
+    val count = 50
+    val done = new CountDownLatch(2 * count)
+    for (_ <- 0 until count) {
+      a.onComplete(_ => done.countDown())(ExecutionContext.global)
+      b.onComplete(_ => done.countDown())(ExecutionContext.global)
+    }
+    b.linkRootOf(a)
+    a.success(1)
+    done.await()
+    assertEquals(Some(Success(1)), b.value)
+  }
 }
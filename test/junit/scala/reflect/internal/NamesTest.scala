@@ -92,4 +92,45 @@ class NamesTest {
     assert(h1 string_== h2)
     assert(h1 string_== h1y)
   }
+
+  @Test
+  def hashtablesGrow() {
+    // well beyond the initial size of the hashtables
+    val strings = (0 until 100000).map("grow" + _)
+    val names = strings map (s => newTermName(s))
+    val typeNames = names map (_.toTypeName)
+    for (i <- strings.indices) {
+      assert(newTermName(strings(i)) eq names(i))
+      assert(newTypeName(strings(i)) eq typeNames(i))
+      assert(typeNames(i).toTermName eq names(i))
+      assert(lookupTypeName(strings(i).toCharArray) eq typeNames(i))
+      assertEquals(strings(i), names(i).toString)
+    }
+    assert(newTermName("hai") eq h1)
+    assert(lookupTypeName("uhu".toCharArray) eq uy)
+  }
+
+  @Test
+  def concurrentNamesAreHashConsed() {
+    object syncTable extends SymbolTableForUnitTesting {
+      override protected def synchronizeNames = true
+    }
+    val strings = (0 until 20000).map("concurrent" + _)
+    val threads = 4
+    val results = new Array[IndexedSeq[syncTable.TypeName]](threads)
+    val workers = for (t <- 0 until threads) yield new Thread {
+      override def run() {
+        // each thread enters the names in a different order
+        val order = if (t % 2 == 0) strings else strings.reverse
+        order foreach (s => syncTable.newTypeName(s))
+        results(t) = strings map (s => syncTable.newTypeName(s))
+      }
+    }
+    workers foreach (_.start())
+    workers foreach (_.join())
+    for (t <- 1 until threads; i <- strings.indices)
+      assert(results(t)(i) eq results(0)(i), strings(i))
+    for (i <- strings.indices)
+      assertEquals(strings(i), results(0)(i).toTermName.toString)
+  }
 }
@@ -51,4 +51,45 @@ class ScopeTest {
     assert(!nested.containsName(bar.name))
     assert(outer.containsName(bar.name))
   }
+
+  private def sym(termName: String): Symbol = NoSymbol.newValue(TermName(termName))
+
+  @Test
+  def testLargeScope(): Unit = {
+    val syms = List.tabulate(5000)(i => sym("m" + i))
+    val scope = newScopeWith(syms: _*)
+    assertEquals(syms, scope.toList)
+    for (s <- syms) assertSame(s, scope.lookup(s.name))
+    assertSame(NoSymbol, scope.lookup(TermName("m5000")))
+
+    // unlink every other symbol, the others are still found
+    val (removed, kept) = syms.zipWithIndex partition (_._2 % 2 == 0)
+    removed foreach (p => scope.unlink(p._1))
+    for ((s, _) <- removed) assertFalse(scope.containsName(s.name))
+    for ((s, _) <- kept) assertSame(s, scope.lookup(s.name))
+    assertEquals(kept.map(_._1), scope.toList)
+  }
+
+  @Test
+  def testOverloadsInEntryOrder(): Unit = {
+    val scope = newScopeWith(List.tabulate(100)(i => sym("x" + i)): _*)
+    val alts = List.fill(3)(sym("f"))
+    alts foreach scope.enter
+    // the last entered symbol with a name is found first
+    assertEquals(alts.reverse, scope.lookupAll(TermName("f")).toList)
+    scope.unlink(alts(1))
+    assertEquals(List(alts(2), alts(0)), scope.lookupAll(TermName("f")).toList)
+  }
+
+  @Test
+  def testRehash(): Unit = {
+    val syms = List.tabulate(100)(i => sym("r" + i))
+    val scope = newScopeWith(syms: _*)
+    val s = syms(42)
+    scope.rehash(s, TermName("renamed"))
+    s.name = TermName("renamed")
+    assertFalse(scope.containsName(TermName("r42")))
+    assertSame(s, scope.lookup(TermName("renamed")))
+    for (other <- syms if other ne s) assertSame(other, scope.lookup(other.name))
+  }
 }
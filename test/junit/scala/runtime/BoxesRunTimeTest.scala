@@ -0,0 +1,45 @@
+package scala.runtime
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+@RunWith(classOf[JUnit4])
+class BoxesRunTimeTest {
+  val values: List[AnyRef] = List[Long](0, 65, 1000, -1, 1L << 40).flatMap(v => List[AnyRef](
+    Int.box(v.toInt), Long.box(v), Double.box(v.toDouble), Float.box(v.toFloat),
+    Byte.box(v.toByte), Short.box(v.toShort), Char.box(v.toChar),
+    BigInt(v), BigDecimal(v), v.toString)) ++ List(null, Double.box(Double.NaN), new Object)
+
+  // the behavior of `equals2` before it classified both operands at once
+  def reference(x: AnyRef, y: AnyRef): Boolean = x match {
+    case xn: java.lang.Number    => BoxesRunTime.equalsNumObject(xn, y)
+    case xc: java.lang.Character => BoxesRunTime.equalsCharObject(xc, y)
+    case null                    => y == null
+    case _                       => x.equals(y)
+  }
+
+  @Test
+  def equals2AgreesWithNumObjectDispatch(): Unit = {
+    for (x <- values; y <- values)
+      assertEquals(s"$x == $y", reference(x, y), BoxesRunTime.equals2(x, y))
+  }
+
+  @Test
+  def hashFromObjectAgreesWithHashFromNumber(): Unit = {
+    for (x <- values if x != null) {
+      val expected = x match { case n: java.lang.Number => BoxesRunTime.hashFromNumber(n) case _ => x.hashCode }
+      assertEquals(s"$x", expected, BoxesRunTime.hashFromObject(x))
+    }
+  }
+
+  @Test
+  def boxing(): Unit = {
+    for (i <- -200 to 70000 by 7) {
+      assertEquals(i, BoxesRunTime.boxToInteger(i).intValue)
+      assertEquals(i.toLong, BoxesRunTime.boxToLong(i).longValue)
+      assertEquals(i.toChar, BoxesRunTime.boxToCharacter(i.toChar).charValue)
+    }
+  }
+}
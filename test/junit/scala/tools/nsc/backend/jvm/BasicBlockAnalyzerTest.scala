@@ -0,0 +1,55 @@
+package scala.tools.nsc.backend.jvm
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import org.junit.Assert._
+import CodeGenTools._
+import scala.tools.asm.tree.analysis._
+import scala.collection.JavaConverters._
+
+@RunWith(classOf[JUnit4])
+class BasicBlockAnalyzerTest {
+  val compiler = newCompiler(extraArgs = "-Ybackend:GenBCode")
+
+  def frameStrings(frames: Array[Frame[BasicValue]]) = frames.map(f => if (f == null) null else f.toString).toList
+
+  @Test
+  def sameFramesAsAnalyzer(): Unit = {
+    val classes = compileClasses(compiler)(
+      """class C {
+        |  def loop(n: Int): Long = { var i = 0; var s = 0L; while (i < n) { s += i; i += 1 }; s }
+        |  def sw(x: Int) = x match { case 1 => "a" case 2 => "b" case 100 => "c" case _ => null }
+        |  def tc(s: String): Double = try { s.toDouble } catch { case e: NumberFormatException => 0d } finally { println() }
+        |  def dead(): Int = { return 1; println(); 2 }
+        |}
+      """.stripMargin)
+
+    for (c <- classes; m <- c.methods.asScala; interpreter <- List(new BasicInterpreter, new BasicVerifier)) {
+      val expected = new Analyzer(interpreter).analyze(c.name, m)
+      val a = new BasicBlockAnalyzer(interpreter)
+      a.analyze(c.name, m)
+      val name = s"${c.name}.${m.name} (${interpreter.getClass.getSimpleName})"
+      assertEquals(name, frameStrings(expected), frameStrings(a.getFrames))
+      for (i <- expected.indices) {
+        assertEquals(name, expected(i) != null, a.isReachable(i))
+        if (expected(i) != null) assertEquals(name, expected(i).toString, a.getFrame(i).toString)
+      }
+    }
+  }
+
+  @Test
+  def basicFrameMerge(): Unit = {
+    val f1 = new BasicFrame(2, 1)
+    f1.setLocal(0, BasicValue.INT_VALUE)
+    f1.setLocal(1, BasicValue.REFERENCE_VALUE)
+    f1.push(BasicValue.LONG_VALUE)
+    val f2 = new BasicFrame(f1)
+    assertFalse(f1.merge(f2, new BasicInterpreter))
+    f2.setLocal(1, BasicValue.FLOAT_VALUE)
+    assertTrue(f1.merge(f2, new BasicInterpreter))
+    assertEquals(BasicValue.UNINITIALIZED_VALUE, f1.getLocal(1))
+    assertEquals(BasicValue.LONG_VALUE, f1.pop())
+    assertEquals(0, f1.getStackSize)
+  }
+}
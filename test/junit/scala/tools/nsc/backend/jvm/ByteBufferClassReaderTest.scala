@@ -0,0 +1,57 @@
+package scala.tools.nsc.backend.jvm
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import org.junit.Assert._
+import CodeGenTools._
+import java.nio.ByteBuffer
+import scala.tools.asm.{ByteBufferClassReader, ClassReader}
+import scala.collection.JavaConverters._
+
+@RunWith(classOf[JUnit4])
+class ByteBufferClassReaderTest {
+  val compiler = newCompiler(extraArgs = "-Ybackend:GenBCode")
+
+  @Test
+  def agreesWithClassReader(): Unit = {
+    val classes = compile(compiler)(
+      """
+        |abstract class C extends Serializable with Cloneable { def f(x: Int): Int; def g = "été" }
+        |object O { def h = 1 }
+      """.stripMargin)
+
+    for ((name, bytes) <- classes) {
+      // the class file doesn't start at position 0 of the buffer
+      val buf = ByteBuffer.allocate(bytes.length + 3)
+      buf.position(3)
+      buf.put(bytes)
+      buf.position(3)
+
+      val r  = new ByteBufferClassReader(buf)
+      val cr = new ClassReader(bytes)
+      assertEquals(name, cr.getClassName, r.getClassName)
+      assertEquals(name, cr.getSuperName, r.getSuperName)
+      assertEquals(name, cr.getInterfaces.toList, r.getInterfaces.toList)
+      assertEquals(name, cr.getAccess, r.getAccess)
+      assertTrue(name, bytes sameElements r.toByteArray)
+
+      for (m <- AsmUtils.readClass(bytes).methods.asScala) {
+        val offset = r.getMethod(m.name, m.desc)
+        assertTrue(s"$name.${m.name}", offset > 0)
+        assertEquals(m.instructions.size > 0, r.getMethodAttribute(offset, "Code") != null)
+      }
+      assertEquals(-1, r.getMethod("noSuchMethod", "()V"))
+    }
+  }
+
+  @Test
+  def scalaSignatureAttributes(): Unit = {
+    val classes = compile(compiler)("class C; object C").toMap
+    val sig = new ByteBufferClassReader(ByteBuffer.wrap(classes("C.class"))).getAttribute("ScalaSig")
+    assertNotNull(sig)
+    assertTrue(sig.isReadOnly)
+    assertNull(new ByteBufferClassReader(ByteBuffer.wrap(classes("C$.class"))).getAttribute("ScalaSig"))
+    assertNotNull(new ByteBufferClassReader(ByteBuffer.wrap(classes("C$.class"))).getAttribute("Scala"))
+  }
+}
@@ -0,0 +1,94 @@
+package scala.tools.nsc
+package backend.jvm
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import java.io.IOException
+import java.util.zip.{ ZipEntry, ZipFile }
+import scala.collection.mutable
+import scala.tools.nsc.io.{ AbstractFile, Directory, File, PlainFile, Streamable }
+
+import CodeGenTools._
+
+@RunWith(classOf[JUnit4])
+class BytecodeWritersTest {
+  val compiler = newCompiler()
+  object writers extends BytecodeWriters { val global: compiler.type = compiler }
+
+  private def classBytes(n: Int) = Array.fill[Byte](100)(n.toByte)
+
+  @Test
+  def unchangedClassfilesAreLeftAlone(): Unit = {
+    val dir = Directory.makeTemp("writers")
+    try {
+      val writer  = new writers.ClassBytecodeWriter { skipUnchanged = true }
+      val file    = (dir / "C.class").toFile
+      val outfile = new PlainFile(file)
+      val past    = 1000000000000L
+
+      writer.writeClass("", "C", classBytes(1), outfile)
+      assertArrayEquals(classBytes(1), file.toByteArray())
+      file.jfile setLastModified past
+      writer.writeClass("", "C", classBytes(1), outfile)
+      assertEquals(past, file.jfile.lastModified)
+
+      writer.writeClass("", "C", classBytes(2), outfile)
+      assertArrayEquals(classBytes(2), file.toByteArray())
+      writer.writeClass("", "C", classBytes(3) take 10, outfile)
+      assertArrayEquals(classBytes(3) take 10, file.toByteArray())
+    } finally dir.deleteRecursively()
+  }
+
+  @Test
+  def jarEntriesUseTheCompressionLevel(): Unit = {
+    for ((level, method) <- List(0 -> ZipEntry.STORED, 9 -> ZipEntry.DEFLATED)) {
+      compiler.settings.YjarCompressionLevel.value = level
+      val jar = File.makeTemp("writers", ".jar")
+      try {
+        val writer = new writers.DirectToJarfileWriter(jar.jfile)
+        writer.writeClass("", "p/C", classBytes(1), null)
+        writer.close()
+        val zip = new ZipFile(jar.jfile)
+        try {
+          val entry = zip getEntry "p/C.class"
+          assertEquals(method, entry.getMethod)
+          assertArrayEquals(classBytes(1), Streamable.bytes(zip getInputStream entry))
+        } finally zip.close()
+      } finally jar.delete()
+    }
+  }
+
+  @Test
+  def asyncWriterWritesInOrder(): Unit = {
+    val written = mutable.ListBuffer[String]()
+    val recording = new writers.BytecodeWriter {
+      def writeClass(label: String, jclassName: String, jclassBytes: Array[Byte], outfile: AbstractFile): Unit = written += jclassName
+    }
+    val writer = new writers.AsyncBytecodeWriter(recording)
+    val names = (1 to 5000).map("C" + _)
+    for (name <- names) writer.writeClass("", name, classBytes(1), null)
+    writer.close()
+    assertEquals(names.toList, written.toList)
+  }
+
+  @Test(timeout = 60000L)
+  def asyncWriterRethrowsFailuresWithoutBlocking(): Unit = {
+    val failing = new writers.BytecodeWriter {
+      def writeClass(label: String, jclassName: String, jclassBytes: Array[Byte], outfile: AbstractFile): Unit = throw new IOException("disk full")
+    }
+    val writer = new writers.AsyncBytecodeWriter(failing)
+    // more classes than fit into the queue, which is no longer drained after the first one
+    val thrown = try {
+      for (i <- 1 to 5000) writer.writeClass("", "C" + i, classBytes(1), null)
+      writer.close()
+      null
+    } catch {
+      case ex: IOException => ex
+    }
+    assertNotNull(thrown)
+    assertEquals("disk full", thrown.getMessage)
+  }
+}
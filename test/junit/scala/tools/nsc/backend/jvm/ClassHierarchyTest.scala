@@ -0,0 +1,82 @@
+package scala.tools.nsc.backend.jvm
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import org.junit.Assert._
+import scala.tools.asm.{ClassHierarchy, ClassWriter, ClassfileClassHierarchy, MemoizingClassHierarchy}
+
+@RunWith(classOf[JUnit4])
+class ClassHierarchyTest {
+  /** Exposes the common super classes of a class writer. */
+  class ExposedClassWriter(hierarchy: ClassHierarchy) extends ClassWriter(0, hierarchy) {
+    def commonSuperClass(type1: String, type2: String) = getCommonSuperClass(type1, type2)
+  }
+
+  /** A hierarchy that counts the queries it answers. */
+  class CountingClassHierarchy(underlying: ClassHierarchy) extends ClassHierarchy {
+    var queries = 0
+    def getCommonSuperClass(type1: String, type2: String) = {
+      queries += 1
+      underlying.getCommonSuperClass(type1, type2)
+    }
+  }
+
+  val jdkPairs = List(
+    ("java/lang/Integer", "java/lang/Long"),
+    ("java/lang/Integer", "java/lang/Comparable"),
+    ("java/lang/Comparable", "java/lang/Integer"),
+    ("java/lang/Integer", "java/lang/String"),
+    ("java/util/ArrayList", "java/util/LinkedList"),
+    ("java/util/List", "java/util/Set"),
+    ("java/util/ArrayList", "java/util/List"),
+    ("java/lang/Object", "java/lang/String"),
+    ("java/lang/String", "java/lang/String"))
+
+  @Test
+  def classfileHierarchyAgreesWithLoadedClasses(): Unit = {
+    val reflective = new ExposedClassWriter(null)
+    val fromClassfiles = new ExposedClassWriter(new ClassfileClassHierarchy(getClass.getClassLoader))
+    for ((t1, t2) <- jdkPairs)
+      assertEquals(s"$t1, $t2", reflective.commonSuperClass(t1, t2), fromClassfiles.commonSuperClass(t1, t2))
+    assertEquals("java/lang/Number", fromClassfiles.commonSuperClass("java/lang/Integer", "java/lang/Long"))
+    assertEquals("java/util/AbstractList", fromClassfiles.commonSuperClass("java/util/ArrayList", "java/util/LinkedList"))
+  }
+
+  @Test
+  def registeredClassesNeedNoClassfiles(): Unit = {
+    val hierarchy = new ClassfileClassHierarchy(null)
+    hierarchy.addClass("p/A", "java/lang/Object", null, false)
+    hierarchy.addClass("p/B", "p/A", Array("p/I"), false)
+    hierarchy.addClass("p/C", "p/A", null, false)
+    hierarchy.addClass("p/D", "java/lang/Object", Array("p/I"), false)
+    hierarchy.addClass("p/I", "java/lang/Object", null, true)
+    assertEquals("p/A", hierarchy.getCommonSuperClass("p/B", "p/C"))
+    assertEquals("p/A", hierarchy.getCommonSuperClass("p/A", "p/C"))
+    assertEquals("p/I", hierarchy.getCommonSuperClass("p/B", "p/I"))
+    assertEquals("java/lang/Object", hierarchy.getCommonSuperClass("p/B", "p/D"))
+    assertEquals("java/lang/Object", hierarchy.getCommonSuperClass("p/C", "p/I"))
+  }
+
+  @Test(expected = classOf[RuntimeException])
+  def unknownClassesAreReported(): Unit =
+    new ClassfileClassHierarchy(null).getCommonSuperClass("p/Missing", "p/Other")
+
+  @Test
+  def memoizedAnswersAreShared(): Unit = {
+    val counting  = new CountingClassHierarchy(new ClassfileClassHierarchy(getClass.getClassLoader))
+    val memoizing = new MemoizingClassHierarchy(counting)
+    val writers   = List.fill(3)(new ExposedClassWriter(memoizing))
+    for (w <- writers; (t1, t2) <- jdkPairs) {
+      assertEquals(counting.getCommonSuperClass(t1, t2), w.commonSuperClass(t1, t2))
+      counting.queries -= 1 // the query for the expected answer
+    }
+    // one query per unordered pair of distinct types, across all writers
+    val distinctPairs = jdkPairs.filter(p => p._1 != p._2).map(p => Set(p._1, p._2)).distinct
+    assertEquals(distinctPairs.length, counting.queries)
+
+    memoizing.clear()
+    assertEquals("java/lang/Number", memoizing.getCommonSuperClass("java/lang/Long", "java/lang/Integer"))
+    assertEquals(distinctPairs.length + 1, counting.queries)
+  }
+}
@@ -0,0 +1,50 @@
+package scala.tools.nsc.backend.jvm
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import org.junit.Assert._
+import CodeGenTools._
+import scala.tools.asm.{ByteVector, ClassReader, ClassWriter}
+
+@RunWith(classOf[JUnit4])
+class ClassWriterReuseTest {
+  val compiler = newCompiler(extraArgs = "-Ybackend:GenBCode")
+
+  def rewrite(cw: ClassWriter, bytes: Array[Byte]): Array[Byte] = {
+    new ClassReader(bytes).accept(cw, 0)
+    cw.toByteArray
+  }
+
+  @Test
+  def resetWriterProducesSameBytes(): Unit = {
+    val classes = compile(compiler)(
+      """
+        |class C {
+        |  def f(x: Int) = x match { case 1 => "a" case 2 => "b" case 3 => "c" case _ => "d" }
+        |  def g(x: Any) = try x.toString catch { case _: Throwable => "" }
+        |}
+        |object D { def h = (1 to 10).map(_ + 1) }
+      """.stripMargin)
+
+    val reused = new ClassWriter(ClassWriter.COMPUTE_MAXS)
+    // twice, so that the second round runs on recycled buffers
+    for (_ <- 1 to 2; (name, bytes) <- classes) {
+      val expected = rewrite(new ClassWriter(ClassWriter.COMPUTE_MAXS), bytes)
+      reused.reset()
+      assertTrue(name, expected sameElements rewrite(reused, bytes))
+    }
+  }
+
+  @Test
+  def toByteVectorMatchesToByteArray(): Unit = {
+    val List((_, bytes)) = compile(compiler)("class C { def f = List(1, 2, 3).sum }")
+    val expected = rewrite(new ClassWriter(0), bytes)
+    val cw = new ClassWriter(0)
+    new ClassReader(bytes).accept(cw, 0)
+    val out = new ByteVector(16)
+    cw.toByteVector(out)
+    assertEquals(expected.length, out.getLength)
+    assertTrue(expected sameElements out.getData.take(out.getLength))
+  }
+}
@@ -0,0 +1,58 @@
+package scala.tools.nsc.backend.jvm
+
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import org.junit.Assert._
+import scala.tools.asm.Opcodes
+import scala.tools.asm.tree._
+
+@RunWith(classOf[JUnit4])
+class InsnListOrderTest {
+  def assertOrdered(insns: InsnList): Unit = {
+    val arr = insns.toArray
+    for (i <- 0 until arr.length - 1) {
+      assertTrue(s"$i", insns.isBefore(arr(i), arr(i + 1)))
+      assertFalse(s"$i", insns.isBefore(arr(i + 1), arr(i)))
+    }
+  }
+
+  def nop = new InsnNode(Opcodes.NOP)
+
+  @Test
+  def orderSurvivesModifications(): Unit = {
+    val insns = new InsnList
+    for (_ <- 1 to 10) insns.add(nop)
+    insns.setOrderIndexed(true)
+    assertOrdered(insns)
+
+    val random = new scala.util.Random(42)
+    for (step <- 1 to 2000) {
+      val location = insns.get(random.nextInt(insns.size))
+      random.nextInt(6) match {
+        case 0 => insns.add(nop)
+        case 1 => insns.insert(nop)
+        case 2 => insns.insert(location, nop)
+        case 3 => insns.insertBefore(location, nop)
+        case 4 => if (insns.size > 5) insns.remove(location)
+        case 5 =>
+          val l = new InsnList
+          for (_ <- 1 to random.nextInt(4)) l.add(nop)
+          insns.insert(location, l)
+      }
+      assertOrdered(insns)
+    }
+  }
+
+  @Test
+  def exhaustedGapRenumbers(): Unit = {
+    val insns = new InsnList
+    insns.setOrderIndexed(true)
+    insns.add(nop)
+    insns.add(nop)
+    val first = insns.getFirst
+    // every insertion halves the gap after `first`
+    for (_ <- 1 to 100) insns.insert(first, nop)
+    assertOrdered(insns)
+  }
+}
@@ -0,0 +1,66 @@
+package scala.tools.nsc
+package backend.jvm
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import java.util.jar.JarFile
+import scala.collection.JavaConverters._
+import scala.reflect.internal.util.BatchSourceFile
+import scala.reflect.io.PlainFile
+import scala.tools.nsc.io.{ File, Streamable }
+import scala.tools.nsc.reporters.StoreReporter
+
+import CodeGenTools._
+
+@RunWith(classOf[JUnit4])
+class ParallelBackendTest {
+  // more classes than fit in the bounded queue-2 of four workers, with mirror classes and closures
+  val classes = (1 to 300).map(i =>
+    s"""class C$i { def f(x: Int) = (1 to x).map(_ * $i).sum }
+       |object C$i { def g = new C$i().f($i) }""".stripMargin).mkString("\n")
+
+  // ASM fails to serialize a method with more than 64K of code
+  val tooLarge = (1 to 8000).map(i => s"    println($i)").mkString("class TooLarge {\n  def f(): Unit = {\n", "\n", "\n  }\n}")
+
+  /** Compiles `code` into a jar, returns its entries in the order they were written and the reporter. */
+  private def compileToJar(parallelism: Int, code: String): (List[(String, Array[Byte])], StoreReporter) = {
+    val jar = File.makeTemp("parallel-backend", ".jar")
+    try {
+      val compiler = newCompiler(extraArgs = s"-Ybackend:GenBCode -Ybackend-parallelism:$parallelism")
+      val reporter = new StoreReporter
+      compiler.reporter = reporter
+      compiler.settings.outputDirs.setSingleOutput(new PlainFile(jar))
+      new compiler.Run().compileSources(List(new BatchSourceFile("unitTestSource.scala", code)))
+      if (reporter.hasErrors) (Nil, reporter)
+      else {
+        val jarFile = new JarFile(jar.jfile)
+        try {
+          val entries = jarFile.entries.asScala.filterNot(_.isDirectory).toList
+          (entries map (e => (e.getName, Streamable.bytes(jarFile getInputStream e))), reporter)
+        } finally jarFile.close()
+      }
+    } finally jar.delete()
+  }
+
+  @Test
+  def sameClassfilesInTheSameOrder(): Unit = {
+    val (sequential, _) = compileToJar(1, classes)
+    val (parallel, _)   = compileToJar(4, classes)
+    assertTrue(sequential.length > 600)
+    assertEquals(sequential.map(_._1), parallel.map(_._1))
+    for (((name, s), (_, p)) <- sequential zip parallel)
+      assertArrayEquals(name, s, p)
+  }
+
+  @Test(timeout = 120000L)
+  def workerFailuresAreReported(): Unit = {
+    for (parallelism <- List(1, 4)) {
+      val (_, reporter) = compileToJar(parallelism, classes + "\n" + tooLarge)
+      val errors = reporter.infos.toList filter (_.severity == reporter.ERROR)
+      assertTrue(s"parallelism $parallelism: $errors", errors exists (_.msg contains "Error while emitting TooLarge"))
+    }
+  }
+}
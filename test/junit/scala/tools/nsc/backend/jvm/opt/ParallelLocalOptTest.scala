@@ -0,0 +1,41 @@
+package scala.tools.nsc
+package backend.jvm
+package opt
+
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import org.junit.Test
+import org.junit.Assert._
+import scala.concurrent.forkjoin.ForkJoinPool
+import scala.collection.JavaConverters._
+
+import CodeGenTools._
+import scala.tools.partest.ASMConverters._
+
+@RunWith(classOf[JUnit4])
+class ParallelLocalOptTest {
+  // jvm-1.5 emits dead code as-is, see UnreachableCodeTest
+  val noOptNoFramesCompiler = newCompiler(extraArgs = "-target:jvm-1.5 -Ybackend:GenBCode -Yopt:l:none")
+
+  @Test
+  def sameResultAsSequential(): Unit = {
+    val methods = (1 to 100).map(i =>
+      s"""def f$i(x: Int): Int = {
+         |  try { if (x > $i) return x * $i else throw new RuntimeException } catch { case e: RuntimeException => return -x }
+         |  x + $i
+         |}""".stripMargin)
+    val List((_, bytes)) = compile(noOptNoFramesCompiler)(methods.mkString("class C {\n", "\n", "\n}"))
+    val sequential = AsmUtils.readClass(bytes)
+    val parallel   = AsmUtils.readClass(bytes)
+    assertTrue(sequential.methods.asScala.map(_.instructions.size).sum >= LocalOpt.ParallelInstructionThreshold)
+
+    val pool = new ForkJoinPool(4)
+    try {
+      assertTrue(LocalOpt.removeUnreachableCode(sequential))
+      assertTrue(LocalOpt.removeUnreachableCode(parallel, pool))
+    } finally pool.shutdown()
+
+    for ((s, p) <- sequential.methods.asScala zip parallel.methods.asScala)
+      assertEquals(s.name, convertMethod(s), convertMethod(p))
+  }
+}
@@ -0,0 +1,55 @@
+package scala.tools.nsc
+package io
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import java.util.zip.{ ZipEntry, ZipFile }
+
+@RunWith(classOf[JUnit4])
+class JarWriterTest {
+  private val contents = Array.tabulate[Byte](10000)(i => (i % 7).toByte)
+
+  /** Writes two entries with `writeEntry` at the given compression level and reads the jar back. */
+  private def withJar[T](level: Option[Int])(body: ZipFile => T): T = {
+    val file = File.makeTemp("writer", ".jar")
+    try {
+      val writer = new Jar(file).jarWriter()
+      level foreach (writer setLevel _)
+      writer.writeEntry("a/A.class", contents)
+      writer.writeEntry("B.class", Array[Byte]())
+      writer.close()
+      val zip = new ZipFile(file.jfile)
+      try body(zip) finally zip.close()
+    } finally file.delete()
+  }
+
+  private def bytes(zip: ZipFile, name: String) = Streamable.bytes(zip getInputStream (zip getEntry name))
+
+  @Test
+  def entriesAreStoredAtLevelZero(): Unit = withJar(Some(0)) { zip =>
+    val entry = zip getEntry "a/A.class"
+    assertEquals(ZipEntry.STORED, entry.getMethod)
+    assertEquals(contents.length.toLong, entry.getCompressedSize)
+    assertArrayEquals(contents, bytes(zip, "a/A.class"))
+    assertArrayEquals(Array[Byte](), bytes(zip, "B.class"))
+  }
+
+  @Test
+  def entriesAreDeflatedAtOtherLevels(): Unit = for (level <- List(None, Some(1), Some(9))) withJar(level) { zip =>
+    val entry = zip getEntry "a/A.class"
+    assertEquals(ZipEntry.DEFLATED, entry.getMethod)
+    assertTrue(entry.getCompressedSize < contents.length)
+    assertArrayEquals(contents, bytes(zip, "a/A.class"))
+    assertArrayEquals(Array[Byte](), bytes(zip, "B.class"))
+  }
+
+  @Test(expected = classOf[IllegalArgumentException])
+  def invalidLevelsAreRejected(): Unit = {
+    val file = File.makeTemp("writer", ".jar")
+    try new Jar(file).jarWriter() setLevel 10
+    finally file.delete()
+  }
+}
@@ -0,0 +1,74 @@
+package scala.tools.nsc
+package symtab
+package classfile
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import scala.tools.nsc.io.{ AbstractFile, File, VirtualFile }
+
+@RunWith(classOf[JUnit4])
+class AbstractFileReaderTest {
+  private def withPlainFile[T](bytes: Array[Byte])(body: AbstractFile => T): T = {
+    val file = File.makeTemp("reader", ".class")
+    try {
+      val out = file.outputStream()
+      try out.write(bytes) finally out.close()
+      body(AbstractFile.getFile(file))
+    } finally file.delete()
+  }
+
+  private def content(n: Int) = Array.tabulate[Byte](n)(_.toByte)
+
+  @Test
+  def pooledReaderReadsTheFile(): Unit = withPlainFile(content(100)) { file =>
+    val in = AbstractFileReader.pooled(file)
+    try {
+      assertTrue(in.buf.length >= 100)
+      assertArrayEquals(content(100), in.buf take 100)
+      assertEquals(0x00010203, in.nextInt)
+      assertEquals(4, in.bp)
+    } finally in.release()
+  }
+
+  @Test
+  def releasedBuffersAreReused(): Unit = withPlainFile(content(100)) { file =>
+    val first = AbstractFileReader.pooled(file)
+    val buf = first.buf
+    first.release()
+    first.release() // releasing twice gives the buffer back only once
+
+    val nested1 = AbstractFileReader.pooled(file)
+    val nested2 = AbstractFileReader.pooled(file)
+    assertSame(buf, nested1.buf)
+    assertNotSame(buf, nested2.buf)
+    nested2.release()
+    nested1.release()
+  }
+
+  @Test
+  def retainedBytesOutliveAPooledBuffer(): Unit = withPlainFile(content(100)) { file =>
+    val in = AbstractFileReader.pooled(file)
+    val (bytes, offset) = in.retainedBytes(10, 20)
+    in.release()
+    java.util.Arrays.fill(in.buf, 0.toByte)
+    assertEquals(0, offset)
+    assertArrayEquals(content(30) drop 10, bytes)
+  }
+
+  @Test
+  def virtualFilesAreNotPooled(): Unit = {
+    val file = new VirtualFile("A.class")
+    val out = file.output
+    out.write(content(10))
+    out.close()
+    val in = AbstractFileReader.pooled(file)
+    assertArrayEquals(content(10), in.buf)
+    val (bytes, offset) = in.retainedBytes(2, 5)
+    assertSame(in.buf, bytes)
+    assertEquals(2, offset)
+    in.release()
+  }
+}
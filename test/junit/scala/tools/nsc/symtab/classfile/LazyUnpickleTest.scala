@@ -0,0 +1,40 @@
+package scala.tools.nsc
+package symtab
+package classfile
+
+import org.junit.Assert._
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+
+import scala.tools.nsc.backend.jvm.CodeGenTools.newCompiler
+
+@RunWith(classOf[JUnit4])
+class LazyUnpickleTest {
+  /** `DeprecatedConsole.readBoolean`, a library method with a `@deprecated` annotation. */
+  private def readBoolean(global: Global): global.Symbol = {
+    new global.Run
+    global.rootMirror.getRequiredClass("scala.DeprecatedConsole").info.decl(global.newTermName("readBoolean"))
+  }
+
+  @Test
+  def annotationsAreReadWhenInspected(): Unit = {
+    val global = newCompiler(extraArgs = "-Ylazy-unpickle")
+    import global._
+    val List(annot) = readBoolean(global).annotations
+    assertTrue(annot.isInstanceOf[LazyAnnotationInfo])
+    assertEquals("@<?>", annot.toString)
+    assertEquals(definitions.DeprecatedAttr, annot.atp.typeSymbol)
+    assertEquals(Some("Use the method in scala.io.StdIn"), annot.stringArg(0))
+    assertFalse(annot.toString == "@<?>")
+  }
+
+  @Test
+  def annotationsAreReadEagerlyByDefault(): Unit = {
+    val global = newCompiler()
+    import global._
+    val List(annot) = readBoolean(global).annotations
+    assertFalse(annot.isInstanceOf[LazyAnnotationInfo])
+    assertEquals(definitions.DeprecatedAttr, annot.atp.typeSymbol)
+  }
+}
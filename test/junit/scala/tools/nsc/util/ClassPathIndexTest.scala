@@ -0,0 +1,93 @@
+package scala.tools.nsc.util
+
+import java.io.{ File => JFile, FileOutputStream, RandomAccessFile }
+import java.util.jar.{ JarEntry, JarOutputStream }
+import org.junit.Assert._
+import org.junit.{ After, Before, Test }
+import org.junit.runner.RunWith
+import org.junit.runners.JUnit4
+import scala.reflect.io.{ Directory, FileZipArchive }
+import ClassPath.JavaContext
+
+@RunWith(classOf[JUnit4])
+class ClassPathIndexTest {
+  private var tmp: Directory = _
+  private var jarFile: JFile = _
+
+  @Before
+  def setUp(): Unit = {
+    tmp = Directory.makeTemp("classpath-index")
+    jarFile = (tmp / "lib.jar").jfile
+    writeJar(List("a/", "a/A.class", "a/B.class", "a/b/C.class", "a/res.txt", "D.class", "META-INF/MANIFEST.MF"))
+  }
+
+  @After
+  def tearDown(): Unit = tmp.deleteRecursively()
+
+  private def writeJar(names: List[String]): Unit = {
+    val out = new JarOutputStream(new FileOutputStream(jarFile))
+    try for (name <- names) {
+      out.putNextEntry(new JarEntry(name))
+      if (!name.endsWith("/")) out.write(name.getBytes("UTF-8"))
+      out.closeEntry()
+    } finally out.close()
+  }
+
+  private def indexedContext = new JavaContext {
+    override val classPathIndex = Some(new ClassPathIndex((tmp / "index").toDirectory))
+  }
+
+  private def describe(cp: ClassPath[_]): List[String] =
+    cp.classes.map(_.name).toList.sorted ++ cp.packages.sortBy(_.name).flatMap(p => describe(p).map(p.name + "." + _))
+
+  @Test
+  def listsTheSamePackagesAndClassesAsTheJar(): Unit = {
+    val direct  = new DirectoryClassPath(new FileZipArchive(jarFile), ClassPath.DefaultJavaContext)
+    val indexed = indexedContext.newClassPath(new FileZipArchive(jarFile))
+    assertTrue(indexed.isInstanceOf[IndexedClassPath])
+    assertEquals(List("D", "a.A", "a.B", "a.b.C"), describe(direct))
+    assertEquals(describe(direct), describe(indexed))
+    assertEquals(direct.name, indexed.name)
+    assertEquals(direct.origin, indexed.origin)
+  }
+
+  @Test
+  def classFilesAreReadFromTheJar(): Unit = {
+    val indexed = indexedContext.newClassPath(new FileZipArchive(jarFile))
+    val file = indexed.findClassFile("a.b.C").get
+    assertEquals("a/b/C.class", new String(file.toByteArray, "UTF-8"))
+    assertEquals(Some("a/b/C.class".length), file.sizeOption)
+  }
+
+  @Test
+  def indexIsReusedUntilTheJarChanges(): Unit = {
+    indexedContext.newClassPath(new FileZipArchive(jarFile))
+    val indexFiles = (tmp / "index").toDirectory.files.toList
+    assertEquals(1, indexFiles.size)
+    val written = indexFiles.head.lastModified
+
+    // a new index would be written if the first one were not valid
+    Thread.sleep(1000)
+    indexedContext.newClassPath(new FileZipArchive(jarFile))
+    assertEquals(written, indexFiles.head.lastModified)
+
+    writeJar(List("e/E.class"))
+    val changed = indexedContext.newClassPath(new FileZipArchive(jarFile))
+    assertEquals(List("e.E"), describe(changed))
+  }
+
+  @Test
+  def corruptClassRecordsAreRebuilt(): Unit = {
+    indexedContext.newClassPath(new FileZipArchive(jarFile))
+    val index = (tmp / "index").toDirectory.files.toList.head.jfile
+    val length = index.length
+
+    // cut the last class record short, it is only decoded when its package is listed
+    val raf = new RandomAccessFile(index, "rw")
+    try raf.setLength(length - 1) finally raf.close()
+
+    val rebuilt = indexedContext.newClassPath(new FileZipArchive(jarFile))
+    assertEquals(List("D", "a.A", "a.B", "a.b.C"), describe(rebuilt))
+    assertEquals(length, index.length)
+  }
+}